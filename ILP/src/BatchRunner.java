@@ -0,0 +1,536 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import com.gurobi.gurobi.GRBException;
+
+import ilp.EnvPool;
+import ilp.cache.SolveCache;
+import ilp.constraints.ConstraintModule;
+import ilp.objective.CompactSquareTopLeft;
+import ilp.objective.ObjectiveModule;
+import ilp.objective.PolygonAreaDimensionsComplexity;
+import ilp.solvers.SolutionPositioner;
+import ilp.solvers.StatementEntitySolver;
+import io.SolutionWriter;
+import io.StatementEntityReader;
+import model.PositionedSolution;
+import model.Solution;
+import model.StatementEntityInstance;
+import split.GreedySplit;
+import split.StatementCost;
+
+/*
+ * Solves a whole corpus of instances in one JVM. Instances run concurrently on a
+ * fixed pool of workers, sized so that workers * parallelism * threadsPerModel
+ * stays within the core budget (every Gurobi model is limited to threadsPerModel
+ * threads). Each worker solves its instance with its own Orchestrator, which
+ * solves the split parts of the instance on parallelism threads; the solver (and
+ * its cache) is shared. Writes one solution file per instance and a manifest.json with the
+ * status, wall time and layout size of every instance.
+ *
+ * Usage: BatchRunner [options] <file | directory | glob>...
+ *   --config <file.json>   config file (keys as in Config, e.g. {"dimensions": 3})
+ *   --output <dir>         output folder (default solutions/)
+ *   --dimensions <d>       grid is (d+1) x (d+1) (default 3)
+ *   --maxDimensions <d>    grid deepening: solve every part on the smallest grid
+ *                          that works, up to (d+1) x (d+1) (default 0 = off)
+ *   --type <rectangles|polygons|cells> cells = rectangles with statements and
+ *                          entity sides assigned to grid cells (default polygons)
+ *   --splitK <k>           max number of entities deleted per split (default 5)
+ *   --splitRatio <r>       (default 1/3)
+ *   --splitSearch <exhaustive|bound> try every deletion set, or prune them with
+ *                          lower bounds (same split, default exhaustive)
+ *   --splitCost <entities|statements> compare splits by entity counts, or by
+ *                          statements against the grid capacity and predicted
+ *                          solve effort (default entities)
+ *   --separatorAbove <n>   split instances with more than n entities at vertex
+ *                          separators instead (default 50, 0 = never)
+ *   --partitionAbove <n>   partition instances with more than n statements into
+ *                          parts that fit the grid (default 1000, 0 = never)
+ *   --cores <n>            global core budget (default: all processors)
+ *   --threads <n>          Gurobi threads per model (default 1)
+ *   --parallelism <n>      threads solving the parts of one instance (default 0 =
+ *                          the workers left idle when there are fewer instances
+ *                          than workers, shared among the instances)
+ *   --cache <dir>          solve cache folder, "none" to disable (default none)
+ *   --mipStart <true|false> seed models with a constructive layout (default false);
+ *                          the manifest has the time to first incumbent, compare
+ *                          it with that of a run with the other setting
+ *   --compress <true|false> solve with statements of identical membership
+ *                          merged into runs first, and start the full model
+ *                          from that layout (default false)
+ *   --relations <true|false> relation-aware constraints: nest subset entities
+ *                          and leave out implied separations (rectangles and
+ *                          polygons, default false)
+ *   --symmetry <true|false> order statements that belong to the same entities
+ *                          (C4) to break layout symmetry (default false)
+ *   --engine <ilp|annealing> lay out parts with the ILP model, or by simulated
+ *                          annealing without Gurobi (default ilp)
+ *   --fallback <true|false> use annealing when Gurobi fails (default true)
+ *   --budget <seconds>     wall-clock budget per instance, shared by its split
+ *                          parts; incumbents are accepted when it runs out
+ * Command line options override the config file. A directory means all .json
+ * files in it, a glob is matched against the file names in its parent folder,
+ * e.g. "../Final Datasets/experiment_data/*.json".
+ */
+public class BatchRunner {
+
+    public static class Config {
+        public int dimensions = 3;
+        public int maxDimensions = 0; // 0 = fixed grid of dimensions
+        public int modelType = 1; // 0 = rectangles, 1 = polygons, 2 = rectangles on cells
+        public int splitK = 5;
+        public double splitRatio = 1.0 / 3;
+        public GreedySplit.Search splitSearch = GreedySplit.Search.EXHAUSTIVE;
+        public boolean statementCost = false; // split cost by statements instead of entities
+        public int separatorThreshold = 50; // 0 = always GreedySplit
+        public int partitionThreshold = 1000; // 0 = never partition
+        public int cores = Runtime.getRuntime().availableProcessors();
+        public int threadsPerModel = 1;
+        public int parallelism = 0; // 0 = spread idle workers over the instances
+        public String outputFolder = "solutions/";
+        public String cacheFolder = null; // null = no cache
+        public double timeBudget = Double.POSITIVE_INFINITY; // seconds per instance
+        public boolean mipStart = false;
+        public boolean classCompression = false;
+        public boolean relationAware = false;
+        public boolean symmetryBreaking = false;
+        public StatementEntitySolver.Engine engine = StatementEntitySolver.Engine.ILP;
+        public boolean annealingFallback = true;
+        public List<String> inputs = new ArrayList<>();
+
+        public int workers() {
+            return Math.max(1, cores / Math.max(1, threadsPerModel));
+        }
+
+        // Threads solving the parts of one instance when there are the given number
+        // of instances
+        public int parallelism(int instances) {
+            if (parallelism > 0)
+                return parallelism;
+            return Math.max(1, workers() / Math.max(1, Math.min(workers(), instances)));
+        }
+
+        void apply(JSONObject obj) {
+            dimensions = obj.optInt("dimensions", dimensions);
+            maxDimensions = obj.optInt("maxDimensions", maxDimensions);
+            if (obj.has("type"))
+                modelType = parseType(obj.getString("type"));
+            splitK = obj.optInt("splitK", splitK);
+            splitRatio = obj.optDouble("splitRatio", splitRatio);
+            if (obj.has("splitSearch"))
+                splitSearch = parseSplitSearch(obj.getString("splitSearch"));
+            if (obj.has("splitCost"))
+                statementCost = parseSplitCost(obj.getString("splitCost"));
+            separatorThreshold = obj.optInt("separatorAbove", separatorThreshold);
+            partitionThreshold = obj.optInt("partitionAbove", partitionThreshold);
+            cores = obj.optInt("cores", cores);
+            threadsPerModel = obj.optInt("threads", threadsPerModel);
+            parallelism = obj.optInt("parallelism", parallelism);
+            outputFolder = obj.optString("output", outputFolder);
+            if (obj.has("cache"))
+                cacheFolder = parseCache(obj.getString("cache"));
+            timeBudget = obj.optDouble("budget", timeBudget);
+            mipStart = obj.optBoolean("mipStart", mipStart);
+            classCompression = obj.optBoolean("compress", classCompression);
+            relationAware = obj.optBoolean("relations", relationAware);
+            symmetryBreaking = obj.optBoolean("symmetry", symmetryBreaking);
+            if (obj.has("engine"))
+                engine = parseEngine(obj.getString("engine"));
+            annealingFallback = obj.optBoolean("fallback", annealingFallback);
+            if (obj.has("inputs")) {
+                JSONArray arr = obj.getJSONArray("inputs");
+                for (int i = 0; i < arr.length(); i++) {
+                    inputs.add(arr.getString(i));
+                }
+            }
+        }
+
+        public static Config parse(String[] args) throws IOException {
+            Config config = new Config();
+
+            // The config file first, so the other options override it
+            for (int i = 0; i < args.length - 1; i++) {
+                if (args[i].equals("--config")) {
+                    config.apply(new JSONObject(Files.readString(Paths.get(args[i + 1]), StandardCharsets.UTF_8)));
+                }
+            }
+
+            List<String> inputs = new ArrayList<>();
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (!arg.startsWith("--")) {
+                    inputs.add(arg);
+                    continue;
+                }
+                if (i + 1 >= args.length)
+                    throw new IllegalArgumentException("Missing value for " + arg);
+
+                String value = args[++i];
+                switch (arg) {
+                    case "--config":
+                        break;
+                    case "--output":
+                        config.outputFolder = value;
+                        break;
+                    case "--dimensions":
+                        config.dimensions = Integer.parseInt(value);
+                        break;
+                    case "--maxDimensions":
+                        config.maxDimensions = Integer.parseInt(value);
+                        break;
+                    case "--type":
+                        config.modelType = parseType(value);
+                        break;
+                    case "--splitK":
+                        config.splitK = Integer.parseInt(value);
+                        break;
+                    case "--splitRatio":
+                        config.splitRatio = Double.parseDouble(value);
+                        break;
+                    case "--splitSearch":
+                        config.splitSearch = parseSplitSearch(value);
+                        break;
+                    case "--splitCost":
+                        config.statementCost = parseSplitCost(value);
+                        break;
+                    case "--separatorAbove":
+                        config.separatorThreshold = Integer.parseInt(value);
+                        break;
+                    case "--partitionAbove":
+                        config.partitionThreshold = Integer.parseInt(value);
+                        break;
+                    case "--cores":
+                        config.cores = Integer.parseInt(value);
+                        break;
+                    case "--threads":
+                        config.threadsPerModel = Integer.parseInt(value);
+                        break;
+                    case "--parallelism":
+                        config.parallelism = Integer.parseInt(value);
+                        break;
+                    case "--cache":
+                        config.cacheFolder = parseCache(value);
+                        break;
+                    case "--mipStart":
+                        config.mipStart = Boolean.parseBoolean(value);
+                        break;
+                    case "--compress":
+                        config.classCompression = Boolean.parseBoolean(value);
+                        break;
+                    case "--relations":
+                        config.relationAware = Boolean.parseBoolean(value);
+                        break;
+                    case "--symmetry":
+                        config.symmetryBreaking = Boolean.parseBoolean(value);
+                        break;
+                    case "--engine":
+                        config.engine = parseEngine(value);
+                        break;
+                    case "--fallback":
+                        config.annealingFallback = Boolean.parseBoolean(value);
+                        break;
+                    case "--budget":
+                        config.timeBudget = Double.parseDouble(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + arg);
+                }
+            }
+            if (!inputs.isEmpty())
+                config.inputs = inputs;
+
+            return config;
+        }
+
+        private static int parseType(String type) {
+            switch (type) {
+                case "rectangles":
+                case "0":
+                    return 0;
+                case "polygons":
+                case "1":
+                    return 1;
+                case "cells":
+                case "2":
+                    return 2;
+                default:
+                    throw new IllegalArgumentException("Unknown model type " + type);
+            }
+        }
+
+        public static String typeName(int modelType) {
+            switch (modelType) {
+                case 0:
+                    return "rectangles";
+                case 1:
+                    return "polygons";
+                default:
+                    return "cells";
+            }
+        }
+
+        private static StatementEntitySolver.Engine parseEngine(String engine) {
+            switch (engine) {
+                case "ilp":
+                    return StatementEntitySolver.Engine.ILP;
+                case "annealing":
+                    return StatementEntitySolver.Engine.ANNEALING;
+                default:
+                    throw new IllegalArgumentException("Unknown engine " + engine);
+            }
+        }
+
+        private static GreedySplit.Search parseSplitSearch(String search) {
+            switch (search) {
+                case "exhaustive":
+                    return GreedySplit.Search.EXHAUSTIVE;
+                case "bound":
+                    return GreedySplit.Search.BRANCH_AND_BOUND;
+                default:
+                    throw new IllegalArgumentException("Unknown split search " + search);
+            }
+        }
+
+        private static boolean parseSplitCost(String cost) {
+            switch (cost) {
+                case "entities":
+                    return false;
+                case "statements":
+                    return true;
+                default:
+                    throw new IllegalArgumentException("Unknown split cost " + cost);
+            }
+        }
+
+        private static String parseCache(String value) {
+            return value.equals("none") ? null : value;
+        }
+    }
+
+    private final Config config;
+    private final StatementEntitySolver solver;
+    private final SolveCache cache;
+
+    public BatchRunner(Config config) {
+        this.config = config;
+
+        this.solver = createSolver(config);
+
+        this.cache = config.cacheFolder == null ? null : new SolveCache(1024, Paths.get(config.cacheFolder));
+        solver.setCache(cache);
+    }
+
+    // Solver for the model type, grid and options of the config
+    public static StatementEntitySolver createSolver(Config config) {
+        List<ConstraintModule> constraints;
+        ObjectiveModule objective = new CompactSquareTopLeft();
+        if (config.modelType == 0) {
+            constraints = config.relationAware ? Orchestrator.relationAwareRectangleConstraints()
+                    : StatementEntitySolver.defaultRectangleConstraints();
+        } else if (config.modelType == 2) {
+            constraints = Orchestrator.defaultCellConstraints();
+        } else {
+            constraints = config.relationAware ? Orchestrator.relationAwarePolygonConstraints()
+                    : Orchestrator.defaultPolygonConstraints();
+            objective = new PolygonAreaDimensionsComplexity();
+        }
+        if (config.symmetryBreaking)
+            constraints = Orchestrator.withSymmetryBreaking(constraints);
+
+        StatementEntitySolver solver = new StatementEntitySolver(config.dimensions, constraints, objective,
+                config.modelType);
+        solver.setThreads(config.threadsPerModel);
+        solver.setMipStart(config.mipStart);
+        solver.setClassCompression(config.classCompression);
+        solver.setEngine(config.engine);
+        solver.setAnnealingFallback(config.annealingFallback);
+        solver.setGridDeepening(config.maxDimensions);
+        return solver;
+    }
+
+    // Expand the inputs into a sorted list of instance files
+    public static List<Path> collectInstances(List<String> inputs) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (String input : inputs) {
+            Path path = Paths.get(input);
+            if (Files.isDirectory(path)) {
+                files.addAll(list(path, "*.json"));
+            } else if (input.contains("*") || input.contains("?") || input.contains("[") || input.contains("{")) {
+                Path parent = path.getParent() == null ? Paths.get(".") : path.getParent();
+                files.addAll(list(parent, path.getFileName().toString()));
+            } else {
+                files.add(path);
+            }
+        }
+        return files;
+    }
+
+    private static List<Path> list(Path dir, String glob) throws IOException {
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+        try (Stream<Path> stream = Files.list(dir)) {
+            return stream.filter(p -> Files.isRegularFile(p) && matcher.matches(p.getFileName()))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    public JSONObject run(List<Path> files) throws IOException {
+        Files.createDirectories(Paths.get(config.outputFolder));
+
+        // Fewer instances than workers: the idle workers solve parts of the instances
+        int parallelism = config.parallelism(files.size());
+        int workers = Math.max(1, config.workers() / parallelism);
+        System.out.println("Solving " + files.size() + " instances with " + workers + " workers x " + parallelism
+                + " threads x " + config.threadsPerModel + " Gurobi threads");
+
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        List<Future<JSONObject>> futures = new ArrayList<>();
+        for (Path file : files) {
+            futures.add(pool.submit(() -> runInstance(file, parallelism)));
+        }
+
+        // Manifest entries in input order
+        JSONArray entries = new JSONArray();
+        try {
+            for (Future<JSONObject> future : futures) {
+                entries.put(future.get());
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        } finally {
+            pool.shutdown();
+        }
+
+        JSONObject manifest = new JSONObject();
+        manifest.put("dimensions", config.dimensions);
+        if (config.maxDimensions > 0)
+            manifest.put("maxDimensions", config.maxDimensions);
+        manifest.put("type", Config.typeName(config.modelType));
+        manifest.put("splitK", config.splitK);
+        manifest.put("splitRatio", config.splitRatio);
+        manifest.put("splitSearch", config.splitSearch == GreedySplit.Search.EXHAUSTIVE ? "exhaustive" : "bound");
+        manifest.put("splitCost", config.statementCost ? "statements" : "entities");
+        manifest.put("separatorAbove", config.separatorThreshold);
+        manifest.put("partitionAbove", config.partitionThreshold);
+        manifest.put("workers", workers);
+        manifest.put("parallelism", parallelism);
+        manifest.put("threadsPerModel", config.threadsPerModel);
+        manifest.put("compress", config.classCompression);
+        manifest.put("relations", config.relationAware);
+        manifest.put("symmetry", config.symmetryBreaking);
+        manifest.put("engine", config.engine.name().toLowerCase());
+        manifest.put("fallback", config.annealingFallback);
+        if (config.timeBudget < Double.POSITIVE_INFINITY)
+            manifest.put("timeBudget", config.timeBudget);
+        manifest.put("wallTimeMs", (System.nanoTime() - start) / 1_000_000);
+        if (cache != null) {
+            manifest.put("cacheHits", cache.hits());
+            manifest.put("cacheMisses", cache.misses());
+        }
+        manifest.put("screenedOut", new JSONObject(solver.getScreenedOut()));
+        manifest.put("incumbents", solver.getIncumbentStats().toJson());
+        manifest.put("instances", entries);
+
+        Path manifestFile = Paths.get(config.outputFolder, "manifest.json");
+        Files.writeString(manifestFile, manifest.toString(2), StandardCharsets.UTF_8);
+        System.out.println("Manifest saved to " + manifestFile);
+        String incumbents = solver.getIncumbentStats().toString();
+        if (!incumbents.isEmpty())
+            System.out.println(incumbents);
+
+        return manifest;
+    }
+
+    // Solve one instance with its parts on the given number of threads; never
+    // throws, failures end up in the manifest
+    private JSONObject runInstance(Path file, int parallelism) {
+        String name = file.getFileName().toString().replaceFirst("\\.json$", "");
+        JSONObject entry = new JSONObject();
+        entry.put("instance", name);
+        entry.put("input", file.toString());
+
+        long start = System.nanoTime();
+        try {
+            StatementEntityInstance instance = StatementEntityReader.readFromFile(file.toString());
+            entry.put("statements", instance.numberOfStatements);
+            entry.put("entities", instance.numberOfEntities);
+
+            Orchestrator orchestrator = new Orchestrator(solver, config.splitK, config.splitRatio, parallelism);
+            orchestrator.setTimeBudget(config.timeBudget);
+            orchestrator.setSplitSearch(config.splitSearch);
+            if (config.statementCost)
+                orchestrator.setSplitCostModel(new StatementCost(solver.capacity()));
+            orchestrator.setSeparatorThreshold(config.separatorThreshold);
+            orchestrator.setPartitionThreshold(config.partitionThreshold);
+            List<Solution> sols = orchestrator.solveWithSplits(instance);
+            entry.put("components", sols.size());
+            entry.put("maxMipGap", sols.stream().mapToDouble(Solution::getMipGap).max().orElse(0.0));
+            entry.put("componentDimensions", new JSONArray(sols.stream().map(Solution::getDimensions).toList()));
+            entry.put("deletedEntities", orchestrator.deletedNodes.size());
+
+            PositionedSolution finalLayout = SolutionPositioner.computeCompleteSolution(new ArrayList<>(sols),
+                    config.threadsPerModel);
+            if (finalLayout == null) {
+                entry.put("status", "failed");
+            } else {
+                // With grid deepening, the largest grid a part was solved on
+                int grid = (config.maxDimensions > 0
+                        ? sols.stream().mapToInt(Solution::getDimensions).max().orElse(config.dimensions)
+                        : config.dimensions) + 1;
+                String output = Paths.get(config.outputFolder, name + "_" + grid + "x" + grid + ".txt").toString();
+                SolutionWriter.saveMultipleToFile(finalLayout.solutions, finalLayout.width, finalLayout.height,
+                        output);
+
+                entry.put("status", "solved");
+                entry.put("width", finalLayout.width);
+                entry.put("height", finalLayout.height);
+                entry.put("output", output);
+            }
+        } catch (Exception | LinkageError e) {
+            e.printStackTrace();
+            entry.put("status", "error");
+            entry.put("error", String.valueOf(e));
+        }
+        entry.put("wallTimeMs", (System.nanoTime() - start) / 1_000_000);
+
+        System.out.println(name + ": " + entry.getString("status") + " in " + entry.getLong("wallTimeMs") + " ms");
+        return entry;
+    }
+
+    public static void main(String[] args) {
+        try {
+            Config config = Config.parse(args);
+            if (config.inputs.isEmpty()) {
+                System.out.println("Usage: BatchRunner [options] <file | directory | glob>...");
+                return;
+            }
+
+            new BatchRunner(config).run(collectInstances(config.inputs));
+        } catch (IOException | IllegalArgumentException e) {
+            e.printStackTrace();
+        } finally {
+            // Release the native memory of all pooled Gurobi environments
+            try {
+                EnvPool.shared().close();
+            } catch (GRBException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
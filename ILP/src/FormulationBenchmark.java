@@ -0,0 +1,117 @@
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import com.gurobi.gurobi.GRBException;
+
+import ilp.ir.IrModel;
+import ilp.solvers.StatementEntitySolver;
+import io.StatementEntityReader;
+import model.Solution;
+import model.StatementEntityInstance;
+import split.GreedySplit;
+
+/*
+ * Compares the rectangle model with big-M disjunctions (type rectangles) to the
+ * cell formulation (type cells) on the same parts: every instance is split with
+ * GreedySplit until its parts fit the grid, and for every part both models are
+ * built and, when Gurobi is available, solved under the time limit. Prints the
+ * model sizes, and the solve time, layout size and MIP gap of both; without
+ * Gurobi only the sizes.
+ *
+ * Usage: FormulationBenchmark [--time <seconds>] [BatchRunner options] <file | directory | glob>...
+ * Of the BatchRunner options, --dimensions, --splitK, --splitRatio, --threads,
+ * --mipStart and --symmetry are used.
+ */
+public class FormulationBenchmark {
+
+    private static final String ROW = "%-32s %-10s %8s %8s %8s %9s %9s %7s %8s%n";
+
+    public static void main(String[] args) throws Exception {
+        double timeLimit = 60;
+        List<String> rest = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--time") && i + 1 < args.length) {
+                timeLimit = Double.parseDouble(args[++i]);
+            } else {
+                rest.add(args[i]);
+            }
+        }
+
+        BatchRunner.Config config = BatchRunner.Config.parse(rest.toArray(new String[0]));
+        if (config.inputs.isEmpty()) {
+            System.out.println("Usage: FormulationBenchmark [--time <seconds>] [options] <file | directory | glob>...");
+            return;
+        }
+        int d = config.dimensions;
+        int capacity = (d + 1) * (d + 1);
+
+        int[] types = { 0, 2 };
+        StatementEntitySolver[] solvers = new StatementEntitySolver[types.length];
+        for (int t = 0; t < types.length; t++) {
+            config.modelType = types[t];
+            solvers[t] = BatchRunner.createSolver(config);
+            solvers[t].setGridDeepening(0);
+            solvers[t].setAnnealingFallback(false);
+        }
+
+        boolean solve = true;
+        double[] totalTime = new double[types.length];
+        int[] solved = new int[types.length];
+
+        System.out.printf(ROW, "part", "type", "vars", "binary", "constrs", "nonzeros", "time s", "w x h", "gap");
+        for (Path file : BatchRunner.collectInstances(config.inputs)) {
+            StatementEntityInstance root = StatementEntityReader.readFromFile(file.toString());
+            String name = file.getFileName().toString().replaceFirst("\\.json$", "");
+
+            int part = 0;
+            Deque<StatementEntityInstance> queue = new ArrayDeque<>();
+            queue.add(root);
+            while (!queue.isEmpty()) {
+                StatementEntityInstance inst = queue.removeFirst();
+                if (inst.numberOfStatements > capacity && inst.numberOfEntities > 1) {
+                    GreedySplit greedy = new GreedySplit(inst);
+                    queue.addAll(greedy.findSplit(Math.min(config.splitK, inst.numberOfEntities - 1),
+                            config.splitRatio));
+                    continue;
+                }
+                if (inst.numberOfStatements > capacity)
+                    continue; // cannot be split further and does not fit
+
+                String partName = name + "#" + part++;
+                for (int t = 0; t < types.length; t++) {
+                    IrModel m = solvers[t].buildModel(inst, d).model;
+                    String time = "-", size = "-", gap = "-";
+                    if (solve) {
+                        try {
+                            long start = System.nanoTime();
+                            Solution sol = solvers[t].solve(inst, timeLimit);
+                            double seconds = (System.nanoTime() - start) / 1e9;
+                            totalTime[t] += seconds;
+                            time = String.format("%.2f", seconds);
+                            if (sol != null) {
+                                solved[t]++;
+                                size = (sol.getW() + 1) + "x" + (sol.getH() + 1);
+                                gap = String.format("%.4f", sol.getMipGap());
+                            }
+                        } catch (LinkageError | GRBException e) {
+                            System.out.println("Gurobi not available (" + e + "), reporting model sizes only");
+                            solve = false;
+                        }
+                    }
+                    System.out.printf(ROW, partName, BatchRunner.Config.typeName(types[t]), m.numVars(),
+                            m.numVars(IrModel.BINARY), m.numConstrs(), m.numNonZeros(), time, size, gap);
+                }
+            }
+        }
+
+        if (solve) {
+            for (int t = 0; t < types.length; t++) {
+                System.out.printf("%s: %d parts solved, %.2f s in total%n", BatchRunner.Config.typeName(types[t]),
+                        solved[t], totalTime[t]);
+            }
+        }
+    }
+}
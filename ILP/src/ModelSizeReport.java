@@ -0,0 +1,144 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import ilp.ModelContext;
+import ilp.constraints.ConstraintModule;
+import ilp.ir.IrModel;
+import ilp.ir.LpWriter;
+import ilp.ir.MpsWriter;
+import ilp.solvers.ClassCompression;
+import ilp.solvers.StatementEntitySolver;
+import io.StatementEntityReader;
+import model.StatementEntityInstance;
+
+/*
+ * Builds the model of every instance without Gurobi and reports its size per
+ * constraint module (variables by type, linear constraints, non-zeros, indicator
+ * and AND constraints) together with the time each module takes, so that
+ * formulations can be compared before solving. Optionally the models are
+ * written as LP and/or MPS files.
+ *
+ * Usage: ModelSizeReport [--lp <dir>] [--mps <dir>] [BatchRunner options] <file | directory | glob>...
+ * Of the BatchRunner options, --dimensions, --type, --compress, --relations and
+ * --symmetry are used (with --compress true the model of the compressed instance is
+ * reported, as far as the instance has statement classes to compress; with
+ * --relations true also the binaries saved against the plain constraint set).
+ */
+public class ModelSizeReport {
+
+    private record Size(int vars, int binaries, int integers, int continuous, int constrs, int nonZeros,
+            int indicators, int ands) {
+        static Size of(IrModel m) {
+            return new Size(m.numVars(), m.numVars(IrModel.BINARY), m.numVars(IrModel.INTEGER),
+                    m.numVars(IrModel.CONTINUOUS), m.numConstrs(), m.numNonZeros(), m.numIndicators(), m.numAnds());
+        }
+
+        Size minus(Size o) {
+            return new Size(vars - o.vars, binaries - o.binaries, integers - o.integers, continuous - o.continuous,
+                    constrs - o.constrs, nonZeros - o.nonZeros, indicators - o.indicators, ands - o.ands);
+        }
+    }
+
+    private static final String ROW = "%-36s %8s %8s %8s %8s %8s %9s %8s %8s %9s%n";
+
+    private static void print(String name, Size s, double ms) {
+        System.out.printf(ROW, name, s.vars, s.binaries, s.integers, s.continuous, s.constrs, s.nonZeros,
+                s.indicators, s.ands, String.format("%.2f", ms));
+    }
+
+    public static void main(String[] args) {
+        try {
+            Path lpFolder = null, mpsFolder = null;
+            List<String> rest = new ArrayList<>();
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals("--lp") && i + 1 < args.length) {
+                    lpFolder = Paths.get(args[++i]);
+                } else if (args[i].equals("--mps") && i + 1 < args.length) {
+                    mpsFolder = Paths.get(args[++i]);
+                } else {
+                    rest.add(args[i]);
+                }
+            }
+
+            BatchRunner.Config config = BatchRunner.Config.parse(rest.toArray(new String[0]));
+            if (config.inputs.isEmpty()) {
+                System.out.println("Usage: ModelSizeReport [--lp <dir>] [--mps <dir>] [options] <file | directory | glob>...");
+                return;
+            }
+            StatementEntitySolver solver = BatchRunner.createSolver(config);
+            StatementEntitySolver plainSolver = null;
+            if (config.relationAware) {
+                config.relationAware = false;
+                plainSolver = BatchRunner.createSolver(config);
+                config.relationAware = true;
+            }
+            int d = config.dimensions;
+
+            for (Path file : BatchRunner.collectInstances(config.inputs)) {
+                StatementEntityInstance inst = StatementEntityReader.readFromFile(file.toString());
+                String name = file.getFileName().toString().replaceFirst("\\.json$", "");
+                ClassCompression compression = config.classCompression ? ClassCompression.of(inst, d + 1) : null;
+                System.out.println(name + ": " + inst.numberOfStatements + " statements, " + inst.entities.size()
+                        + " entities, " + (d + 1) + "x" + (d + 1) + " grid, "
+                        + BatchRunner.Config.typeName(config.modelType)
+                        + (compression != null
+                                ? ", compressed to " + compression.reduced.numberOfStatements + " statements"
+                                : ""));
+                System.out.printf(ROW, "module", "vars", "binary", "integer", "contin.", "constrs", "nonzeros",
+                        "indicat.", "and", "ms");
+
+                long start = System.nanoTime();
+                ModelContext ctx = compression != null
+                        ? solver.newContext(compression.reduced, d, compression.weights)
+                        : solver.newContext(inst, d);
+                double total = (System.nanoTime() - start) / 1e6;
+                Size before = Size.of(ctx.model);
+                print("variables", before, total);
+
+                for (ConstraintModule c : solver.getConstraints()) {
+                    long t = System.nanoTime();
+                    c.add(ctx);
+                    double ms = (System.nanoTime() - t) / 1e6;
+                    total += ms;
+                    Size after = Size.of(ctx.model);
+                    print(c.name(), after.minus(before), ms);
+                    before = after;
+                }
+
+                long t = System.nanoTime();
+                solver.getObjective().apply(ctx);
+                double ms = (System.nanoTime() - t) / 1e6;
+                total += ms;
+                Size after = Size.of(ctx.model);
+                print(solver.getObjective().getClass().getSimpleName(), after.minus(before), ms);
+                print("total", after, total);
+                if (plainSolver != null) {
+                    ModelContext plain = compression != null
+                            ? plainSolver.buildModel(compression.reduced, d, compression.weights)
+                            : plainSolver.buildModel(inst, d);
+                    int plainBinaries = plain.model.numVars(IrModel.BINARY);
+                    System.out.println("relation-aware: " + after.binaries + " binaries instead of " + plainBinaries
+                            + " (" + (plainBinaries - after.binaries) + " saved)");
+                }
+                System.out.println();
+
+                String base = name + "_" + (d + 1) + "x" + (d + 1) + (config.modelType == 0 ? "_rect" : config.modelType == 1 ? "_poly" : "_cells")
+                        + (compression != null ? "_compressed" : "");
+                if (lpFolder != null) {
+                    Files.createDirectories(lpFolder);
+                    LpWriter.write(ctx.model, lpFolder.resolve(base + ".lp"));
+                }
+                if (mpsFolder != null) {
+                    Files.createDirectories(mpsFolder);
+                    MpsWriter.write(ctx.model, mpsFolder.resolve(base + ".mps"));
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            e.printStackTrace();
+        }
+    }
+}
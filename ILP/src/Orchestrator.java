@@ -1,8 +1,29 @@
 import java.util.*;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
 import com.gurobi.gurobi.GRBException;
 
+import ilp.constraints.C00NonNegativity;
+import ilp.constraints.C01UpperBound;
 import ilp.constraints.C1StatementsDistinctCoordinates;
+import ilp.constraints.C2SingleCellEntities;
+import ilp.constraints.C4InterchangeableStatementOrder;
 import ilp.constraints.ConstraintModule;
+import ilp.constraints.G1CellAssignment;
+import ilp.constraints.G2EntityIntervals;
+import ilp.constraints.G3MembersInsideEntities;
+import ilp.constraints.G4NonMembersOutsideEntities;
+import ilp.constraints.H10Squareness;
+import ilp.constraints.H11NestedEntities;
+import ilp.constraints.H1StatementsInsideEntities;
+import ilp.constraints.H2OutsideNonMembers;
+import ilp.constraints.H6DisjointEntitiesDoNotOverlap;
+import ilp.constraints.H8MaxWidth;
+import ilp.constraints.H9MaxHeight;
 import ilp.constraints.P00DefineRowSpans;
 import ilp.constraints.P0ValidEntityRowBounds;
 import ilp.constraints.P10StatementIsOnRowBooleans;
@@ -22,16 +43,16 @@ import ilp.constraints.P6DisjointEntitiesDoNotOverlap;
 import ilp.constraints.P7SingleCellEntities;
 import ilp.constraints.P8MaxWidth;
 import ilp.constraints.P9MaxHeight;
-import ilp.objective.ObjectiveModule;
-import ilp.objective.PolygonAreaDimensionsComplexity;
-import ilp.solvers.SolutionPositioner;
 import ilp.solvers.StatementEntitySolver;
-import io.SolutionWriter;
-import io.StatementEntityReader;
-import model.PositionedSolution;
 import model.Solution;
 import model.StatementEntityInstance;
 import split.GreedySplit;
+import split.EntityCountCost;
+import split.GreedySplitStrategy;
+import split.HypergraphPartitioner;
+import split.SeparatorSplit;
+import split.SplitCostModel;
+import split.SplitStrategy;
 
 public class Orchestrator {
 
@@ -39,34 +60,101 @@ public class Orchestrator {
     private final int splitK; // Maximum number of nodes to be deleted (usually 5)
     private final double splitRatio; // Coefficient that determines how wide is the range of acceptable components'
                                      // sizes produced from the split
+    private final int parallelism; // Number of worker threads used for solving and splitting (1 = sequential)
+    private GreedySplit.Search splitSearch = GreedySplit.Search.EXHAUSTIVE;
+    private SplitCostModel splitCost = new EntityCountCost(); // How the split searches compare deletion sets
+    private int separatorThreshold = 50; // Instances with more entities are split at vertex separators (0 = never)
+    private int partitionThreshold = 1000; // Instances with more statements are partitioned as hypergraphs (0 = never)
+
+    // Deadline mode: total wall-clock budget (seconds) of solveWithSplits, shared
+    // by all sub-instances. Every sub-instance still gets at least minTimeSlice
+    // seconds, so the budget can be exceeded slightly when it runs out.
+    private double timeBudget = Double.POSITIVE_INFINITY;
+    private double minTimeSlice = 1.0;
+    private long deadline; // System.nanoTime() at which the budget is used up
+    private final AtomicLong pendingStatements = new AtomicLong(); // statements of instances still to be solved
 
-    public final List<Solution> solutions = new ArrayList<>();
-    public final Set<Integer> deletedNodes = new HashSet<>();
-    public final Map<Integer, int[]> deletedPositions = new HashMap<>(); // fill later if needed
+    public final List<Solution> solutions = Collections.synchronizedList(new ArrayList<>());
+    public final Set<Integer> deletedNodes = ConcurrentHashMap.newKeySet();
+    public final Map<Integer, int[]> deletedPositions = new ConcurrentHashMap<>(); // fill later if needed
 
     public Orchestrator(StatementEntitySolver solver, int splitK, double splitRatio) {
+        this(solver, splitK, splitRatio, 1);
+    }
+
+    public Orchestrator(StatementEntitySolver solver, int splitK, double splitRatio, int parallelism) {
         this.solver = solver;
         this.splitK = splitK;
         this.splitRatio = splitRatio;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    public void setTimeBudget(double seconds) {
+        this.timeBudget = seconds;
+    }
+
+    public void setMinTimeSlice(double seconds) {
+        this.minTimeSlice = seconds;
+    }
+
+    public void setSplitSearch(GreedySplit.Search splitSearch) {
+        this.splitSearch = splitSearch;
+    }
+
+    public void setSplitCostModel(SplitCostModel splitCost) {
+        this.splitCost = splitCost;
+    }
+
+    public void setSeparatorThreshold(int entities) {
+        this.separatorThreshold = entities;
+    }
+
+    public void setPartitionThreshold(int statements) {
+        this.partitionThreshold = statements;
+    }
+
+    // The subset search of GreedySplit is exponential in splitK, so instances
+    // with many entities are split at vertex separators instead, and instances
+    // with many statements are cut directly into parts that fit the grid
+    private SplitStrategy splitStrategy(StatementEntityInstance inst) {
+        SplitStrategy strategy = new GreedySplitStrategy(splitK, splitRatio, splitSearch, parallelism, splitCost);
+        if (separatorThreshold > 0 && inst.numberOfEntities > separatorThreshold) {
+            strategy = new SeparatorSplit(splitRatio, splitCost, strategy);
+        }
+        if (partitionThreshold > 0 && inst.numberOfStatements > partitionThreshold) {
+            strategy = new HypergraphPartitioner(solver.capacity(), strategy);
+        }
+        return strategy;
     }
 
     public List<Solution> solveWithSplits(StatementEntityInstance root) throws Exception, GRBException {
+        if (timeBudget < Double.POSITIVE_INFINITY) {
+            deadline = System.nanoTime() + (long) (timeBudget * 1e9);
+        }
+        pendingStatements.set(root.numberOfStatements);
+
+        if (parallelism > 1) {
+            return solveWithSplitsParallel(root);
+        }
+
         Deque<StatementEntityInstance> queue = new ArrayDeque<>();
         queue.add(root);
 
         while (!queue.isEmpty()) {
             StatementEntityInstance inst = queue.removeFirst();
-            Solution sol = solver.solve(inst);
+            Solution sol = solver.solve(inst, timeSlice(inst));
             if (sol != null) {
                 solutions.add(sol);
+                pendingStatements.addAndGet(-inst.numberOfStatements);
                 continue;
             }
 
             // Too large or no optimal -> split
-            GreedySplit splitInst = new GreedySplit(inst);
-            ArrayList<StatementEntityInstance> parts = splitInst.findSplit(splitK, splitRatio);
+            SplitStrategy.Result split = splitStrategy(inst).split(inst);
+            ArrayList<StatementEntityInstance> parts = split.parts();
             // Record deletions
-            deletedNodes.addAll(splitInst.deletedEntities);
+            deletedNodes.addAll(split.deletedEntities());
+            replacePending(inst, parts);
 
             // Enqueue parts
             queue.addAll(parts);
@@ -75,11 +163,120 @@ public class Orchestrator {
         return solutions;
     }
 
-    public static void main(String[] args) {
-        // Solution parameters
-        int dimensions = 3;
+    /*
+     * Time limit (seconds) for solving inst in deadline mode: its share of the
+     * remaining budget, proportional to its number of statements relative to all
+     * statements that still have to be solved. With several workers that many
+     * instances are solved at the same time, so the share is scaled accordingly.
+     */
+    private double timeSlice(StatementEntityInstance inst) {
+        if (timeBudget == Double.POSITIVE_INFINITY) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        double remaining = (deadline - System.nanoTime()) / 1e9;
+        long pending = Math.max(1, pendingStatements.get());
+        double share = Math.min(1.0, (double) inst.numberOfStatements * parallelism / pending);
+        return Math.max(minTimeSlice, remaining * share);
+    }
+
+    // An instance that was split is replaced by its parts in the pending work
+    private void replacePending(StatementEntityInstance inst, List<StatementEntityInstance> parts) {
+        long added = 0;
+        for (StatementEntityInstance part : parts) {
+            added += part.numberOfStatements;
+        }
+        pendingStatements.addAndGet(added - inst.numberOfStatements);
+    }
+
+    /*
+     * Parallel version of solveWithSplits. Every instance is a fork-join task that
+     * either solves its instance or splits it and forks one task per part. Each
+     * solution is tagged with the path of part indices that leads to it from the
+     * root, so the solutions can be added in the same (breadth-first) order as the
+     * sequential version produces them.
+     */
+    private List<Solution> solveWithSplitsParallel(StatementEntityInstance root) throws Exception, GRBException {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        List<PathSolution> found;
+        try {
+            found = pool.invoke(new SolveTask(root, new int[0]));
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        } finally {
+            pool.shutdown();
+        }
+
+        // Breadth-first order: shallower solutions first, then by path
+        found.sort((o1, o2) -> {
+            int byDepth = Integer.compare(o1.path.length, o2.path.length);
+            return byDepth != 0 ? byDepth : Arrays.compare(o1.path, o2.path);
+        });
+
+        for (PathSolution ps : found) {
+            solutions.add(ps.solution);
+        }
+
+        return solutions;
+    }
+
+    private record PathSolution(int[] path, Solution solution) {
+    }
+
+    @SuppressWarnings("serial") // fork-join tasks are never serialized
+    private class SolveTask extends RecursiveTask<List<PathSolution>> {
+        private final StatementEntityInstance inst;
+        private final int[] path;
+
+        SolveTask(StatementEntityInstance inst, int[] path) {
+            this.inst = inst;
+            this.path = path;
+        }
+
+        @Override
+        protected List<PathSolution> compute() {
+            try {
+                Solution sol = solver.solve(inst, timeSlice(inst));
+                if (sol != null) {
+                    pendingStatements.addAndGet(-inst.numberOfStatements);
+                    return new ArrayList<>(List.of(new PathSolution(path, sol)));
+                }
+
+                // Too large or no optimal -> split
+                // GreedySplit evaluates its combinations in this pool
+                SplitStrategy.Result split = splitStrategy(inst).split(inst);
+                ArrayList<StatementEntityInstance> parts = split.parts();
+                // Record deletions
+                deletedNodes.addAll(split.deletedEntities());
+                replacePending(inst, parts);
 
-        List<ConstraintModule> constraints = List.of(
+                // Fork one task per part
+                List<SolveTask> subtasks = new ArrayList<>();
+                for (int i = 0; i < parts.size(); i++) {
+                    int[] childPath = Arrays.copyOf(path, path.length + 1);
+                    childPath[path.length] = i;
+                    subtasks.add(new SolveTask(parts.get(i), childPath));
+                }
+                invokeAll(subtasks);
+
+                List<PathSolution> result = new ArrayList<>();
+                for (SolveTask task : subtasks) {
+                    result.addAll(task.join());
+                }
+                return result;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }
+    }
+
+    // Polygon constraint set used by default (commented out modules are optional
+    // shape restrictions)
+    public static List<ConstraintModule> defaultPolygonConstraints() {
+        return List.of(
                 new P0ValidEntityRowBounds(),
                 new P00DefineRowSpans(),
                 new P1ConsecutiveEntityRows(),
@@ -100,32 +297,74 @@ public class Orchestrator {
                 // new P14MonotoneRowSpan(1.0), // use a double parameter: 1.0 for non-decreasing row span, 0.0 for non-increasing row span
                 // new P15MonotoneColumnSpan(1.0), // parameter is the same as above
                 new C1StatementsDistinctCoordinates());
+    }
 
-        ObjectiveModule objective = new PolygonAreaDimensionsComplexity();
+    // Rectangle constraint set of the cell formulation (model type 2): the
+    // default rectangle set with C1, H1 and H2 replaced by cell assignments
+    public static List<ConstraintModule> defaultCellConstraints() {
+        return List.of(
+                new C00NonNegativity(),
+                new C01UpperBound(),
+                new G1CellAssignment(),
+                new G2EntityIntervals(),
+                new G3MembersInsideEntities(),
+                new G4NonMembersOutsideEntities(),
+                new H6DisjointEntitiesDoNotOverlap(),
+                new C2SingleCellEntities(),
+                new H8MaxWidth(),
+                new H9MaxHeight(),
+                new H10Squareness());
+    }
 
-        StatementEntitySolver solver = new StatementEntitySolver(dimensions, constraints, objective, 1);
-        Orchestrator orchestrator = new Orchestrator(solver, 5, 1.0 / 3);
-        String inputFolder = "data/";
-        String outputFolder = "solutions/";
-        ArrayList<String> instances = new ArrayList<String>(List.of("robin_hood"));
+    // Default rectangle constraint set with entity relations taken into account:
+    // subset entities are nested in their smallest superset (H11), and H2 and H6
+    // leave out the pairs that the constraints on that superset already cover
+    public static List<ConstraintModule> relationAwareRectangleConstraints() {
+        return List.of(
+                new C00NonNegativity(),
+                new C01UpperBound(),
+                new H1StatementsInsideEntities(),
+                new H11NestedEntities(),
+                new H2OutsideNonMembers(true),
+                new H6DisjointEntitiesDoNotOverlap(true),
+                new C1StatementsDistinctCoordinates(),
+                new C2SingleCellEntities(),
+                new H8MaxWidth(),
+                new H9MaxHeight(),
+                new H10Squareness());
+    }
 
-        for (String inst : instances) {
-            try {
-                StatementEntityInstance instance = StatementEntityReader.readFromFile(inputFolder + inst + ".json");
-                List<Solution> sols;
-                sols = orchestrator.solveWithSplits(instance);
-                PositionedSolution finalLayout = SolutionPositioner.computeCompleteSolution((ArrayList<Solution>) sols);
-
-                // Write result to file
-                SolutionWriter.saveMultipleToFile(
-                        finalLayout.solutions,
-                        finalLayout.width,
-                        finalLayout.height,
-                        outputFolder + inst + "_4x4.txt");
+    // Default polygon constraint set with P5 leaving out the statements that
+    // belong to an entity disjoint from the one kept apart from (P4 and P6 keep
+    // them out); polygons are not nested, the intersection of two polygons need
+    // not satisfy the shape constraints
+    public static List<ConstraintModule> relationAwarePolygonConstraints() {
+        List<ConstraintModule> constraints = new ArrayList<>(defaultPolygonConstraints());
+        constraints.replaceAll(c -> c instanceof P5OutsideNonMembers ? new P5OutsideNonMembers(true) : c);
+        return constraints;
+    }
 
-            } catch (Exception e) {
-                e.printStackTrace();
+    // The constraint set with C4 added, which orders statements that belong to
+    // the same entities (before C2 where there is one, else at the end)
+    public static List<ConstraintModule> withSymmetryBreaking(List<ConstraintModule> constraints) {
+        List<ConstraintModule> result = new ArrayList<>(constraints);
+        int at = result.size();
+        for (int i = 0; i < result.size(); i++) {
+            if (result.get(i) instanceof C2SingleCellEntities) {
+                at = i;
+                break;
             }
         }
+        result.add(at, new C4InterchangeableStatementOrder());
+        return result;
+    }
+
+    // Solving is done by BatchRunner (see there for the options); without
+    // arguments this solves data/robin_hood.json with the default configuration
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            args = new String[] { "data/robin_hood.json" };
+        }
+        BatchRunner.main(args);
     }
 }
\ No newline at end of file
@@ -0,0 +1,107 @@
+package heuristic;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/*
+ * Simulated annealing on the statement positions, starting from the
+ * constructive layout. A move puts a random statement on a random cell, swapping
+ * it with the statement already there. The entity shapes (and so the row spans of
+ * polygons) are derived from the positions by LayoutModel, so every layout the
+ * search visits has well-formed shapes and only the violations and the objective
+ * change.
+ *
+ * The cost is VIOLATION_WEIGHT per violated constraint plus the objective, so
+ * the search first removes violations and then compacts the layout. The
+ * temperature decreases geometrically from START_TEMPERATURE to END_TEMPERATURE
+ * over the iterations; the best layout seen is returned.
+ */
+public final class AnnealingLayout {
+    private static final double VIOLATION_WEIGHT = 100.0;
+    private static final double START_TEMPERATURE = 20.0;
+    private static final double END_TEMPERATURE = 0.05;
+
+    private final LayoutModel model;
+    private final Random random;
+    private int iterations = 20000;
+
+    public AnnealingLayout(LayoutModel model, long seed) {
+        this.model = model;
+        this.random = new Random(seed);
+    }
+
+    public void setIterations(int iterations) {
+        this.iterations = iterations;
+    }
+
+    private double cost(Layout layout) {
+        return VIOLATION_WEIGHT * layout.violations + model.objective(layout);
+    }
+
+    /**
+     * Run the search for at most the given number of seconds.
+     *
+     * @return the best layout found (check isComplete() before using it as a
+     *         solution).
+     */
+    public Layout run(double timeLimit) {
+        Layout current = new ConstructiveLayout(model).construct();
+        if (model.nStatements == 0)
+            return current;
+
+        int side = model.side, gridMin = model.gridMin, nStatements = model.nStatements;
+        int[][] occupant = new int[side][side];
+        for (int[] row : occupant) {
+            Arrays.fill(row, -1);
+        }
+        for (int j = 0; j < nStatements; j++) {
+            occupant[current.statements[j][0] - gridMin][current.statements[j][1] - gridMin] = j;
+        }
+
+        double currentCost = cost(current);
+        Layout best = current;
+        double bestCost = currentCost;
+
+        long deadline = timeLimit < Double.POSITIVE_INFINITY ? System.nanoTime() + (long) (timeLimit * 1e9)
+                : Long.MAX_VALUE;
+        double cooling = Math.pow(END_TEMPERATURE / START_TEMPERATURE, 1.0 / Math.max(1, iterations));
+        double temperature = START_TEMPERATURE;
+
+        for (int it = 0; it < iterations; it++, temperature *= cooling) {
+            // Checking the clock every move costs more than the move on tiny grids
+            if ((it & 255) == 0 && System.nanoTime() > deadline)
+                break;
+
+            int j = random.nextInt(nStatements);
+            int x = random.nextInt(side), y = random.nextInt(side);
+            int other = occupant[x][y];
+            if (other == j)
+                continue;
+
+            int[][] positions = new int[nStatements][];
+            for (int k = 0; k < nStatements; k++) {
+                positions[k] = current.statements[k];
+            }
+            if (other != -1)
+                positions[other] = current.statements[j];
+            positions[j] = new int[] { gridMin + x, gridMin + y };
+
+            Layout candidate = model.evaluate(positions);
+            double candidateCost = cost(candidate);
+            double delta = candidateCost - currentCost;
+            if (delta > 0 && random.nextDouble() >= Math.exp(-delta / temperature))
+                continue;
+
+            int[] old = current.statements[j];
+            occupant[old[0] - gridMin][old[1] - gridMin] = other;
+            occupant[x][y] = j;
+            current = candidate;
+            currentCost = candidateCost;
+            if (currentCost < bestCost) {
+                best = current;
+                bestCost = currentCost;
+            }
+        }
+        return best;
+    }
+}
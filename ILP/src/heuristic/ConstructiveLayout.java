@@ -0,0 +1,157 @@
+package heuristic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Constructive layout. Statements with the same membership signature (set of
+ * entities containing them) are kept together, and signature groups are ordered
+ * so that groups sharing entities follow each other. The sequence is laid out
+ * along a path through the grid (row by row, or as a snake) for every possible
+ * width, and the candidate with the fewest violated constraints wins. Its
+ * remaining violations are then reduced by moving and swapping statements.
+ */
+public final class ConstructiveLayout {
+    private static final int MAX_EVALUATIONS = 20000;
+
+    private final LayoutModel model;
+
+    public ConstructiveLayout(LayoutModel model) {
+        this.model = model;
+    }
+
+    public Layout construct() {
+        int[] order = signatureOrder();
+
+        Layout best = null;
+        int minWidth = Math.max(1, (model.nStatements + model.side - 1) / model.side);
+        for (int width = minWidth; width <= model.side; width++) {
+            for (boolean snake : new boolean[] { false, true }) {
+                Layout layout = model.evaluate(place(order, width, snake));
+                if (best == null || layout.violations < best.violations)
+                    best = layout;
+                if (best.violations == 0)
+                    return best;
+            }
+        }
+        return improve(best);
+    }
+
+    /*
+     * Hill climbing on the statement positions: move a statement to a free cell or
+     * swap two statements whenever that reduces the number of violations, until no
+     * such move is left or MAX_EVALUATIONS layouts have been evaluated.
+     */
+    private Layout improve(Layout layout) {
+        int side = model.side, gridMin = model.gridMin, nStatements = model.nStatements;
+        int evaluations = 0;
+        boolean improved = true;
+        while (improved && layout.violations > 0 && evaluations < MAX_EVALUATIONS) {
+            improved = false;
+            int[][] occupant = new int[side][side];
+            for (int[] row : occupant) {
+                Arrays.fill(row, -1);
+            }
+            for (int j = 0; j < nStatements; j++) {
+                occupant[layout.statements[j][0] - gridMin][layout.statements[j][1] - gridMin] = j;
+            }
+
+            for (int j = 0; j < nStatements && !improved; j++) {
+                for (int x = 0; x < side && !improved; x++) {
+                    for (int y = 0; y < side && !improved; y++) {
+                        int other = occupant[x][y];
+                        if (other == j || (other != -1 && other < j))
+                            continue;
+
+                        int[][] positions = new int[nStatements][];
+                        for (int k = 0; k < nStatements; k++) {
+                            positions[k] = layout.statements[k].clone();
+                        }
+                        if (other != -1)
+                            positions[other] = positions[j];
+                        positions[j] = new int[] { gridMin + x, gridMin + y };
+
+                        Layout candidate = model.evaluate(positions);
+                        evaluations++;
+                        if (candidate.violations < layout.violations) {
+                            layout = candidate;
+                            improved = true;
+                        }
+                    }
+                }
+            }
+        }
+        return layout;
+    }
+
+    // Statement indices, grouped by signature, groups sharing most entities with
+    // the previous group first
+    private int[] signatureOrder() {
+        int nStatements = model.nStatements, nEntities = model.nEntities;
+        Map<String, List<Integer>> groups = new LinkedHashMap<>();
+        Map<String, boolean[]> signatures = new LinkedHashMap<>();
+        for (int j = 0; j < nStatements; j++) {
+            boolean[] signature = new boolean[nEntities];
+            for (int i = 0; i < nEntities; i++) {
+                signature[i] = model.member[i][j];
+            }
+            String key = Arrays.toString(signature);
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(j);
+            signatures.putIfAbsent(key, signature);
+        }
+
+        List<String> remaining = new ArrayList<>(groups.keySet());
+        List<String> ordered = new ArrayList<>();
+        boolean[] last = null;
+        while (!remaining.isEmpty()) {
+            String next = null;
+            int bestShared = -1, bestSize = -1;
+            for (String key : remaining) {
+                boolean[] signature = signatures.get(key);
+                int shared = 0, size = 0;
+                for (int i = 0; i < nEntities; i++) {
+                    if (signature[i]) {
+                        size++;
+                        if (last != null && last[i])
+                            shared++;
+                    }
+                }
+                if (shared > bestShared || (shared == bestShared && size > bestSize)) {
+                    next = key;
+                    bestShared = shared;
+                    bestSize = size;
+                }
+            }
+            remaining.remove(next);
+            ordered.add(next);
+            last = signatures.get(next);
+        }
+
+        int[] order = new int[nStatements];
+        int p = 0;
+        for (String key : ordered) {
+            for (int j : groups.get(key)) {
+                order[p++] = j;
+            }
+        }
+        return order;
+    }
+
+    // Position p of the sequence goes to row p / width; a snake reverses every
+    // other row so consecutive statements stay adjacent
+    private int[][] place(int[] order, int width, boolean snake) {
+        int[][] positions = new int[model.nStatements][2];
+        for (int p = 0; p < order.length; p++) {
+            int y = p / width;
+            int x = p % width;
+            if (snake && y % 2 == 1)
+                x = width - 1 - x;
+            positions[order[p]][0] = model.gridMin + x;
+            positions[order[p]][1] = model.gridMin + y;
+        }
+        return positions;
+    }
+}
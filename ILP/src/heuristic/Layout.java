@@ -0,0 +1,41 @@
+package heuristic;
+
+/*
+ * Statement positions together with the entity shapes derived from them (see
+ * LayoutModel), and the number of constraints the layout violates.
+ */
+public final class Layout {
+    public final int[][] statements; // [statement][x,y]
+    public final int[][] rectangles; // rectangles: [entity][x1,y1,x2,y2], null for polygons
+    public final int[][][] rows; // polygons: [entity][row][active,start,end], null for rectangles
+    public final int violations;
+
+    Layout(int[][] statements, int[][] rectangles, int[][][] rows, int violations) {
+        this.statements = statements;
+        this.rectangles = rectangles;
+        this.rows = rows;
+        this.violations = violations;
+    }
+
+    public boolean isComplete() {
+        return violations == 0;
+    }
+
+    // The same layout in a larger grid (polygon rows below the old grid are
+    // inactive)
+    public Layout widen(int dimensions) {
+        if (rows == null)
+            return this;
+
+        int[][][] widened = new int[rows.length][][];
+        for (int i = 0; i < rows.length; i++) {
+            if (rows[i] == null)
+                continue;
+            widened[i] = new int[dimensions + 1][3];
+            for (int r = 0; r < Math.min(rows[i].length, dimensions + 1); r++) {
+                widened[i][r] = rows[i][r].clone();
+            }
+        }
+        return new Layout(statements, rectangles, widened, violations);
+    }
+}
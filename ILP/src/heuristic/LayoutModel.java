@@ -0,0 +1,372 @@
+package heuristic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import model.PolygonSolution;
+import model.RectangleSolution;
+import model.Solution;
+import model.StatementEntityInstance;
+
+/*
+ * Incidence structure of an instance on a (d+1)x(d+1) grid, and the evaluation
+ * of statement positions. The entity shapes follow from the positions:
+ * - rectangles: the bounding box of the statements of the entity;
+ * - polygons: rows between the first and last statement of the entity are
+ *   active, and each row spans the envelope of the statements above and below it
+ *   (max of the prefix/suffix minima of the row starts, min of the prefix/suffix
+ *   maxima of the row ends), so columns stay convex. Consecutive rows that do not
+ *   touch are then stretched towards each other.
+ * Entities without statements get a free cell of their own.
+ *
+ * A layout is counted as violating a constraint for every non-member statement
+ * inside an entity (H2/P5), every cell shared by entities without common
+ * statements (H6/P6), every pair of consecutive rows that do not touch (P2) and
+ * every column that is not convex (P3). Layouts without violations satisfy the
+ * constraint modules of the default constraint sets.
+ *
+ * Entities and statements are indexed in the order ModelContext uses
+ * (inst.entities.keySet() and inst.statements.keySet()).
+ */
+public final class LayoutModel {
+    final StatementEntityInstance inst;
+    final int gridMin;
+    final int side; // grid is side x side
+    final boolean polygons;
+    final int nStatements;
+    final int nEntities;
+    final ArrayList<Integer> entityIds;
+    final boolean[][] member; // [entity][statement]
+    final boolean[][] disjoint; // [entity][entity]
+
+    public LayoutModel(StatementEntityInstance inst, int dimensions, int gridMin, boolean polygons) {
+        this.inst = inst;
+        this.gridMin = gridMin;
+        this.side = dimensions + 1;
+        this.polygons = polygons;
+
+        this.entityIds = new ArrayList<>(inst.entities.keySet());
+        Map<Integer, Integer> statementIdToIdx = new HashMap<>();
+        for (Integer st : inst.statements.keySet()) {
+            statementIdToIdx.put(st, statementIdToIdx.size());
+        }
+        this.nStatements = statementIdToIdx.size();
+        this.nEntities = entityIds.size();
+
+        this.member = new boolean[nEntities][nStatements];
+        for (int i = 0; i < nEntities; i++) {
+            for (int st : inst.entityIndToStatements.get(entityIds.get(i))) {
+                Integer j = statementIdToIdx.get(st);
+                if (j != null)
+                    member[i][j] = true;
+            }
+        }
+
+        this.disjoint = new boolean[nEntities][nEntities];
+        for (int a = 0; a < nEntities; a++) {
+            for (int b = 0; b < nEntities; b++) {
+                boolean shared = false;
+                for (int j = 0; j < nStatements && !shared; j++) {
+                    shared = member[a][j] && member[b][j];
+                }
+                disjoint[a][b] = a != b && !shared;
+            }
+        }
+    }
+
+    public Layout evaluate(int[][] positions) {
+        return polygons ? polygonLayout(positions) : rectangleLayout(positions);
+    }
+
+    /*
+     * Value of the objective of the matching default objective module
+     * (CompactSquareTopLeft for rectangles, PolygonAreaDimensionsComplexity for
+     * polygons), up to constant factors, so layouts can be compared.
+     */
+    public double objective(Layout layout) {
+        int maxX = 0, maxY = 0;
+        double value = 0;
+        for (int[] st : layout.statements) {
+            maxX = Math.max(maxX, st[0] - gridMin);
+            maxY = Math.max(maxY, st[1] - gridMin);
+        }
+
+        if (!polygons) {
+            for (int[] rect : layout.rectangles) {
+                maxX = Math.max(maxX, rect[2] - gridMin);
+                maxY = Math.max(maxY, rect[3] - gridMin);
+                value += rect[2] - rect[0] + rect[3] - rect[1];
+            }
+            for (int[] st : layout.statements) {
+                value += 0.5 * (st[0] - gridMin + st[1] - gridMin);
+            }
+            return value + 2 * maxX + 2 * maxY + Math.abs(maxX - maxY);
+        }
+
+        for (int[][] rows : layout.rows) {
+            for (int r = 0; r < side; r++) {
+                if (rows[r][0] == 0)
+                    continue;
+                maxX = Math.max(maxX, rows[r][2] - gridMin);
+                value += rows[r][2] - rows[r][1] + 1;
+                // Complexity: a change of the start or end between consecutive rows
+                if (r + 1 < side && rows[r + 1][0] == 1) {
+                    if (rows[r][1] != rows[r + 1][1])
+                        value++;
+                    if (rows[r][2] != rows[r + 1][2])
+                        value++;
+                }
+            }
+        }
+        return value + maxX + maxY;
+    }
+
+    // Solution for a layout (which should have no violations)
+    public Solution toSolution(Layout layout) {
+        int[][] statements = new int[nStatements][];
+        for (int j = 0; j < nStatements; j++) {
+            statements[j] = layout.statements[j].clone();
+        }
+
+        int w = gridMin, h = gridMin;
+        for (int[] st : statements) {
+            w = Math.max(w, st[0]);
+            h = Math.max(h, st[1]);
+        }
+
+        if (!polygons) {
+            int[][] rectangles = new int[nEntities][];
+            for (int i = 0; i < nEntities; i++) {
+                rectangles[i] = layout.rectangles[i].clone();
+                w = Math.max(w, rectangles[i][2]);
+                h = Math.max(h, rectangles[i][3]);
+            }
+            return new RectangleSolution(inst, w, h, new ArrayList<>(entityIds), rectangles, statements);
+        }
+
+        int[][][] rows = new int[nEntities][side][];
+        for (int i = 0; i < nEntities; i++) {
+            for (int r = 0; r < side; r++) {
+                rows[i][r] = layout.rows[i][r].clone();
+                if (rows[i][r][0] == 1) {
+                    w = Math.max(w, rows[i][r][2]);
+                    h = Math.max(h, gridMin + r);
+                }
+            }
+        }
+        return new PolygonSolution(inst, w, h, new ArrayList<>(entityIds), rows, statements);
+    }
+
+    private Layout rectangleLayout(int[][] positions) {
+        int[][] rectangles = new int[nEntities][];
+        boolean[][][] covers = new boolean[nEntities][][];
+        for (int i = 0; i < nEntities; i++) {
+            int x1 = Integer.MAX_VALUE, y1 = Integer.MAX_VALUE, x2 = -1, y2 = -1;
+            for (int j = 0; j < nStatements; j++) {
+                if (member[i][j]) {
+                    x1 = Math.min(x1, positions[j][0] - gridMin);
+                    y1 = Math.min(y1, positions[j][1] - gridMin);
+                    x2 = Math.max(x2, positions[j][0] - gridMin);
+                    y2 = Math.max(y2, positions[j][1] - gridMin);
+                }
+            }
+            if (x2 < 0)
+                continue;
+
+            rectangles[i] = new int[] { gridMin + x1, gridMin + y1, gridMin + x2, gridMin + y2 };
+            covers[i] = new boolean[side][side];
+            for (int x = x1; x <= x2; x++) {
+                for (int y = y1; y <= y2; y++) {
+                    covers[i][x][y] = true;
+                }
+            }
+        }
+
+        int unplaced = placeEmptyEntities(positions, covers);
+        for (int i = 0; i < nEntities; i++) {
+            if (rectangles[i] == null) {
+                int[] cell = coveredCell(covers[i]);
+                rectangles[i] = new int[] { gridMin + cell[0], gridMin + cell[1], gridMin + cell[0],
+                        gridMin + cell[1] };
+            }
+        }
+
+        return new Layout(positions, rectangles, null, violations(positions, covers) + unplaced);
+    }
+
+    private Layout polygonLayout(int[][] positions) {
+        int[][][] rows = new int[nEntities][][];
+        boolean[][][] covers = new boolean[nEntities][][];
+        int extra = 0;
+
+        for (int i = 0; i < nEntities; i++) {
+            int[] start = new int[side];
+            int[] end = new int[side];
+            Arrays.fill(start, Integer.MAX_VALUE);
+            Arrays.fill(end, -1);
+            int first = side, last = -1;
+            for (int j = 0; j < nStatements; j++) {
+                if (member[i][j]) {
+                    int r = positions[j][1] - gridMin;
+                    start[r] = Math.min(start[r], positions[j][0] - gridMin);
+                    end[r] = Math.max(end[r], positions[j][0] - gridMin);
+                    first = Math.min(first, r);
+                    last = Math.max(last, r);
+                }
+            }
+            if (last < 0)
+                continue;
+
+            int[] prefixMin = new int[side], prefixMax = new int[side];
+            int[] suffixMin = new int[side], suffixMax = new int[side];
+            for (int r = first; r <= last; r++) {
+                prefixMin[r] = Math.min(r > first ? prefixMin[r - 1] : Integer.MAX_VALUE, start[r]);
+                prefixMax[r] = Math.max(r > first ? prefixMax[r - 1] : -1, end[r]);
+            }
+            for (int r = last; r >= first; r--) {
+                suffixMin[r] = Math.min(r < last ? suffixMin[r + 1] : Integer.MAX_VALUE, start[r]);
+                suffixMax[r] = Math.max(r < last ? suffixMax[r + 1] : -1, end[r]);
+            }
+
+            // Row bounds relative to gridMin first, shifted at the end
+            int[][] entityRows = new int[side][3];
+            for (int r = first; r <= last; r++) {
+                int s = Math.max(prefixMin[r], suffixMin[r]);
+                int e = Math.min(prefixMax[r], suffixMax[r]);
+                entityRows[r] = new int[] { 1, Math.min(s, e), Math.max(s, e) };
+            }
+            for (int r = first; r < last; r++) {
+                if (entityRows[r][2] < entityRows[r + 1][1])
+                    entityRows[r + 1][1] = entityRows[r][2];
+                if (entityRows[r + 1][2] < entityRows[r][1])
+                    entityRows[r + 1][2] = entityRows[r][1];
+            }
+
+            covers[i] = new boolean[side][side];
+            for (int r = first; r <= last; r++) {
+                for (int x = entityRows[r][1]; x <= entityRows[r][2]; x++) {
+                    covers[i][x][r] = true;
+                }
+            }
+            extra += polygonShapeViolations(entityRows);
+            rows[i] = entityRows;
+        }
+
+        int unplaced = placeEmptyEntities(positions, covers);
+        for (int i = 0; i < nEntities; i++) {
+            if (rows[i] == null) {
+                int[] cell = coveredCell(covers[i]);
+                rows[i] = new int[side][3];
+                rows[i][cell[1]] = new int[] { 1, cell[0], cell[0] };
+            }
+            // Inactive rows have bounds 0 (P0)
+            for (int r = 0; r < side; r++) {
+                if (rows[i][r][0] == 1) {
+                    rows[i][r][1] += gridMin;
+                    rows[i][r][2] += gridMin;
+                }
+            }
+        }
+
+        return new Layout(positions, null, rows, violations(positions, covers) + extra + unplaced);
+    }
+
+    // Connected consecutive rows (P2) and convex columns (P3)
+    private int polygonShapeViolations(int[][] rows) {
+        int count = 0;
+        for (int r = 0; r + 1 < side; r++) {
+            if (rows[r][0] == 1 && rows[r + 1][0] == 1
+                    && (rows[r][2] < rows[r + 1][1] || rows[r + 1][2] < rows[r][1]))
+                count++;
+        }
+        for (int s = 0; s < side; s++) {
+            for (int f = s + 2; f < side; f++) {
+                for (int j = s + 1; j < f; j++) {
+                    if (rows[s][0] == 1 && rows[j][0] == 1 && rows[f][0] == 1
+                            && (rows[j][1] > Math.max(rows[s][1], rows[f][1])
+                                    || rows[j][2] < Math.min(rows[s][2], rows[f][2])))
+                        count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    // Give every entity without statements a free cell (no statement, not covered
+    // by another entity); returns the number of entities that did not get one
+    private int placeEmptyEntities(int[][] positions, boolean[][][] covers) {
+        boolean[][] used = new boolean[side][side];
+        for (int[] st : positions) {
+            used[st[0] - gridMin][st[1] - gridMin] = true;
+        }
+        for (boolean[][] cover : covers) {
+            if (cover == null)
+                continue;
+            for (int x = 0; x < side; x++) {
+                for (int y = 0; y < side; y++) {
+                    used[x][y] |= cover[x][y];
+                }
+            }
+        }
+
+        int unplaced = 0;
+        for (int i = 0; i < nEntities; i++) {
+            if (covers[i] != null)
+                continue;
+            covers[i] = new boolean[side][side];
+            int[] cell = freeCell(used);
+            if (cell == null) {
+                unplaced++;
+                cell = new int[] { 0, 0 };
+            }
+            covers[i][cell[0]][cell[1]] = true;
+            used[cell[0]][cell[1]] = true;
+        }
+        return unplaced;
+    }
+
+    private int[] freeCell(boolean[][] used) {
+        for (int y = 0; y < side; y++) {
+            for (int x = 0; x < side; x++) {
+                if (!used[x][y])
+                    return new int[] { x, y };
+            }
+        }
+        return null;
+    }
+
+    private int[] coveredCell(boolean[][] cover) {
+        for (int y = 0; y < side; y++) {
+            for (int x = 0; x < side; x++) {
+                if (cover[x][y])
+                    return new int[] { x, y };
+            }
+        }
+        return new int[] { 0, 0 };
+    }
+
+    // Non-members inside an entity (H2/P5) and cells shared by disjoint entities
+    // (H6/P6)
+    private int violations(int[][] positions, boolean[][][] covers) {
+        int count = 0;
+        for (int i = 0; i < nEntities; i++) {
+            for (int j = 0; j < nStatements; j++) {
+                if (!member[i][j] && covers[i][positions[j][0] - gridMin][positions[j][1] - gridMin])
+                    count++;
+            }
+            for (int k = i + 1; k < nEntities; k++) {
+                if (!disjoint[i][k])
+                    continue;
+                for (int x = 0; x < side; x++) {
+                    for (int y = 0; y < side; y++) {
+                        if (covers[i][x][y] && covers[k][x][y])
+                            count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,63 @@
+package ilp;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+import com.gurobi.gurobi.GRBEnv;
+import com.gurobi.gurobi.GRBException;
+
+/*
+ * Pool of started Gurobi environments. Starting an environment does the license
+ * check and native initialisation, so instead of creating one per model, an
+ * environment is borrowed with acquire() and handed back with release(). A
+ * borrowed environment is used by one thread at a time, so the pool grows to one
+ * environment per concurrently working thread and each is started only once.
+ *
+ * Models copy the parameters of their environment when they are created, so
+ * parameters must be set on the model (backend.model.set(...)), never on the
+ * environment. As an extra safeguard, parameters are reset when an environment
+ * is returned to the pool.
+ */
+public final class EnvPool implements AutoCloseable {
+    private static final EnvPool SHARED = new EnvPool();
+
+    private final ConcurrentLinkedDeque<GRBEnv> idle = new ConcurrentLinkedDeque<>();
+    private final Set<GRBEnv> all = ConcurrentHashMap.newKeySet();
+
+    public static EnvPool shared() {
+        return SHARED;
+    }
+
+    public GRBEnv acquire() throws GRBException {
+        GRBEnv env = idle.pollFirst();
+        if (env == null) {
+            env = new GRBEnv();
+            all.add(env);
+        }
+        return env;
+    }
+
+    public void release(GRBEnv env) throws GRBException {
+        if (!all.contains(env)) {
+            return; // pool was closed in the meantime
+        }
+        env.resetParams();
+        idle.addFirst(env);
+    }
+
+    public int size() {
+        return all.size();
+    }
+
+    // Dispose all environments (all models created from them must be disposed
+    // first). The pool can be used again afterwards.
+    @Override
+    public void close() throws GRBException {
+        idle.clear();
+        for (GRBEnv env : all) {
+            env.dispose();
+        }
+        all.clear();
+    }
+}
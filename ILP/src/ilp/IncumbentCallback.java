@@ -0,0 +1,57 @@
+package ilp;
+
+import com.gurobi.gurobi.GRB;
+import com.gurobi.gurobi.GRBCallback;
+import com.gurobi.gurobi.GRBException;
+import com.gurobi.gurobi.GRBVar;
+
+// Records when the first incumbent was found, and whether it is the MIP start
+// (same statement positions)
+public class IncumbentCallback extends GRBCallback {
+
+    private final GRBVar[] statementVars;
+    private final double[] start; // x,y per statement, null if no start was given
+
+    public double timeToFirst = -1; // seconds, -1 if no incumbent was found
+    public boolean firstIsStart = false;
+
+    public IncumbentCallback(GRBVar[][] statementCoordinates, int[][] startCoordinates) {
+        this.statementVars = new GRBVar[2 * statementCoordinates.length];
+        for (int j = 0; j < statementCoordinates.length; j++) {
+            statementVars[2 * j] = statementCoordinates[j][0];
+            statementVars[2 * j + 1] = statementCoordinates[j][1];
+        }
+
+        if (startCoordinates == null) {
+            this.start = null;
+        } else {
+            this.start = new double[statementVars.length];
+            for (int j = 0; j < startCoordinates.length; j++) {
+                start[2 * j] = startCoordinates[j][0];
+                start[2 * j + 1] = startCoordinates[j][1];
+            }
+        }
+    }
+
+    @Override
+    protected void callback() {
+        try {
+            if (where == GRB.CB_MIPSOL && timeToFirst < 0) {
+                timeToFirst = getDoubleInfo(GRB.CB_RUNTIME);
+
+                if (start != null) {
+                    double[] values = getSolution(statementVars);
+                    firstIsStart = true;
+                    for (int k = 0; k < values.length; k++) {
+                        if (Math.abs(values[k] - start[k]) > 0.5) {
+                            firstIsStart = false;
+                            break;
+                        }
+                    }
+                }
+            }
+        } catch (GRBException e) {
+            System.out.println("Error code: " + e.getErrorCode() + ". " + e.getMessage());
+        }
+    }
+}
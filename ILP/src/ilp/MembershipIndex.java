@@ -0,0 +1,148 @@
+package ilp;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import model.StatementEntityInstance;
+
+/*
+ * Which statements belong to which entities, by model index (the positions in
+ * ModelContext.entityIds and statementIds), computed once per model so that the
+ * modules do not search the statement arrays of the instance inside their loops.
+ */
+public final class MembershipIndex {
+
+    // How the statement sets of two entities relate
+    public enum Relation {
+        DISJOINT, // no statement in common
+        NESTED, // one contains the other (or both are equal)
+        OVERLAPPING // some, but not all, statements in common
+    }
+
+    public final int nEntities;
+    public final int nStatements;
+
+    // members[e]: bitset of the statements of entity e
+    private final long[][] members;
+
+    // Statements of every entity, in the order of the instance (without
+    // duplicates), and the statements not in it, in index order
+    public final int[][] memberIndices;
+    public final int[][] nonMemberIndices;
+
+    // Entities of every statement, in index order
+    public final int[][] entitiesOf;
+
+    // shared[e][f]: number of statements entities e and f have in common
+    // (shared[e][e] is the number of statements of e)
+    private final int[][] shared;
+
+    // Entity that an entity with statements is drawn inside when entities are
+    // nested (H11): the smallest other entity with all of its statements (of
+    // entities with equal statements, the one with the lowest index), -1 if
+    // there is none. Following parents always ends, at an entity without one.
+    public final int[] nestingParent;
+
+    public MembershipIndex(StatementEntityInstance inst, List<Integer> entityIds,
+            Map<Integer, Integer> statementIdToIdx) {
+        this.nEntities = entityIds.size();
+        this.nStatements = statementIdToIdx.size();
+        int words = (nStatements + 63) >>> 6;
+
+        members = new long[nEntities][words];
+        memberIndices = new int[nEntities][];
+        nonMemberIndices = new int[nEntities][];
+        int[] entityCount = new int[nStatements];
+        for (int e = 0; e < nEntities; e++) {
+            int[] statements = inst.entityIndToStatements.get(entityIds.get(e));
+            int[] indices = new int[statements.length];
+            int n = 0;
+            for (int statementId : statements) {
+                int s = statementIdToIdx.get(statementId);
+                if ((members[e][s >>> 6] & (1L << s)) != 0)
+                    continue; // listed twice
+                members[e][s >>> 6] |= 1L << s;
+                indices[n++] = s;
+                entityCount[s]++;
+            }
+            memberIndices[e] = n == indices.length ? indices : Arrays.copyOf(indices, n);
+
+            nonMemberIndices[e] = new int[nStatements - n];
+            int k = 0;
+            for (int s = 0; s < nStatements; s++) {
+                if (!isMember(e, s))
+                    nonMemberIndices[e][k++] = s;
+            }
+        }
+
+        entitiesOf = new int[nStatements][];
+        for (int s = 0; s < nStatements; s++)
+            entitiesOf[s] = new int[entityCount[s]];
+        int[] filled = new int[nStatements];
+        for (int e = 0; e < nEntities; e++) {
+            for (int s : memberIndices[e])
+                entitiesOf[s][filled[s]++] = e;
+        }
+
+        shared = new int[nEntities][nEntities];
+        for (int e = 0; e < nEntities; e++) {
+            shared[e][e] = memberIndices[e].length;
+            for (int f = e + 1; f < nEntities; f++) {
+                int count = 0;
+                for (int w = 0; w < words; w++)
+                    count += Long.bitCount(members[e][w] & members[f][w]);
+                shared[e][f] = count;
+                shared[f][e] = count;
+            }
+        }
+
+        nestingParent = new int[nEntities];
+        for (int e = 0; e < nEntities; e++) {
+            nestingParent[e] = -1;
+            if (size(e) == 0)
+                continue; // fits anywhere, but not inside any entity full of statements
+            for (int f = 0; f < nEntities; f++) {
+                if (f == e || !isSubset(e, f) || (size(f) == size(e) && f > e))
+                    continue;
+                if (nestingParent[e] == -1 || size(f) < size(nestingParent[e]))
+                    nestingParent[e] = f;
+            }
+        }
+    }
+
+    public boolean isMember(int entity, int statement) {
+        return (members[entity][statement >>> 6] & (1L << statement)) != 0;
+    }
+
+    public int size(int entity) {
+        return shared[entity][entity];
+    }
+
+    public int shared(int e, int f) {
+        return shared[e][f];
+    }
+
+    // Every statement of entity e is also one of entity f
+    public boolean isSubset(int e, int f) {
+        return shared[e][f] == shared[e][e];
+    }
+
+    // Some entity of the statement has no statement in common with the entity,
+    // so keeping the two entities apart keeps the statement out of it
+    public boolean hasDisjointEntity(int entity, int statement) {
+        for (int f : entitiesOf[statement]) {
+            if (shared[entity][f] == 0)
+                return true;
+        }
+        return false;
+    }
+
+    public Relation relation(int e, int f) {
+        if (shared[e][f] == 0)
+            return Relation.DISJOINT;
+        if (isSubset(e, f) || isSubset(f, e))
+            return Relation.NESTED;
+        return Relation.OVERLAPPING;
+    }
+}
@@ -1,19 +1,17 @@
 package ilp;
-import com.gurobi.gurobi.GRBEnv;
-import com.gurobi.gurobi.GRBException;
-import com.gurobi.gurobi.GRBModel;
-
+import ilp.ir.IrModel;
 import ilp.variables.Vars;
 import ilp.variables.VarsFactory;
 import model.StatementEntityInstance;
 
 import java.util.*;
 
-public final class ModelContext implements AutoCloseable {
+public final class ModelContext {
   public final StatementEntityInstance inst;
 
-  public final GRBEnv env;
-  public final GRBModel model;
+  // Solver-independent model the modules write into (lowered to Gurobi by
+  // GurobiBackend)
+  public final IrModel model;
 
   // IDs and index lookups
   public final ArrayList<Integer> entityIds;
@@ -21,6 +19,14 @@ public final class ModelContext implements AutoCloseable {
   public final Map<Integer,Integer> entityIdToIdx;
   public final Map<Integer,Integer> statementIdToIdx;
 
+  // Number of cells every statement takes: 1, except for the super-statements of
+  // a compressed instance (see solvers.ClassCompression), which take a run of
+  // that many cells in one row starting at their coordinates
+  public final int[] statementWeight;
+
+  // Members, non-members and entity relations by index
+  public final MembershipIndex membership;
+
   // Vars (created via VarsFactory)
   public final Vars v;
 
@@ -40,7 +46,18 @@ public final class ModelContext implements AutoCloseable {
                       int gridMin,
                       int maxSizeSum,
                       double wTopLeft,
-                      double wMaxExtents, int modelType) throws GRBException {
+                      double wMaxExtents, int modelType) {
+    this(inst, dimensions, gridMin, maxSizeSum, wTopLeft, wMaxExtents, modelType, Map.of());
+  }
+
+  // weights: statement ID -> number of cells, for statements that take more than one
+  public ModelContext(StatementEntityInstance inst,
+                      int dimensions,
+                      int gridMin,
+                      int maxSizeSum,
+                      double wTopLeft,
+                      double wMaxExtents, int modelType,
+                      Map<Integer,Integer> weights) {
     this.inst = inst;
     this.dimensions = dimensions;
     this.gridMin = gridMin;
@@ -59,14 +76,12 @@ public final class ModelContext implements AutoCloseable {
     this.statementIdToIdx = new HashMap<>();
     for (int i = 0; i < statementIds.size(); i++) statementIdToIdx.put(statementIds.get(i), i);
 
-    this.env = new GRBEnv();
-    this.model = new GRBModel(env);
+    this.statementWeight = new int[statementIds.size()];
+    for (int i = 0; i < statementIds.size(); i++) statementWeight[i] = weights.getOrDefault(statementIds.get(i), 1);
 
-    this.v = VarsFactory.create(model, entityIds.size(), statementIds.size(), gridMin, gridMax, modelType);
-  }
+    this.membership = new MembershipIndex(inst, entityIds, statementIdToIdx);
 
-  @Override public void close() throws GRBException {
-    model.dispose();
-    env.dispose();
+    this.model = new IrModel();
+    this.v = VarsFactory.create(model, entityIds.size(), statementIds.size(), gridMin, gridMax, modelType);
   }
 }
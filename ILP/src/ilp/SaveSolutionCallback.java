@@ -1,5 +1,6 @@
 package ilp;
 
+import ilp.ir.GurobiBackend;
 import ilp.solvers.SolutionPositioner;
 import ilp.variables.VarsPolygons;
 import io.SolutionWriter;
@@ -16,10 +17,12 @@ import com.gurobi.gurobi.GRBException;
 public class SaveSolutionCallback extends GRBCallback {
 
     private final ModelContext ctx;
+    private final GurobiBackend backend;
     private final int solutionType;
 
-    public SaveSolutionCallback(ModelContext ctx, int solutionType) {
+    public SaveSolutionCallback(ModelContext ctx, GurobiBackend backend, int solutionType) {
         this.ctx = ctx;
+        this.backend = backend;
         this.solutionType = solutionType;
     }
 
@@ -38,6 +41,8 @@ public class SaveSolutionCallback extends GRBCallback {
                     // SolutionWriter.saveRectangleSolutionToFile((RectangleSolution) sol, "sol_callback.txt");
                 } else {
                     sol = this.extractPolygonSolutionCallback(ctx);
+                    // The positioner borrows its own environment from the pool, since the
+                    // environment of ctx is in use by the model being optimized
                     SolutionWriter.saveMultipleToFile(SolutionPositioner.computeCompleteSolution(new ArrayList<>(List.of((Solution) sol))).solutions, sol.getW(), sol.getH(), "ILP/solutions/sol_callback.txt");
                 }
             }
@@ -57,15 +62,15 @@ public class SaveSolutionCallback extends GRBCallback {
         int nStatements = ctx.statementIds.size();
 
         // Width and height
-        int w = (int) this.getSolution(v.maxWidth);
-        int h = (int) this.getSolution(v.maxHeight);
+        int w = (int) this.getSolution(backend.var(v.maxWidth));
+        int h = (int) this.getSolution(backend.var(v.maxHeight));
 
         // Statement coordinates
         int[][] statementCoordinates = new int[nStatements][2];
 
         for (int i = 0; i < nStatements; i++) {
-            statementCoordinates[i][0] = (int) this.getSolution(v.statementCoordinates[i][0]);
-            statementCoordinates[i][1] = (int) this.getSolution(v.statementCoordinates[i][1]);
+            statementCoordinates[i][0] = (int) this.getSolution(backend.var(v.statementCoordinates[i][0]));
+            statementCoordinates[i][1] = (int) this.getSolution(backend.var(v.statementCoordinates[i][1]));
         }
 
         // Entity row spans
@@ -74,9 +79,9 @@ public class SaveSolutionCallback extends GRBCallback {
         for (int i = 0; i < nEntities; i++) {
             for (int j = 0; j <= ctx.dimensions; j++) {
 
-                entities[i][j][0] = (int) this.getSolution(v.entities[i].activeRows[j]);
-                entities[i][j][1] = (int) this.getSolution(v.entities[i].rowBounds[j][0]);
-                entities[i][j][2] = (int) this.getSolution(v.entities[i].rowBounds[j][1]);
+                entities[i][j][0] = (int) this.getSolution(backend.var(v.entities[i].activeRows[j]));
+                entities[i][j][1] = (int) this.getSolution(backend.var(v.entities[i].rowBounds[j][0]));
+                entities[i][j][2] = (int) this.getSolution(backend.var(v.entities[i].rowBounds[j][1]));
             }
         }
 
@@ -0,0 +1,163 @@
+package ilp.cache;
+
+import java.util.ArrayList;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import model.PolygonSolution;
+import model.RectangleSolution;
+import model.Solution;
+import model.StatementEntityInstance;
+
+/*
+ * Result of a solve, stored in canonical order (see CanonicalForm) so it can be
+ * reused for every instance with the same incidence structure. Either a layout
+ * (rectangles or polygons) or the fact that the model is infeasible.
+ */
+public final class CachedLayout {
+    static final int INFEASIBLE = -1;
+    static final int RECTANGLES = 0;
+    static final int POLYGONS = 1;
+
+    final int type;
+    final int w;
+    final int h;
+    final int[][] entityCoordinates; // rectangles: [entity][x1,y1,x2,y2]
+    final int[][][] entities; // polygons: [entity][row][active,start,end]
+    final int[][] statementCoordinates; // [statement][x,y]
+
+    private CachedLayout(int type, int w, int h, int[][] entityCoordinates, int[][][] entities,
+            int[][] statementCoordinates) {
+        this.type = type;
+        this.w = w;
+        this.h = h;
+        this.entityCoordinates = entityCoordinates;
+        this.entities = entities;
+        this.statementCoordinates = statementCoordinates;
+    }
+
+    public static CachedLayout infeasible() {
+        return new CachedLayout(INFEASIBLE, 0, 0, null, null, null);
+    }
+
+    public boolean isInfeasible() {
+        return type == INFEASIBLE;
+    }
+
+    // Store a solution in canonical order
+    public static CachedLayout of(Solution sol, CanonicalForm form) {
+        StatementEntityInstance inst = sol.getInstance();
+        ArrayList<Integer> entityIds = sol.getEntityIds();
+
+        if (sol instanceof RectangleSolution rs) {
+            int[][] entityCoordinates = new int[entityIds.size()][];
+            for (int i = 0; i < entityIds.size(); i++) {
+                entityCoordinates[form.entityIndex(entityIds.get(i))] = rs.entityCoordinates[i].clone();
+            }
+            return new CachedLayout(RECTANGLES, rs.w, rs.h, entityCoordinates, null,
+                    canonicalStatements(inst, rs.statementCoordinates, form));
+        } else if (sol instanceof PolygonSolution ps) {
+            int[][][] entities = new int[entityIds.size()][][];
+            for (int i = 0; i < entityIds.size(); i++) {
+                entities[form.entityIndex(entityIds.get(i))] = deepCopy(ps.entities[i]);
+            }
+            return new CachedLayout(POLYGONS, ps.w, ps.h, null, entities,
+                    canonicalStatements(inst, ps.statementCoordinates, form));
+        }
+
+        throw new IllegalArgumentException("Unknown solution type");
+    }
+
+    // Map the layout onto the IDs of inst (which has the same canonical form). The
+    // entity and statement order is the one ModelContext uses for inst.
+    public Solution toSolution(StatementEntityInstance inst, CanonicalForm form) {
+        if (isInfeasible())
+            return null;
+
+        ArrayList<Integer> entityIds = new ArrayList<>(inst.entities.keySet());
+        int[][] sCoords = new int[inst.statements.size()][];
+        int j = 0;
+        for (Integer statement : inst.statements.keySet()) {
+            sCoords[j++] = statementCoordinates[form.statementIndex(statement)].clone();
+        }
+
+        if (type == RECTANGLES) {
+            int[][] eCoords = new int[entityIds.size()][];
+            for (int i = 0; i < entityIds.size(); i++) {
+                eCoords[i] = entityCoordinates[form.entityIndex(entityIds.get(i))].clone();
+            }
+            return new RectangleSolution(inst, w, h, entityIds, eCoords, sCoords);
+        } else {
+            int[][][] eRows = new int[entityIds.size()][][];
+            for (int i = 0; i < entityIds.size(); i++) {
+                eRows[i] = deepCopy(entities[form.entityIndex(entityIds.get(i))]);
+            }
+            return new PolygonSolution(inst, w, h, entityIds, eRows, sCoords);
+        }
+    }
+
+    private static int[][] canonicalStatements(StatementEntityInstance inst, int[][] statementCoordinates,
+            CanonicalForm form) {
+        int[][] result = new int[statementCoordinates.length][];
+        int j = 0;
+        for (Integer statement : inst.statements.keySet()) {
+            result[form.statementIndex(statement)] = statementCoordinates[j++].clone();
+        }
+        return result;
+    }
+
+    private static int[][] deepCopy(int[][] arr) {
+        int[][] copy = new int[arr.length][];
+        for (int i = 0; i < arr.length; i++) {
+            copy[i] = arr[i].clone();
+        }
+        return copy;
+    }
+
+    JSONObject toJson() {
+        JSONObject obj = new JSONObject();
+        obj.put("type", type);
+        obj.put("w", w);
+        obj.put("h", h);
+        if (entityCoordinates != null)
+            obj.put("entityCoordinates", new JSONArray(entityCoordinates));
+        if (entities != null)
+            obj.put("entities", new JSONArray(entities));
+        if (statementCoordinates != null)
+            obj.put("statementCoordinates", new JSONArray(statementCoordinates));
+        return obj;
+    }
+
+    static CachedLayout fromJson(JSONObject obj) {
+        int type = obj.getInt("type");
+        int[][] entityCoordinates = obj.has("entityCoordinates") ? toArray2(obj.getJSONArray("entityCoordinates"))
+                : null;
+        int[][][] entities = null;
+        if (obj.has("entities")) {
+            JSONArray arr = obj.getJSONArray("entities");
+            entities = new int[arr.length()][][];
+            for (int i = 0; i < arr.length(); i++) {
+                entities[i] = toArray2(arr.getJSONArray(i));
+            }
+        }
+        int[][] statementCoordinates = obj.has("statementCoordinates")
+                ? toArray2(obj.getJSONArray("statementCoordinates"))
+                : null;
+
+        return new CachedLayout(type, obj.getInt("w"), obj.getInt("h"), entityCoordinates, entities,
+                statementCoordinates);
+    }
+
+    private static int[][] toArray2(JSONArray arr) {
+        int[][] result = new int[arr.length()][];
+        for (int i = 0; i < arr.length(); i++) {
+            JSONArray row = arr.getJSONArray(i);
+            result[i] = new int[row.length()];
+            for (int j = 0; j < row.length(); j++) {
+                result[i][j] = row.getInt(j);
+            }
+        }
+        return result;
+    }
+}
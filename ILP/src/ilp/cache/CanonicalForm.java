@@ -0,0 +1,244 @@
+package ilp.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import model.StatementEntityInstance;
+
+/*
+ * Canonical form of the incidence structure of an instance (which entity contains
+ * which statements). Entity/statement IDs and statement texts are ignored, so two
+ * instances that only differ in their labelling get the same key. The form also
+ * stores the canonical index of every entity and statement, which is used to map
+ * a cached layout back onto the IDs of another instance.
+ *
+ * The labelling is found by colour refinement on the bipartite entity-statement
+ * graph, followed by a search over individualisations of the remaining ties
+ * (keeping the lexicographically smallest form). Twins (nodes with identical
+ * neighbourhoods) are interchangeable, so only one of them is tried per cell. For
+ * very symmetric instances the search is cut off after SEARCH_LIMIT leaves; the
+ * key is then still exact for this instance, it may just miss a cache entry
+ * stored under a different labelling.
+ */
+public final class CanonicalForm {
+    private static final int SEARCH_LIMIT = 256;
+
+    private final String key;
+    private final Map<Integer, Integer> entityIndex = new HashMap<>();
+    private final Map<Integer, Integer> statementIndex = new HashMap<>();
+
+    // Bipartite graph: nodes 0..nE-1 are entities, nE..nE+nS-1 are statements
+    private final int nE;
+    private final int nS;
+    private final int[][] adj;
+
+    private int[] bestForm;
+    private int[] bestColors;
+    private int leaves;
+
+    private CanonicalForm(StatementEntityInstance inst) {
+        List<Integer> entityIds = new ArrayList<>(inst.entities.keySet());
+        List<Integer> statementIds = new ArrayList<>(inst.statements.keySet());
+        this.nE = entityIds.size();
+        this.nS = statementIds.size();
+
+        Map<Integer, Integer> statementNode = new HashMap<>();
+        for (int i = 0; i < nS; i++) {
+            statementNode.put(statementIds.get(i), nE + i);
+        }
+
+        // Only statements of this instance count (the same statements the model sees)
+        List<Set<Integer>> neighbours = new ArrayList<>();
+        for (int i = 0; i < nE + nS; i++) {
+            neighbours.add(new HashSet<>());
+        }
+        for (int i = 0; i < nE; i++) {
+            int[] statements = inst.entityIndToStatements.get(entityIds.get(i));
+            if (statements == null)
+                continue;
+            for (int st : statements) {
+                Integer node = statementNode.get(st);
+                if (node != null) {
+                    neighbours.get(i).add(node);
+                    neighbours.get(node).add(i);
+                }
+            }
+        }
+
+        this.adj = new int[nE + nS][];
+        for (int i = 0; i < nE + nS; i++) {
+            adj[i] = neighbours.get(i).stream().mapToInt(Integer::intValue).sorted().toArray();
+        }
+
+        int[] colors = new int[nE + nS];
+        for (int i = nE; i < nE + nS; i++) {
+            colors[i] = 1;
+        }
+        search(refine(colors));
+
+        // Canonical index = rank of the final colour among the nodes of the same kind
+        for (int i = 0; i < nE; i++) {
+            entityIndex.put(entityIds.get(i), bestColors[i]);
+        }
+        for (int i = 0; i < nS; i++) {
+            statementIndex.put(statementIds.get(i), bestColors[nE + i] - nE);
+        }
+
+        this.key = encode(bestForm);
+    }
+
+    public static CanonicalForm of(StatementEntityInstance inst) {
+        return new CanonicalForm(inst);
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public int entityIndex(int entityId) {
+        return entityIndex.get(entityId);
+    }
+
+    public int statementIndex(int statementId) {
+        return statementIndex.get(statementId);
+    }
+
+    private void search(int[] colors) {
+        int target = firstNonSingletonColor(colors);
+        if (target == -1) {
+            leaves++;
+            int[] form = form(colors);
+            if (bestForm == null || Arrays.compare(form, bestForm) < 0) {
+                bestForm = form;
+                bestColors = colors;
+            }
+            return;
+        }
+
+        // Try one node of every twin class in the target cell
+        Set<String> triedNeighbourhoods = new HashSet<>();
+        for (int v = 0; v < colors.length; v++) {
+            if (colors[v] != target || !triedNeighbourhoods.add(Arrays.toString(adj[v])))
+                continue;
+
+            search(refine(individualize(colors, v)));
+
+            if (leaves >= SEARCH_LIMIT)
+                return;
+        }
+    }
+
+    // Smallest colour that is shared by more than one node, -1 if the colouring is
+    // discrete
+    private static int firstNonSingletonColor(int[] colors) {
+        int[] count = new int[colors.length];
+        for (int c : colors) {
+            count[c]++;
+        }
+        for (int c = 0; c < count.length; c++) {
+            if (count[c] > 1)
+                return c;
+        }
+        return -1;
+    }
+
+    // Give v a colour of its own, just below the other nodes of its cell
+    private static int[] individualize(int[] colors, int v) {
+        int[] result = new int[colors.length];
+        for (int i = 0; i < colors.length; i++) {
+            result[i] = 2 * colors[i] + (i == v ? 0 : 1);
+        }
+        return result;
+    }
+
+    // Colour refinement: repeatedly recolour every node by its colour and the
+    // multiset of its neighbours' colours. New colours are the ranks of the sorted
+    // signatures, so they do not depend on the node order.
+    private int[] refine(int[] colors) {
+        int nColors = countDistinct(colors);
+
+        while (true) {
+            int[][] signatures = new int[colors.length][];
+            for (int i = 0; i < colors.length; i++) {
+                int[] sig = new int[adj[i].length + 1];
+                sig[0] = colors[i];
+                for (int j = 0; j < adj[i].length; j++) {
+                    sig[j + 1] = colors[adj[i][j]];
+                }
+                Arrays.sort(sig, 1, sig.length);
+                signatures[i] = sig;
+            }
+
+            int[][] sorted = signatures.clone();
+            Arrays.sort(sorted, Arrays::compare);
+            List<int[]> distinct = new ArrayList<>();
+            for (int[] sig : sorted) {
+                if (distinct.isEmpty() || Arrays.compare(distinct.get(distinct.size() - 1), sig) != 0)
+                    distinct.add(sig);
+            }
+            int[][] ranks = distinct.toArray(new int[0][]);
+
+            int[] refined = new int[colors.length];
+            for (int i = 0; i < colors.length; i++) {
+                refined[i] = Arrays.binarySearch(ranks, signatures[i], Arrays::compare);
+            }
+
+            if (ranks.length == nColors) {
+                return refined;
+            }
+            colors = refined;
+            nColors = ranks.length;
+        }
+    }
+
+    private static int countDistinct(int[] colors) {
+        return (int) Arrays.stream(colors).distinct().count();
+    }
+
+    // Form of a discrete colouring: for every entity (in colour order) the sorted
+    // canonical indices of its statements. Entities always get the colours 0..nE-1,
+    // since their initial colour is lower than that of the statements.
+    private int[] form(int[] colors) {
+        int[][] byEntity = new int[nE][];
+        for (int i = 0; i < nE; i++) {
+            int[] statements = new int[adj[i].length];
+            for (int j = 0; j < adj[i].length; j++) {
+                statements[j] = colors[adj[i][j]] - nE;
+            }
+            Arrays.sort(statements);
+            byEntity[colors[i]] = statements;
+        }
+
+        int size = 2;
+        for (int[] statements : byEntity) {
+            size += statements.length + 1;
+        }
+
+        int[] form = new int[size];
+        form[0] = nE;
+        form[1] = nS;
+        int pos = 2;
+        for (int[] statements : byEntity) {
+            form[pos++] = statements.length;
+            for (int st : statements) {
+                form[pos++] = st;
+            }
+        }
+        return form;
+    }
+
+    private static String encode(int[] form) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < form.length; i++) {
+            if (i > 0)
+                sb.append(i == 2 ? ';' : ',');
+            sb.append(form[i]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,128 @@
+package ilp.cache;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.json.JSONObject;
+
+/*
+ * Two-tier cache of solve results: an in-memory LRU map in front of an optional
+ * directory with one JSON file per entry. Keys combine the solver configuration
+ * (dimensions, model type, constraints, objective) with the canonical form of the
+ * instance, so a hit is only possible for the exact same model up to relabelling.
+ * Files are named after the SHA-256 of the key and contain the full key, which is
+ * checked on load.
+ */
+public final class SolveCache {
+    private final int capacity;
+    private final Path directory;
+    private final LinkedHashMap<String, CachedLayout> memory;
+
+    private int hits = 0;
+    private int misses = 0;
+
+    public SolveCache(int capacity, Path directory) {
+        this.capacity = capacity;
+        this.directory = directory;
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedLayout> eldest) {
+                return size() > SolveCache.this.capacity;
+            }
+        };
+    }
+
+    // In-memory only cache
+    public SolveCache(int capacity) {
+        this(capacity, null);
+    }
+
+    public synchronized CachedLayout get(String key) {
+        CachedLayout layout = memory.get(key);
+        if (layout == null) {
+            layout = readFromDisk(key);
+            if (layout != null)
+                memory.put(key, layout);
+        }
+
+        if (layout == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return layout;
+    }
+
+    public synchronized void put(String key, CachedLayout layout) {
+        memory.put(key, layout);
+        writeToDisk(key, layout);
+    }
+
+    public synchronized int hits() {
+        return hits;
+    }
+
+    public synchronized int misses() {
+        return misses;
+    }
+
+    private CachedLayout readFromDisk(String key) {
+        if (directory == null)
+            return null;
+
+        Path file = directory.resolve(fileName(key));
+        if (!Files.exists(file))
+            return null;
+
+        try {
+            JSONObject obj = new JSONObject(Files.readString(file, StandardCharsets.UTF_8));
+            if (!key.equals(obj.getString("key")))
+                return null; // hash collision
+            return CachedLayout.fromJson(obj.getJSONObject("layout"));
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Could not read cache entry " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, CachedLayout layout) {
+        if (directory == null)
+            return;
+
+        try {
+            Files.createDirectories(directory);
+            JSONObject obj = new JSONObject();
+            obj.put("key", key);
+            obj.put("layout", layout.toJson());
+
+            // Write to a temporary file first, so readers never see a partial entry
+            Path file = directory.resolve(fileName(key));
+            Path tmp = Files.createTempFile(directory, "entry", ".tmp");
+            Files.writeString(tmp, obj.toString(), StandardCharsets.UTF_8);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.println("Could not write cache entry: " + e.getMessage());
+        }
+    }
+
+    private static String fileName(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder();
+            for (byte b : hash) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb + ".json";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
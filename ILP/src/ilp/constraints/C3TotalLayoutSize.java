@@ -1,10 +1,8 @@
 package ilp.constraints;
 
-import com.gurobi.gurobi.GRB;
-import com.gurobi.gurobi.GRBException;
-import com.gurobi.gurobi.GRBLinExpr;
-
 import ilp.ModelContext;
+import ilp.ir.IrLinExpr;
+import ilp.ir.IrModel;
 import ilp.variables.VarsPolygons;
 import ilp.variables.VarsRectangles;
 
@@ -12,7 +10,7 @@ import ilp.variables.VarsRectangles;
 public class C3TotalLayoutSize implements ConstraintModule {
 
     @Override
-    public void add(ModelContext ctx) throws GRBException {
+    public void add(ModelContext ctx) {
         if (ctx.v instanceof VarsRectangles rect) {
             boundTotalSize(ctx, rect);
         } else if (ctx.v instanceof VarsPolygons poly) {
@@ -20,19 +18,19 @@ public class C3TotalLayoutSize implements ConstraintModule {
         }
     }
 
-    private void boundTotalSize(ModelContext ctx, VarsRectangles v) throws GRBException {
+    private void boundTotalSize(ModelContext ctx, VarsRectangles v) {
         // Sum of width height constraint
-        GRBLinExpr totalSize = new GRBLinExpr();
+        IrLinExpr totalSize = new IrLinExpr();
         totalSize.addTerm(1.0, v.maxHeight);
         totalSize.addTerm(1.0, v.maxWidth);
-        ctx.model.addConstr(totalSize, GRB.LESS_EQUAL, ctx.maxSizeSum, "total_layout_size");
+        ctx.model.addConstr(totalSize, IrModel.LESS_EQUAL, ctx.maxSizeSum, "total_layout_size");
     }
 
-    private void boundTotalSize(ModelContext ctx, VarsPolygons v) throws GRBException {
+    private void boundTotalSize(ModelContext ctx, VarsPolygons v) {
         // Sum of width height constraint
-        GRBLinExpr totalSize = new GRBLinExpr();
+        IrLinExpr totalSize = new IrLinExpr();
         totalSize.addTerm(1.0, v.maxHeight);
         totalSize.addTerm(1.0, v.maxWidth);
-        ctx.model.addConstr(totalSize, GRB.LESS_EQUAL, ctx.maxSizeSum, "total_layout_size");
+        ctx.model.addConstr(totalSize, IrModel.LESS_EQUAL, ctx.maxSizeSum, "total_layout_size");
     }
 }
@@ -0,0 +1,88 @@
+package ilp.constraints;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import ilp.ModelContext;
+import ilp.ir.IrLinExpr;
+import ilp.ir.IrModel;
+import ilp.ir.IrVar;
+import ilp.variables.VarsPolygons;
+import ilp.variables.VarsRectangles;
+
+/*
+ * Statements that belong to exactly the same entities are interchangeable: any
+ * permutation of their positions is an equivalent layout. Within every such
+ * group the statements are placed in (y, x) order of their cells, which leaves
+ * one layout out of every set of permutations (C4).
+ */
+public class C4InterchangeableStatementOrder implements ConstraintModule {
+
+    @Override
+    public void add(ModelContext ctx) {
+        IrVar[][] coordinates;
+        if (ctx.v instanceof VarsRectangles rect) {
+            coordinates = rect.statementCoordinates;
+        } else if (ctx.v instanceof VarsPolygons poly) {
+            coordinates = poly.statementCoordinates;
+        } else {
+            return;
+        }
+
+        // Cell index y * (gridMax + 1) + x orders the cells by row, then column
+        final int W = ctx.bigM;
+
+        for (List<Integer> group : groups(ctx)) {
+            for (int k = 0; k + 1 < group.size(); k++) {
+                int i = group.get(k), j = group.get(k + 1);
+
+                IrLinExpr expr = new IrLinExpr();
+                expr.addTerm(W, coordinates[j][1]);
+                expr.addTerm(1.0, coordinates[j][0]);
+                expr.addTerm(-W, coordinates[i][1]);
+                expr.addTerm(-1.0, coordinates[i][0]);
+                ctx.model.addConstr(expr, IrModel.GREATER_EQUAL, 0, "C4_" + i + "_" + j);
+            }
+        }
+    }
+
+    // Swap the positions within every group into the order the constraints require
+    @Override
+    public void adjustStart(ModelContext ctx, int[][] statements) {
+        for (List<Integer> group : groups(ctx)) {
+            int[][] cells = new int[group.size()][];
+            for (int k = 0; k < group.size(); k++) {
+                cells[k] = statements[group.get(k)];
+            }
+
+            Arrays.sort(cells, (a, b) -> a[1] != b[1] ? Integer.compare(a[1], b[1]) : Integer.compare(a[0], b[0]));
+            for (int k = 0; k < group.size(); k++) {
+                statements[group.get(k)] = cells[k];
+            }
+        }
+    }
+
+    // Statement indices grouped by the entities they belong to (and by weight,
+    // runs of different length are not interchangeable), in index order; only
+    // groups of at least two statements
+    private static List<List<Integer>> groups(ModelContext ctx) {
+        // Signature: weight, then the entities in index order
+        LinkedHashMap<List<Integer>, List<Integer>> bySignature = new LinkedHashMap<>();
+        for (int j = 0; j < ctx.statementIds.size(); j++) {
+            List<Integer> signature = new ArrayList<>();
+            signature.add(ctx.statementWeight[j]);
+            for (int i : ctx.membership.entitiesOf[j])
+                signature.add(i);
+            bySignature.computeIfAbsent(signature, k -> new ArrayList<>()).add(j);
+        }
+
+        List<List<Integer>> groups = new ArrayList<>();
+        for (List<Integer> group : bySignature.values()) {
+            if (group.size() > 1)
+                groups.add(group);
+        }
+        return groups;
+    }
+}
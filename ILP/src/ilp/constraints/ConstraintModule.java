@@ -1,12 +1,17 @@
 package ilp.constraints;
 
-import com.gurobi.gurobi.GRBException;
 import ilp.ModelContext;
 
 public interface ConstraintModule {
-  void add(ModelContext ctx) throws GRBException;
+  void add(ModelContext ctx);
 
   default String name() {
     return getClass().getSimpleName();
   }
-}
\ No newline at end of file
+
+  // Called with the statement positions of a MIP start ([statement][x,y]) before
+  // they are written into the model; modules that rule out some of several
+  // equivalent layouts move the statements so the start satisfies them
+  default void adjustStart(ModelContext ctx, int[][] statements) {
+  }
+}
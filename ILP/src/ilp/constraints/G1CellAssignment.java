@@ -0,0 +1,63 @@
+package ilp.constraints;
+
+import ilp.ModelContext;
+import ilp.ir.IrLinExpr;
+import ilp.ir.IrModel;
+import ilp.variables.VarsCells;
+
+// Every statement takes one cell (a run of cells for statements with a weight),
+// at most one statement per cell, and the statement coordinates are those of
+// its cell; replaces the pairwise big-M rows of C1 in the cell formulation (G1)
+public class G1CellAssignment implements ConstraintModule {
+
+    @Override
+    public void add(ModelContext ctx) {
+        if ((ctx.v instanceof VarsCells v)) { // only add this constraint for cell solutions
+            int nStatements = ctx.statementIds.size();
+            int lo = v.lowerBound, hi = v.lowerBound + v.side - 1;
+
+            for (int i = 0; i < nStatements; i++) {
+                int weight = ctx.statementWeight[i];
+                IrLinExpr one = new IrLinExpr();
+                IrLinExpr outside = new IrLinExpr();
+                IrLinExpr x = new IrLinExpr();
+                IrLinExpr y = new IrLinExpr();
+                for (int cy = lo; cy <= hi; cy++) {
+                    for (int cx = lo; cx <= hi; cx++) {
+                        int c = v.cell(cx, cy);
+                        // a run has to end inside the grid
+                        if (cx + weight - 1 > hi) {
+                            outside.addTerm(1.0, v.statementCells[i][c]);
+                            continue;
+                        }
+                        one.addTerm(1.0, v.statementCells[i][c]);
+                        if (cx != 0)
+                            x.addTerm(cx, v.statementCells[i][c]);
+                        if (cy != 0)
+                            y.addTerm(cy, v.statementCells[i][c]);
+                    }
+                }
+                ctx.model.addConstr(one, IrModel.EQUAL, 1, "G1_" + i + "_one");
+                if (outside.size() > 0)
+                    ctx.model.addConstr(outside, IrModel.EQUAL, 0, "G1_" + i + "_outside");
+
+                // statement x = sum of x * cell (same for y)
+                x.addTerm(-1.0, v.statementCoordinates[i][0]);
+                ctx.model.addConstr(x, IrModel.EQUAL, 0, "G1_" + i + "_x");
+                y.addTerm(-1.0, v.statementCoordinates[i][1]);
+                ctx.model.addConstr(y, IrModel.EQUAL, 0, "G1_" + i + "_y");
+            }
+
+            // At most one statement per cell
+            for (int cy = lo; cy <= hi; cy++) {
+                for (int cx = lo; cx <= hi; cx++) {
+                    IrLinExpr expr = new IrLinExpr();
+                    for (int i = 0; i < nStatements; i++) {
+                        expr.add(v.occupancy(i, ctx.statementWeight[i], cx, cy));
+                    }
+                    ctx.model.addConstr(expr, IrModel.LESS_EQUAL, 1, "G1_cell_" + cx + "_" + cy);
+                }
+            }
+        }
+    }
+}
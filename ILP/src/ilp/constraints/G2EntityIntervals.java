@@ -0,0 +1,62 @@
+package ilp.constraints;
+
+import ilp.ModelContext;
+import ilp.ir.IrLinExpr;
+import ilp.ir.IrModel;
+import ilp.ir.IrVar;
+import ilp.variables.VarsCells;
+
+// Every entity has one first and one last column (row), its coordinates are
+// those columns (rows), and the columns (rows) in between lie within it (G2)
+public class G2EntityIntervals implements ConstraintModule {
+
+    @Override
+    public void add(ModelContext ctx) {
+        if ((ctx.v instanceof VarsCells v)) { // only add this constraint for cell solutions
+            int nEntities = ctx.entityIds.size();
+            for (int i = 0; i < nEntities; i++) {
+                interval(ctx, v, v.columnStart[i], v.columnEnd[i], v.inColumn[i], v.entityCoordinates[i][0],
+                        v.entityCoordinates[i][2], "G2_" + i + "_x");
+                interval(ctx, v, v.rowStart[i], v.rowEnd[i], v.inRow[i], v.entityCoordinates[i][1],
+                        v.entityCoordinates[i][3], "G2_" + i + "_y");
+            }
+        }
+    }
+
+    private void interval(ModelContext ctx, VarsCells v, IrVar[] start, IrVar[] end, IrVar[] inside, IrVar first,
+            IrVar last, String name) {
+        IrLinExpr oneStart = new IrLinExpr();
+        IrLinExpr oneEnd = new IrLinExpr();
+        IrLinExpr firstExpr = new IrLinExpr();
+        IrLinExpr lastExpr = new IrLinExpr();
+        for (int k = 0; k < v.side; k++) {
+            int coord = v.lowerBound + k;
+            oneStart.addTerm(1.0, start[k]);
+            oneEnd.addTerm(1.0, end[k]);
+            if (coord != 0) {
+                firstExpr.addTerm(coord, start[k]);
+                lastExpr.addTerm(coord, end[k]);
+            }
+
+            // inside[k] = inside[k - 1] + start[k] - end[k - 1], i.e. started at or
+            // before k and not ended before k; as inside cannot be negative, the
+            // interval does not end before it starts
+            IrLinExpr expr = new IrLinExpr();
+            expr.addTerm(1.0, start[k]);
+            if (k > 0) {
+                expr.addTerm(1.0, inside[k - 1]);
+                expr.addTerm(-1.0, end[k - 1]);
+            }
+            expr.addTerm(-1.0, inside[k]);
+            ctx.model.addConstr(expr, IrModel.EQUAL, 0, name + "_" + coord + "_inside");
+        }
+        ctx.model.addConstr(oneStart, IrModel.EQUAL, 1, name + "_one_start");
+        ctx.model.addConstr(oneEnd, IrModel.EQUAL, 1, name + "_one_end");
+
+        // first = sum of coordinate * start (same for last)
+        firstExpr.addTerm(-1.0, first);
+        ctx.model.addConstr(firstExpr, IrModel.EQUAL, 0, name + "_first");
+        lastExpr.addTerm(-1.0, last);
+        ctx.model.addConstr(lastExpr, IrModel.EQUAL, 0, name + "_last");
+    }
+}
@@ -0,0 +1,40 @@
+package ilp.constraints;
+
+import ilp.ModelContext;
+import ilp.ir.IrLinExpr;
+import ilp.ir.IrModel;
+import ilp.variables.VarsCells;
+
+// A statement only occupies columns and rows that lie within the entities it
+// belongs to; replaces H1 in the cell formulation (G3)
+public class G3MembersInsideEntities implements ConstraintModule {
+
+    @Override
+    public void add(ModelContext ctx) {
+        if ((ctx.v instanceof VarsCells v)) { // only add this constraint for cell solutions
+            int nEntities = ctx.entityIds.size();
+            int lo = v.lowerBound, hi = v.lowerBound + v.side - 1;
+
+            for (int i = 0; i < nEntities; i++) {
+                for (int statementIndex : ctx.membership.memberIndices[i]) {
+                    int weight = ctx.statementWeight[statementIndex];
+
+                    // statement in column k => column k within the entity (same for rows)
+                    for (int k = lo; k <= hi; k++) {
+                        IrLinExpr column = new IrLinExpr();
+                        IrLinExpr row = new IrLinExpr();
+                        for (int l = lo; l <= hi; l++) {
+                            column.add(v.occupancy(statementIndex, weight, k, l));
+                            row.add(v.occupancy(statementIndex, weight, l, k));
+                        }
+                        column.addTerm(-1.0, v.inColumn[i][k - lo]);
+                        ctx.model.addConstr(column, IrModel.LESS_EQUAL, 0,
+                                "G3_" + i + "_" + statementIndex + "_column_" + k);
+                        row.addTerm(-1.0, v.inRow[i][k - lo]);
+                        ctx.model.addConstr(row, IrModel.LESS_EQUAL, 0, "G3_" + i + "_" + statementIndex + "_row_" + k);
+                    }
+                }
+            }
+        }
+    }
+}
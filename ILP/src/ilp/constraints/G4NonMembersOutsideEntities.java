@@ -0,0 +1,39 @@
+package ilp.constraints;
+
+import ilp.ModelContext;
+import ilp.ir.IrLinExpr;
+import ilp.ir.IrModel;
+import ilp.variables.VarsCells;
+
+// A cell whose column and row both lie within an entity holds no statement that
+// does not belong to the entity; one row per entity and cell, replaces the
+// pairwise big-M rows of H2 in the cell formulation (G4)
+public class G4NonMembersOutsideEntities implements ConstraintModule {
+
+    @Override
+    public void add(ModelContext ctx) {
+        if ((ctx.v instanceof VarsCells v)) { // only add this constraint for cell solutions
+            int nEntities = ctx.entityIds.size();
+            int lo = v.lowerBound, hi = v.lowerBound + v.side - 1;
+
+            for (int i = 0; i < nEntities; i++) {
+                int[] nonMembers = ctx.membership.nonMemberIndices[i];
+                if (nonMembers.length == 0)
+                    continue;
+
+                // non-members in (x, y) + column x within + row y within <= 2
+                for (int y = lo; y <= hi; y++) {
+                    for (int x = lo; x <= hi; x++) {
+                        IrLinExpr expr = new IrLinExpr();
+                        for (int j : nonMembers) {
+                            expr.add(v.occupancy(j, ctx.statementWeight[j], x, y));
+                        }
+                        expr.addTerm(1.0, v.inColumn[i][x - lo]);
+                        expr.addTerm(1.0, v.inRow[i][y - lo]);
+                        ctx.model.addConstr(expr, IrModel.LESS_EQUAL, 2, "G4_" + i + "_" + x + "_" + y);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -1,10 +1,8 @@
 package ilp.constraints;
 
-import com.gurobi.gurobi.GRB;
-import com.gurobi.gurobi.GRBException;
-import com.gurobi.gurobi.GRBLinExpr;
-
 import ilp.ModelContext;
+import ilp.ir.IrLinExpr;
+import ilp.ir.IrModel;
 import ilp.variables.VarsPolygons;
 import ilp.variables.VarsRectangles;
 
@@ -13,7 +11,7 @@ import ilp.variables.VarsRectangles;
 public class H10Squareness implements ConstraintModule {
 
     @Override
-    public void add(ModelContext ctx) throws GRBException {
+    public void add(ModelContext ctx) {
         if (ctx.v instanceof VarsRectangles rect) {
             optimizeForSquareness(ctx, rect);
         } else if (ctx.v instanceof VarsPolygons poly) {
@@ -21,31 +19,31 @@ public class H10Squareness implements ConstraintModule {
         }
     }
 
-    private void optimizeForSquareness(ModelContext ctx, VarsRectangles v) throws GRBException {
-        GRBLinExpr positiveDiff = new GRBLinExpr();
+    private void optimizeForSquareness(ModelContext ctx, VarsRectangles v) {
+        IrLinExpr positiveDiff = new IrLinExpr();
             positiveDiff.addTerm(1.0, v.diff);
             positiveDiff.addTerm(-1.0, v.maxWidth);
             positiveDiff.addTerm(1.0, v.maxHeight);
-            ctx.model.addConstr(positiveDiff, GRB.GREATER_EQUAL, 0, "H10_+diff");
+            ctx.model.addConstr(positiveDiff, IrModel.GREATER_EQUAL, 0, "H10_+diff");
 
-            GRBLinExpr negativeDiff = new GRBLinExpr();
+            IrLinExpr negativeDiff = new IrLinExpr();
             negativeDiff.addTerm(1.0, v.diff);
             negativeDiff.addTerm(1.0, v.maxWidth);
             negativeDiff.addTerm(-1.0, v.maxHeight);
-            ctx.model.addConstr(negativeDiff, GRB.GREATER_EQUAL, 0, "H10_-diff");
+            ctx.model.addConstr(negativeDiff, IrModel.GREATER_EQUAL, 0, "H10_-diff");
     }
 
-    private void optimizeForSquareness(ModelContext ctx, VarsPolygons v) throws GRBException {
-        GRBLinExpr positiveDiff = new GRBLinExpr();
+    private void optimizeForSquareness(ModelContext ctx, VarsPolygons v) {
+        IrLinExpr positiveDiff = new IrLinExpr();
             positiveDiff.addTerm(1.0, v.diff);
             positiveDiff.addTerm(-1.0, v.maxWidth);
             positiveDiff.addTerm(1.0, v.maxHeight);
-            ctx.model.addConstr(positiveDiff, GRB.GREATER_EQUAL, 0, "H10_+diff");
+            ctx.model.addConstr(positiveDiff, IrModel.GREATER_EQUAL, 0, "H10_+diff");
 
-            GRBLinExpr negativeDiff = new GRBLinExpr();
+            IrLinExpr negativeDiff = new IrLinExpr();
             negativeDiff.addTerm(1.0, v.diff);
             negativeDiff.addTerm(1.0, v.maxWidth);
             negativeDiff.addTerm(-1.0, v.maxHeight);
-            ctx.model.addConstr(negativeDiff, GRB.GREATER_EQUAL, 0, "H10_-diff");
+            ctx.model.addConstr(negativeDiff, IrModel.GREATER_EQUAL, 0, "H10_-diff");
     }
 }
@@ -0,0 +1,48 @@
+package ilp.constraints;
+
+import ilp.ModelContext;
+import ilp.ir.IrLinExpr;
+import ilp.ir.IrModel;
+import ilp.variables.VarsRectangles;
+
+/*
+ * Every entity whose statements all belong to another entity is drawn inside
+ * the smallest such entity (MembershipIndex.nestingParent), with four plain
+ * rows instead of binaries (H11). This rules out no optimal layout: shrinking
+ * the rectangle of an entity to its intersection with the rectangle of its
+ * parent keeps all its statements, covers no new ones, overlaps no new entities
+ * and does not increase the objective. The relation-aware H2 and H6 rely on it
+ * to leave out pairs that the nesting already keeps apart.
+ */
+public class H11NestedEntities implements ConstraintModule {
+
+    @Override
+    public void add(ModelContext ctx) {
+        if ((ctx.v instanceof VarsRectangles v)) { // only add this constraint for rectangle solutions
+            int nEntities = ctx.entityIds.size();
+            for (int i = 0; i < nEntities; i++) {
+                int parent = ctx.membership.nestingParent[i];
+                if (parent == -1)
+                    continue;
+
+                // entity x1 >= parent x1 (same for y1)
+                for (int k = 0; k < 2; k++) {
+                    IrLinExpr expr = new IrLinExpr();
+                    expr.addTerm(1.0, v.entityCoordinates[i][k]);
+                    expr.addTerm(-1.0, v.entityCoordinates[parent][k]);
+                    ctx.model.addConstr(expr, IrModel.GREATER_EQUAL, 0,
+                            "H11_" + i + "_" + parent + (k == 0 ? "_x1" : "_y1"));
+                }
+
+                // entity x2 <= parent x2 (same for y2)
+                for (int k = 2; k < 4; k++) {
+                    IrLinExpr expr = new IrLinExpr();
+                    expr.addTerm(1.0, v.entityCoordinates[parent][k]);
+                    expr.addTerm(-1.0, v.entityCoordinates[i][k]);
+                    ctx.model.addConstr(expr, IrModel.GREATER_EQUAL, 0,
+                            "H11_" + i + "_" + parent + (k == 2 ? "_x2" : "_y2"));
+                }
+            }
+        }
+    }
+}
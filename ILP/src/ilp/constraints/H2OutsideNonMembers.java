@@ -1,71 +1,84 @@
 package ilp.constraints;
 
-import java.util.Arrays;
-import com.gurobi.gurobi.GRB;
-import com.gurobi.gurobi.GRBException;
-import com.gurobi.gurobi.GRBLinExpr;
-import com.gurobi.gurobi.GRBVar;
 import ilp.ModelContext;
+import ilp.ir.IrLinExpr;
+import ilp.ir.IrModel;
+import ilp.ir.IrVar;
 import ilp.variables.VarsRectangles;
 
 // Keep statements outside of entities they do not belong to (H2)
 public class H2OutsideNonMembers implements ConstraintModule {
+    // Leave out the pairs where the statement does not belong to the entity this
+    // one is nested in (H11, which must then be used too): the pair with the
+    // parent keeps it out. A disjoint entity of the statement does not, as H6
+    // lets disjoint entities share a boundary row or column
+    private final boolean relationAware;
+
+    public H2OutsideNonMembers(boolean relationAware) {
+        this.relationAware = relationAware;
+    }
+
+    public H2OutsideNonMembers() {
+        this(false);
+    }
+
+    @Override
+    public String name() {
+        return relationAware ? getClass().getSimpleName() + "(relations)" : getClass().getSimpleName();
+    }
 
     @Override
-    public void add(ModelContext ctx) throws GRBException {
+    public void add(ModelContext ctx) {
         if ((ctx.v instanceof VarsRectangles v)) { // only add this constraint for rectangle solutions
-            int nStatements = ctx.inst.numberOfStatements;
             int nEntities = ctx.entityIds.size();
             final int M = ctx.bigM;
 
             for (int i = 0; i < nEntities; i++) {
-                int entityId = ctx.entityIds.get(i);
-
-                for (int j = 0; j < nStatements; j++) {
-                    final int statementIdFinal = ctx.statementIds.get(j);
-                    if (Arrays.stream(ctx.inst.entityIndToStatements.get(entityId))
-                            .noneMatch(x -> x == statementIdFinal)) {
+                int parent = ctx.membership.nestingParent[i];
+                for (int j : ctx.membership.nonMemberIndices[i]) {
+                    if (relationAware && parent != -1 && !ctx.membership.isMember(parent, j))
+                        continue;
+                    final int weight = ctx.statementWeight[j];
 
-                        GRBVar[] vars = new GRBVar[4];
-                        for (int k = 0; k < 4; k++) {
-                            vars[k] = ctx.model.addVar(0.0, 1.0, 0.0, GRB.BINARY, "H2_" + i + "_" + j + "_" + k);
-                        }
+                    IrVar[] vars = new IrVar[4];
+                    for (int k = 0; k < 4; k++) {
+                        vars[k] = ctx.model.addVar(0.0, 1.0, 0.0, IrModel.BINARY, "H2_" + i + "_" + j + "_" + k);
+                    }
 
-                        // x - x1 + M * vars[0] >= 0
-                        GRBLinExpr expr = new GRBLinExpr();
-                        expr.addTerm(-1.0, v.statementCoordinates[j][0]);
-                        expr.addTerm(1.0, v.entityCoordinates[i][0]);
-                        expr.addTerm(M, vars[0]);
-                        ctx.model.addConstr(expr, GRB.GREATER_EQUAL, 1, "H2_" + i + "_" + j + "_left");
+                    // x1 - x + M * vars[0] >= weight (the whole run is left of x1)
+                    IrLinExpr expr = new IrLinExpr();
+                    expr.addTerm(-1.0, v.statementCoordinates[j][0]);
+                    expr.addTerm(1.0, v.entityCoordinates[i][0]);
+                    expr.addTerm(M + weight - 1, vars[0]);
+                    ctx.model.addConstr(expr, IrModel.GREATER_EQUAL, weight, "H2_" + i + "_" + j + "_left");
 
-                        // x2 - x + M * vars[1] >= 0
-                        expr = new GRBLinExpr();
-                        expr.addTerm(1.0, v.statementCoordinates[j][0]);
-                        expr.addTerm(-1.0, v.entityCoordinates[i][2]);
-                        expr.addTerm(M, vars[1]);
-                        ctx.model.addConstr(expr, GRB.GREATER_EQUAL, 1, "H2_" + i + "_" + j + "_right");
+                    // x2 - x + M * vars[1] >= 0
+                    expr = new IrLinExpr();
+                    expr.addTerm(1.0, v.statementCoordinates[j][0]);
+                    expr.addTerm(-1.0, v.entityCoordinates[i][2]);
+                    expr.addTerm(M, vars[1]);
+                    ctx.model.addConstr(expr, IrModel.GREATER_EQUAL, 1, "H2_" + i + "_" + j + "_right");
 
-                        // y1 - y + M * vars[2] >= 0
-                        expr = new GRBLinExpr();
-                        expr.addTerm(-1.0, v.statementCoordinates[j][1]);
-                        expr.addTerm(1.0, v.entityCoordinates[i][1]);
-                        expr.addTerm(M, vars[2]);
-                        ctx.model.addConstr(expr, GRB.GREATER_EQUAL, 1, "H2_" + i + "_" + j + "_top");
+                    // y1 - y + M * vars[2] >= 0
+                    expr = new IrLinExpr();
+                    expr.addTerm(-1.0, v.statementCoordinates[j][1]);
+                    expr.addTerm(1.0, v.entityCoordinates[i][1]);
+                    expr.addTerm(M, vars[2]);
+                    ctx.model.addConstr(expr, IrModel.GREATER_EQUAL, 1, "H2_" + i + "_" + j + "_top");
 
-                        // y - y2 + M * vars[3] >= 0
-                        expr = new GRBLinExpr();
-                        expr.addTerm(1.0, v.statementCoordinates[j][1]);
-                        expr.addTerm(-1.0, v.entityCoordinates[i][3]);
-                        expr.addTerm(M, vars[3]);
-                        ctx.model.addConstr(expr, GRB.GREATER_EQUAL, 1, "H2_" + i + "_" + j + "_bottom");
+                    // y - y2 + M * vars[3] >= 0
+                    expr = new IrLinExpr();
+                    expr.addTerm(1.0, v.statementCoordinates[j][1]);
+                    expr.addTerm(-1.0, v.entityCoordinates[i][3]);
+                    expr.addTerm(M, vars[3]);
+                    ctx.model.addConstr(expr, IrModel.GREATER_EQUAL, 1, "H2_" + i + "_" + j + "_bottom");
 
-                        expr = new GRBLinExpr();
-                        expr.addTerm(1.0, vars[0]);
-                        expr.addTerm(1.0, vars[1]);
-                        expr.addTerm(1.0, vars[2]);
-                        expr.addTerm(1.0, vars[3]);
-                        ctx.model.addConstr(expr, GRB.LESS_EQUAL, 3.0, "H2_" + i + "_" + j + "_sum");
-                    }
+                    expr = new IrLinExpr();
+                    expr.addTerm(1.0, vars[0]);
+                    expr.addTerm(1.0, vars[1]);
+                    expr.addTerm(1.0, vars[2]);
+                    expr.addTerm(1.0, vars[3]);
+                    ctx.model.addConstr(expr, IrModel.LESS_EQUAL, 3.0, "H2_" + i + "_" + j + "_sum");
                 }
             }
         }
@@ -1,80 +1,93 @@
 package ilp.constraints;
 
-import com.gurobi.gurobi.GRB;
-import com.gurobi.gurobi.GRBException;
-import com.gurobi.gurobi.GRBLinExpr;
-import com.gurobi.gurobi.GRBVar;
-
 import ilp.ModelContext;
+import ilp.ir.IrLinExpr;
+import ilp.ir.IrModel;
+import ilp.ir.IrVar;
 import ilp.variables.VarsRectangles;
 
 // Make entities with non-overlapping statements not overlap coordinates (H6)
 public class H6DisjointEntitiesDoNotOverlap implements ConstraintModule {
+    // Leave out the pairs where the entity one of them is nested in (H11, which
+    // must then be used too) is already kept apart from the other
+    private final boolean relationAware;
+
+    public H6DisjointEntitiesDoNotOverlap(boolean relationAware) {
+        this.relationAware = relationAware;
+    }
+
+    public H6DisjointEntitiesDoNotOverlap() {
+        this(false);
+    }
+
+    @Override
+    public String name() {
+        return relationAware ? getClass().getSimpleName() + "(relations)" : getClass().getSimpleName();
+    }
 
     @Override
-    public void add(ModelContext ctx) throws GRBException {
+    public void add(ModelContext ctx) {
         if ((ctx.v instanceof VarsRectangles v)) { // only add this constraint for rectangle solutions
             int nEntities = ctx.entityIds.size();
             final int M = ctx.bigM;
 
             for (int i = 0; i < nEntities; i++) {
                 for (int j = i + 1; j < nEntities; j++) {
-                    int[] statementsOfEntity1 = ctx.inst.entityIndToStatements.get(ctx.entityIds.get(i));
-                    int[] statementsOfEntity2 = ctx.inst.entityIndToStatements.get(ctx.entityIds.get(j));
-                    boolean overlap = false;
-                    for (int k = 0; k < statementsOfEntity1.length; k++) {
-                        for (int l = 0; l < statementsOfEntity2.length; l++) {
-                            if (statementsOfEntity1[k] == statementsOfEntity2[l]) {
-                                overlap = true;
-                                break;
-                            }
-                        }
-                    }
+                    boolean overlap = ctx.membership.shared(i, j) > 0;
+                    if (relationAware && !overlap && (separatedByParent(ctx, i, j) || separatedByParent(ctx, j, i)))
+                        continue;
 
                     if (!overlap) {
 
-                        GRBVar[] vars = new GRBVar[4];
+                        IrVar[] vars = new IrVar[4];
                         for (int k = 0; k < 4; k++) {
-                            vars[k] = ctx.model.addVar(0.0, 1.0, 0.0, GRB.BINARY, "H6_" + i + "_" + j + "_" + k);
+                            vars[k] = ctx.model.addVar(0.0, 1.0, 0.0, IrModel.BINARY, "H6_" + i + "_" + j + "_" + k);
                         }
 
                         // x1_e1 - x2_e2 + M * vars[0] >= 0
-                        GRBLinExpr expr = new GRBLinExpr();
+                        IrLinExpr expr = new IrLinExpr();
                         expr.addTerm(-1.0, v.entityCoordinates[j][2]);
                         expr.addTerm(1.0, v.entityCoordinates[i][0]);
                         expr.addTerm(M, vars[0]);
-                        ctx.model.addConstr(expr, GRB.GREATER_EQUAL, 0, "H6_" + i + "_" + j + "_left");
+                        ctx.model.addConstr(expr, IrModel.GREATER_EQUAL, 0, "H6_" + i + "_" + j + "_left");
 
                         // x2_e1 - x1_e2 + M * vars[1] >= 0
-                        expr = new GRBLinExpr();
+                        expr = new IrLinExpr();
                         expr.addTerm(1.0, v.entityCoordinates[j][0]);
                         expr.addTerm(-1.0, v.entityCoordinates[i][2]);
                         expr.addTerm(M, vars[1]);
-                        ctx.model.addConstr(expr, GRB.GREATER_EQUAL, 0, "H6_" + i + "_" + j + "_right");
+                        ctx.model.addConstr(expr, IrModel.GREATER_EQUAL, 0, "H6_" + i + "_" + j + "_right");
 
                         // y1_e1 - y2_e2 + M * vars[2] >= 0
-                        expr = new GRBLinExpr();
+                        expr = new IrLinExpr();
                         expr.addTerm(-1.0, v.entityCoordinates[j][3]);
                         expr.addTerm(1.0, v.entityCoordinates[i][1]);
                         expr.addTerm(M, vars[2]);
-                        ctx.model.addConstr(expr, GRB.GREATER_EQUAL, 0, "H6_" + i + "_" + j + "_top");
+                        ctx.model.addConstr(expr, IrModel.GREATER_EQUAL, 0, "H6_" + i + "_" + j + "_top");
 
                         // y1_e2 - y2_e1 + M * vars[3] >= 0
-                        expr = new GRBLinExpr();
+                        expr = new IrLinExpr();
                         expr.addTerm(1.0, v.entityCoordinates[j][1]);
                         expr.addTerm(-1.0, v.entityCoordinates[i][3]);
                         expr.addTerm(M, vars[3]);
-                        ctx.model.addConstr(expr, GRB.GREATER_EQUAL, 0, "H6_" + i + "_" + j + "_bottom");
+                        ctx.model.addConstr(expr, IrModel.GREATER_EQUAL, 0, "H6_" + i + "_" + j + "_bottom");
 
-                        expr = new GRBLinExpr();
+                        expr = new IrLinExpr();
                         expr.addTerm(1.0, vars[0]);
                         expr.addTerm(1.0, vars[1]);
                         expr.addTerm(1.0, vars[2]);
                         expr.addTerm(1.0, vars[3]);
-                        ctx.model.addConstr(expr, GRB.LESS_EQUAL, 3.0, "H6_" + i + "_" + j + "_sum");
+                        ctx.model.addConstr(expr, IrModel.LESS_EQUAL, 3.0, "H6_" + i + "_" + j + "_sum");
                     }
                 }
             }
         }
     }
+
+    // The parent of entity i is disjoint from entity j, so the pair (parent, j),
+    // or a pair further up, keeps them apart
+    private static boolean separatedByParent(ModelContext ctx, int i, int j) {
+        int parent = ctx.membership.nestingParent[i];
+        return parent != -1 && ctx.membership.shared(parent, j) == 0;
+    }
 }
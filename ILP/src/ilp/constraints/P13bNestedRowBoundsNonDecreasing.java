@@ -1,33 +1,31 @@
 package ilp.constraints;
 
-import com.gurobi.gurobi.GRB;
-import com.gurobi.gurobi.GRBException;
-import com.gurobi.gurobi.GRBLinExpr;
-
 import ilp.ModelContext;
+import ilp.ir.IrLinExpr;
+import ilp.ir.IrModel;
 import ilp.variables.VarsPolygons;
 
 // This constraint forces the rows to be subsets of the rows above.
 public class P13bNestedRowBoundsNonDecreasing implements ConstraintModule {
 
     @Override
-    public void add(ModelContext ctx) throws GRBException {
+    public void add(ModelContext ctx) {
         if ((ctx.v instanceof VarsPolygons v)) { // only add this constraint for polygon solutions
             for (int i = 0; i < ctx.entityIds.size(); i++) {
                 for (int r = 0; r < ctx.dimensions; r++) {
-                    GRBLinExpr leftDiff = new GRBLinExpr();
+                    IrLinExpr leftDiff = new IrLinExpr();
                     leftDiff.addTerm(1.0, v.entities[i].rowBounds[r][0]);
                     leftDiff.addTerm(-1.0, v.entities[i].rowBounds[r + 1][0]);
 
                     //enforce rowBounds[r][0] >= rowBounds[r+1][0]
-                    ctx.model.addGenConstrIndicator(v.entities[i].activeRows[r], 1, leftDiff, GRB.GREATER_EQUAL, 0.0, "monoInc_" + i + "_" + r);
+                    ctx.model.addGenConstrIndicator(v.entities[i].activeRows[r], 1, leftDiff, IrModel.GREATER_EQUAL, 0.0, "monoInc_" + i + "_" + r);
 
-                    GRBLinExpr rightDiff = new GRBLinExpr();
+                    IrLinExpr rightDiff = new IrLinExpr();
                     rightDiff.addTerm(1.0, v.entities[i].rowBounds[r][1]);
                     rightDiff.addTerm(-1.0, v.entities[i].rowBounds[r + 1][1]);
 
                     // enforce rowBounds[r][1] >= rowBounds[r+1][1]
-                    ctx.model.addGenConstrIndicator(v.entities[i].activeRows[r+1], 1, rightDiff, GRB.LESS_EQUAL, 0.0, "monoInc_" + i + "_" + r);
+                    ctx.model.addGenConstrIndicator(v.entities[i].activeRows[r+1], 1, rightDiff, IrModel.LESS_EQUAL, 0.0, "monoInc_" + i + "_" + r);
                 }
             }
         }
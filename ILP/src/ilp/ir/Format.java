@@ -0,0 +1,56 @@
+package ilp.ir;
+
+import java.util.HashSet;
+import java.util.Set;
+
+// Names and numbers as written to model files
+final class Format {
+    private Format() {
+    }
+
+    /*
+     * Names that are valid and unique in LP and MPS files: characters other than
+     * letters, digits and '_' become '_', names that are missing or start with a
+     * digit get the prefix, and a repeated name gets the index appended (Gurobi
+     * allows duplicate names, the file formats do not).
+     */
+    static String[] names(String[] names, int n, String prefix) {
+        String[] result = new String[n];
+        Set<String> used = new HashSet<>();
+        for (int i = 0; i < n; i++) {
+            String name = names[i] == null ? "" : names[i].replaceAll("[^A-Za-z0-9_]", "_");
+            if (name.isEmpty() || Character.isDigit(name.charAt(0)))
+                name = prefix + name;
+            if (!used.add(name)) {
+                String base = name + "_" + i;
+                name = base;
+                for (int k = 1; !used.add(name); k++) {
+                    name = base + "_" + k;
+                }
+            }
+            result[i] = name;
+        }
+        return result;
+    }
+
+    // Names of the rows, then the indicators, then the AND constraints (one
+    // namespace)
+    static String[] constraintNames(IrModel m) {
+        String[] names = new String[m.nRows + m.indicators.size() + m.ands.size()];
+        System.arraycopy(m.rowNames, 0, names, 0, m.nRows);
+        for (int i = 0; i < m.indicators.size(); i++) {
+            names[m.nRows + i] = m.indicators.get(i).name();
+        }
+        for (int i = 0; i < m.ands.size(); i++) {
+            names[m.nRows + m.indicators.size() + i] = m.ands.get(i).name();
+        }
+        return Format.names(names, names.length, "c");
+    }
+
+    // Integral values without a fraction
+    static String number(double x) {
+        if (x == Math.rint(x) && Math.abs(x) < 1e15)
+            return Long.toString((long) x);
+        return Double.toString(x);
+    }
+}
@@ -0,0 +1,128 @@
+package ilp.ir;
+
+import java.util.Arrays;
+
+import com.gurobi.gurobi.GRB;
+import com.gurobi.gurobi.GRBEnv;
+import com.gurobi.gurobi.GRBException;
+import com.gurobi.gurobi.GRBLinExpr;
+import com.gurobi.gurobi.GRBModel;
+import com.gurobi.gurobi.GRBVar;
+
+import ilp.EnvPool;
+
+/*
+ * Lowers an IrModel to a GRBModel on an environment borrowed from the shared
+ * pool. Parameters, callbacks and optimize() go through the GRBModel (model), the
+ * solution is copied back into the IrModel with readSolution() so it can be read
+ * from the IrVars. Closing the backend disposes the model and returns the
+ * environment.
+ */
+public final class GurobiBackend implements AutoCloseable {
+    public final GRBEnv env;
+    public final GRBModel model;
+    private final IrModel ir;
+    private final GRBVar[] vars;
+
+    public GurobiBackend(IrModel ir) throws GRBException {
+        this.ir = ir;
+        this.env = EnvPool.shared().acquire();
+        GRBModel m = null;
+        try {
+            m = new GRBModel(env);
+            this.vars = lower(ir, m);
+        } catch (GRBException | RuntimeException e) {
+            if (m != null)
+                m.dispose();
+            EnvPool.shared().release(env);
+            throw e;
+        }
+        this.model = m;
+    }
+
+    private static GRBVar[] lower(IrModel ir, GRBModel m) throws GRBException {
+        int n = ir.nVars;
+        GRBVar[] vars = m.addVars(Arrays.copyOf(ir.lb, n), Arrays.copyOf(ir.ub, n), Arrays.copyOf(ir.obj, n),
+                Arrays.copyOf(ir.types, n), Arrays.copyOf(ir.varNames, n));
+
+        GRBLinExpr[] rows = new GRBLinExpr[ir.nRows];
+        for (int r = 0; r < ir.nRows; r++) {
+            rows[r] = expr(vars, ir.rowVars, ir.rowCoeffs, ir.rowStart[r], ir.rowStart[r + 1]);
+        }
+        m.addConstrs(rows, Arrays.copyOf(ir.senses, ir.nRows), Arrays.copyOf(ir.rhs, ir.nRows),
+                Arrays.copyOf(ir.rowNames, ir.nRows));
+
+        for (IrModel.Indicator ind : ir.indicators) {
+            m.addGenConstrIndicator(vars[ind.binVar()], ind.binVal(),
+                    expr(vars, ind.vars(), ind.coeffs(), 0, ind.vars().length), ind.sense(), ind.rhs(), ind.name());
+        }
+        for (IrModel.And and : ir.ands) {
+            GRBVar[] inputs = new GRBVar[and.vars().length];
+            for (int k = 0; k < inputs.length; k++) {
+                inputs[k] = vars[and.vars()[k]];
+            }
+            m.addGenConstrAnd(vars[and.resVar()], inputs, and.name());
+        }
+
+        // The objective coefficients came with the variables
+        m.set(GRB.DoubleAttr.ObjCon, ir.objConstant);
+        m.set(GRB.IntAttr.ModelSense, ir.objSense);
+
+        // MIP start, only the values that were set
+        int starts = 0;
+        for (int j = 0; j < n; j++) {
+            if (!Double.isNaN(ir.start[j]))
+                starts++;
+        }
+        if (starts > 0) {
+            GRBVar[] startVars = new GRBVar[starts];
+            double[] startValues = new double[starts];
+            int k = 0;
+            for (int j = 0; j < n; j++) {
+                if (!Double.isNaN(ir.start[j])) {
+                    startVars[k] = vars[j];
+                    startValues[k++] = ir.start[j];
+                }
+            }
+            m.set(GRB.DoubleAttr.Start, startVars, startValues);
+        }
+        return vars;
+    }
+
+    private static GRBLinExpr expr(GRBVar[] vars, int[] indices, double[] coeffs, int from, int to)
+            throws GRBException {
+        GRBLinExpr expr = new GRBLinExpr();
+        GRBVar[] terms = new GRBVar[to - from];
+        for (int k = from; k < to; k++) {
+            terms[k - from] = vars[indices[k]];
+        }
+        expr.addTerms(Arrays.copyOfRange(coeffs, from, to), terms);
+        return expr;
+    }
+
+    public GRBVar var(IrVar v) {
+        return vars[v.index];
+    }
+
+    public GRBVar[][] vars(IrVar[][] v) {
+        GRBVar[][] result = new GRBVar[v.length][];
+        for (int i = 0; i < v.length; i++) {
+            result[i] = new GRBVar[v[i].length];
+            for (int k = 0; k < v[i].length; k++) {
+                result[i][k] = var(v[i][k]);
+            }
+        }
+        return result;
+    }
+
+    // Copy the values of the current solution into the IrModel
+    public void readSolution() throws GRBException {
+        ir.setSolution(model.get(GRB.DoubleAttr.X, vars));
+    }
+
+    @Override
+    public void close() throws GRBException {
+        model.dispose();
+        EnvPool.shared().release(env);
+    }
+}
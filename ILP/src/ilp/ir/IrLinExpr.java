@@ -0,0 +1,80 @@
+package ilp.ir;
+
+import java.util.Arrays;
+
+// Linear expression sum(coeff * var) + constant, with the methods of GRBLinExpr
+public final class IrLinExpr {
+    IrVar[] vars = new IrVar[4];
+    double[] coeffs = new double[4];
+    int size = 0;
+    double constant = 0.0;
+
+    public IrLinExpr() {
+    }
+
+    public IrLinExpr(IrLinExpr other) {
+        add(other);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public IrVar getVar(int i) {
+        return vars[i];
+    }
+
+    public double getCoeff(int i) {
+        return coeffs[i];
+    }
+
+    public double getConstant() {
+        return constant;
+    }
+
+    // Value in the solution read back from a backend
+    public double getValue() {
+        double value = constant;
+        for (int i = 0; i < size; i++) {
+            value += coeffs[i] * vars[i].value();
+        }
+        return value;
+    }
+
+    public void addConstant(double c) {
+        constant += c;
+    }
+
+    public void addTerm(double coeff, IrVar var) {
+        if (size == vars.length) {
+            vars = Arrays.copyOf(vars, 2 * size);
+            coeffs = Arrays.copyOf(coeffs, 2 * size);
+        }
+        vars[size] = var;
+        coeffs[size] = coeff;
+        size++;
+    }
+
+    public void addTerms(double[] coeffs, IrVar[] vars) {
+        for (int i = 0; i < vars.length; i++) {
+            addTerm(coeffs[i], vars[i]);
+        }
+    }
+
+    public void add(IrLinExpr other) {
+        multAdd(1.0, other);
+    }
+
+    public void multAdd(double multiplier, IrLinExpr other) {
+        int n = other.size; // other may be this expression
+        for (int i = 0; i < n; i++) {
+            addTerm(multiplier * other.coeffs[i], other.vars[i]);
+        }
+        constant += multiplier * other.constant;
+    }
+
+    public void clear() {
+        size = 0;
+        constant = 0.0;
+    }
+}
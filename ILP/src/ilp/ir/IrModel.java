@@ -0,0 +1,282 @@
+package ilp.ir;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * In-memory MIP model that the constraint and objective modules write into, so a
+ * model can be built, measured and exported without a Gurobi environment. The
+ * methods mirror the GRBModel methods the modules use (and the constants have
+ * the values of the GRB constants), a backend lowers the model to a solver
+ * (GurobiBackend) or a file (LpWriter, MpsWriter).
+ *
+ * Variables are stored column-wise (bounds, type, name and start per column),
+ * linear constraints as sparse rows (compressed: the terms of row r are
+ * rowVars/rowCoeffs[rowStart[r] .. rowStart[r + 1] - 1]). Every constraint is
+ * normalised to  sum(coeff * var) sense rhs  with duplicate variables merged,
+ * which is also what Gurobi does with constants and repeated terms.
+ */
+public final class IrModel {
+    public static final char LESS_EQUAL = '<';
+    public static final char GREATER_EQUAL = '>';
+    public static final char EQUAL = '=';
+    public static final char CONTINUOUS = 'C';
+    public static final char BINARY = 'B';
+    public static final char INTEGER = 'I';
+    public static final int MINIMIZE = 1;
+    public static final int MAXIMIZE = -1;
+    public static final double INFINITY = 1e100;
+
+    // Indicator constraint: binVar = binVal -> sum(coeffs * vars) sense rhs
+    public record Indicator(int binVar, int binVal, int[] vars, double[] coeffs, char sense, double rhs,
+            String name) {
+    }
+
+    // And constraint: resVar = vars[0] and vars[1] and ...
+    public record And(int resVar, int[] vars, String name) {
+    }
+
+    // Columns
+    int nVars = 0;
+    double[] lb = new double[64];
+    double[] ub = new double[64];
+    double[] obj = new double[64];
+    char[] types = new char[64];
+    String[] varNames = new String[64];
+    double[] start = new double[64];
+    private final List<IrVar> handles = new ArrayList<>();
+
+    // Rows
+    int nRows = 0;
+    int[] rowStart = new int[65];
+    int[] rowVars = new int[256];
+    double[] rowCoeffs = new double[256];
+    char[] senses = new char[64];
+    double[] rhs = new double[64];
+    String[] rowNames = new String[64];
+
+    // General constraints
+    final List<Indicator> indicators = new ArrayList<>();
+    final List<And> ands = new ArrayList<>();
+
+    // Objective: coefficients are the obj column, as in Gurobi
+    double objConstant = 0.0;
+    int objSense = MINIMIZE;
+
+    // Solution read back from a backend, null before
+    double[] solution;
+
+    // Scratch space for merging terms: position of a variable in the current row
+    private int[] position = new int[64];
+
+    public IrModel() {
+        Arrays.fill(position, -1);
+    }
+
+    public IrVar addVar(double lb, double ub, double obj, char type, String name) {
+        if (nVars == types.length) {
+            int n = 2 * nVars;
+            this.lb = Arrays.copyOf(this.lb, n);
+            this.ub = Arrays.copyOf(this.ub, n);
+            this.obj = Arrays.copyOf(this.obj, n);
+            this.types = Arrays.copyOf(this.types, n);
+            this.varNames = Arrays.copyOf(this.varNames, n);
+            this.start = Arrays.copyOf(this.start, n);
+            int old = position.length;
+            this.position = Arrays.copyOf(position, n);
+            Arrays.fill(position, old, n, -1);
+        }
+        this.lb[nVars] = lb;
+        this.ub[nVars] = ub;
+        this.obj[nVars] = obj;
+        this.types[nVars] = type;
+        this.varNames[nVars] = name;
+        this.start[nVars] = Double.NaN;
+        IrVar v = new IrVar(this, nVars++);
+        handles.add(v);
+        return v;
+    }
+
+    public IrVar getVar(int index) {
+        return handles.get(index);
+    }
+
+    // Linear constraints, in all combinations of GRBModel.addConstr
+
+    public void addConstr(IrLinExpr lhs, char sense, IrLinExpr rhs, String name) {
+        IrLinExpr row = new IrLinExpr(lhs);
+        row.multAdd(-1.0, rhs);
+        addRow(row, sense, name);
+    }
+
+    public void addConstr(IrLinExpr lhs, char sense, IrVar rhs, String name) {
+        IrLinExpr row = new IrLinExpr(lhs);
+        row.addTerm(-1.0, rhs);
+        addRow(row, sense, name);
+    }
+
+    public void addConstr(IrVar lhs, char sense, IrLinExpr rhs, String name) {
+        IrLinExpr row = new IrLinExpr();
+        row.addTerm(1.0, lhs);
+        row.multAdd(-1.0, rhs);
+        addRow(row, sense, name);
+    }
+
+    public void addConstr(IrVar lhs, char sense, IrVar rhs, String name) {
+        IrLinExpr row = new IrLinExpr();
+        row.addTerm(1.0, lhs);
+        row.addTerm(-1.0, rhs);
+        addRow(row, sense, name);
+    }
+
+    public void addConstr(IrVar lhs, char sense, double rhs, String name) {
+        IrLinExpr row = new IrLinExpr();
+        row.addTerm(1.0, lhs);
+        row.addConstant(-rhs);
+        addRow(row, sense, name);
+    }
+
+    public void addConstr(double lhs, char sense, IrVar rhs, String name) {
+        IrLinExpr row = new IrLinExpr();
+        row.addTerm(-1.0, rhs);
+        row.addConstant(lhs);
+        addRow(row, sense, name);
+    }
+
+    public void addConstr(IrLinExpr lhs, char sense, double rhs, String name) {
+        IrLinExpr row = new IrLinExpr(lhs);
+        row.addConstant(-rhs);
+        addRow(row, sense, name);
+    }
+
+    public void addConstr(double lhs, char sense, IrLinExpr rhs, String name) {
+        IrLinExpr row = new IrLinExpr();
+        row.multAdd(-1.0, rhs);
+        row.addConstant(lhs);
+        addRow(row, sense, name);
+    }
+
+    // expr sense 0, the constant of expr moves to the right-hand side
+    private void addRow(IrLinExpr expr, char sense, String name) {
+        Terms terms = merge(expr);
+        int[] vars = terms.vars;
+        double[] coeffs = terms.coeffs;
+
+        if (nRows == senses.length) {
+            int n = 2 * nRows;
+            senses = Arrays.copyOf(senses, n);
+            rhs = Arrays.copyOf(rhs, n);
+            rowNames = Arrays.copyOf(rowNames, n);
+            rowStart = Arrays.copyOf(rowStart, n + 1);
+        }
+        int nnz = rowStart[nRows];
+        if (nnz + vars.length > rowVars.length) {
+            int n = Math.max(2 * rowVars.length, nnz + vars.length);
+            rowVars = Arrays.copyOf(rowVars, n);
+            rowCoeffs = Arrays.copyOf(rowCoeffs, n);
+        }
+        System.arraycopy(vars, 0, rowVars, nnz, vars.length);
+        System.arraycopy(coeffs, 0, rowCoeffs, nnz, coeffs.length);
+        senses[nRows] = sense;
+        rhs[nRows] = -expr.constant;
+        rowNames[nRows] = name;
+        rowStart[++nRows] = nnz + vars.length;
+    }
+
+    public void addGenConstrIndicator(IrVar binVar, int binVal, IrLinExpr expr, char sense, double rhs,
+            String name) {
+        Terms terms = merge(expr);
+        indicators.add(new Indicator(binVar.index, binVal, terms.vars, terms.coeffs, sense, rhs - expr.constant,
+                name));
+    }
+
+    public void addGenConstrAnd(IrVar resVar, IrVar[] vars, String name) {
+        int[] indices = new int[vars.length];
+        for (int i = 0; i < vars.length; i++) {
+            indices[i] = vars[i].index;
+        }
+        ands.add(new And(resVar.index, indices, name));
+    }
+
+    public void setObjective(IrLinExpr expr) {
+        setObjective(expr, MINIMIZE);
+    }
+
+    // Replaces the objective coefficients of all variables
+    public void setObjective(IrLinExpr expr, int sense) {
+        Terms terms = merge(expr);
+        Arrays.fill(obj, 0, nVars, 0.0);
+        for (int k = 0; k < terms.vars.length; k++) {
+            obj[terms.vars[k]] = terms.coeffs[k];
+        }
+        objConstant = expr.constant;
+        objSense = sense;
+    }
+
+    // Terms of an expression with duplicate variables merged (in order of first
+    // appearance) and the ones whose coefficients cancel out removed
+    private record Terms(int[] vars, double[] coeffs) {
+    }
+
+    private Terms merge(IrLinExpr expr) {
+        int[] vars = new int[expr.size];
+        double[] coeffs = new double[expr.size];
+        int n = 0;
+        for (int i = 0; i < expr.size; i++) {
+            int v = expr.vars[i].index;
+            if (position[v] == -1) {
+                position[v] = n;
+                vars[n++] = v;
+            }
+            coeffs[position[v]] += expr.coeffs[i];
+        }
+        int kept = 0;
+        for (int k = 0; k < n; k++) {
+            position[vars[k]] = -1;
+            if (coeffs[k] != 0.0) {
+                vars[kept] = vars[k];
+                coeffs[kept++] = coeffs[k];
+            }
+        }
+        return new Terms(Arrays.copyOf(vars, kept), Arrays.copyOf(coeffs, kept));
+    }
+
+    // Solution values, one per variable (set by a backend after solving)
+    public void setSolution(double[] values) {
+        if (values.length != nVars)
+            throw new IllegalArgumentException("Expected " + nVars + " values, got " + values.length);
+        this.solution = values;
+    }
+
+    // Sizes
+
+    public int numVars() {
+        return nVars;
+    }
+
+    public int numVars(char type) {
+        int count = 0;
+        for (int i = 0; i < nVars; i++) {
+            if (types[i] == type)
+                count++;
+        }
+        return count;
+    }
+
+    public int numConstrs() {
+        return nRows;
+    }
+
+    public int numNonZeros() {
+        return rowStart[nRows];
+    }
+
+    public int numIndicators() {
+        return indicators.size();
+    }
+
+    public int numAnds() {
+        return ands.size();
+    }
+}
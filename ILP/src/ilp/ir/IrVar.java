@@ -0,0 +1,53 @@
+package ilp.ir;
+
+// Handle of a column of an IrModel
+public final class IrVar {
+    final IrModel model;
+    final int index;
+
+    IrVar(IrModel model, int index) {
+        this.model = model;
+        this.index = index;
+    }
+
+    public int index() {
+        return index;
+    }
+
+    public String name() {
+        return model.varNames[index];
+    }
+
+    public char type() {
+        return model.types[index];
+    }
+
+    public double lb() {
+        return model.lb[index];
+    }
+
+    public double ub() {
+        return model.ub[index];
+    }
+
+    // MIP start value (NaN = not set)
+    public double start() {
+        return model.start[index];
+    }
+
+    public void setStart(double value) {
+        model.start[index] = value;
+    }
+
+    // Value in the solution read back from a backend
+    public double value() {
+        if (model.solution == null)
+            throw new IllegalStateException("Model has no solution");
+        return model.solution[index];
+    }
+
+    @Override
+    public String toString() {
+        return name();
+    }
+}
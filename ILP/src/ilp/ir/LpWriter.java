@@ -0,0 +1,145 @@
+package ilp.ir;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/*
+ * Writes an IrModel in LP format as Gurobi reads it: indicator constraints use
+ * the "b = 1 -> ..." syntax, and AND constraints go to the General Constraints
+ * section.
+ */
+public final class LpWriter {
+    private static final int TERMS_PER_LINE = 8;
+
+    private LpWriter() {
+    }
+
+    public static void write(IrModel m, Path file) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            write(m, out);
+        }
+    }
+
+    public static void write(IrModel m, Writer out) throws IOException {
+        String[] vars = Format.names(m.varNames, m.nVars, "x");
+        String[] rows = Format.constraintNames(m);
+
+        out.write("\\ " + m.nVars + " variables, " + m.nRows + " constraints, " + m.indicators.size()
+                + " indicators, " + m.ands.size() + " and constraints\n");
+
+        out.write(m.objSense == IrModel.MAXIMIZE ? "Maximize\n" : "Minimize\n");
+        StringBuilder obj = new StringBuilder(" obj:");
+        int terms = 0;
+        for (int j = 0; j < m.nVars; j++) {
+            if (m.obj[j] != 0.0)
+                appendTerm(obj, m.obj[j], vars[j], terms++);
+        }
+        if (m.objConstant != 0.0)
+            obj.append(m.objConstant < 0 ? " - " : " + ").append(Format.number(Math.abs(m.objConstant)));
+        out.write(obj.append('\n').toString());
+
+        out.write("Subject To\n");
+        for (int r = 0; r < m.nRows; r++) {
+            StringBuilder line = new StringBuilder(" ").append(rows[r]).append(":");
+            int n = 0;
+            for (int k = m.rowStart[r]; k < m.rowStart[r + 1]; k++) {
+                appendTerm(line, m.rowCoeffs[k], vars[m.rowVars[k]], n++);
+            }
+            appendEmpty(line, n, vars);
+            line.append(' ').append(sense(m.senses[r])).append(' ').append(Format.number(m.rhs[r]));
+            out.write(line.append('\n').toString());
+        }
+
+        for (int i = 0; i < m.indicators.size(); i++) {
+            IrModel.Indicator ind = m.indicators.get(i);
+            StringBuilder line = new StringBuilder(" ").append(rows[m.nRows + i]).append(": ")
+                    .append(vars[ind.binVar()]).append(" = ").append(ind.binVal()).append(" ->");
+            for (int k = 0; k < ind.vars().length; k++) {
+                appendTerm(line, ind.coeffs()[k], vars[ind.vars()[k]], k);
+            }
+            appendEmpty(line, ind.vars().length, vars);
+            line.append(' ').append(sense(ind.sense())).append(' ').append(Format.number(ind.rhs()));
+            out.write(line.append('\n').toString());
+        }
+
+        out.write("Bounds\n");
+        for (int j = 0; j < m.nVars; j++) {
+            if (m.types[j] == IrModel.BINARY && m.lb[j] == 0.0 && m.ub[j] == 1.0)
+                continue;
+            if (m.lb[j] <= -IrModel.INFINITY && m.ub[j] >= IrModel.INFINITY) {
+                out.write(" " + vars[j] + " free\n");
+            } else {
+                out.write(" " + bound(m.lb[j]) + " <= " + vars[j] + " <= " + bound(m.ub[j]) + "\n");
+            }
+        }
+
+        writeSection(out, "Binaries", m, vars, IrModel.BINARY);
+        writeSection(out, "Generals", m, vars, IrModel.INTEGER);
+
+        if (!m.ands.isEmpty()) {
+            out.write("General Constraints\n");
+            int offset = m.nRows + m.indicators.size();
+            for (int i = 0; i < m.ands.size(); i++) {
+                IrModel.And and = m.ands.get(i);
+                StringBuilder line = new StringBuilder(" ").append(rows[offset + i]).append(": ")
+                        .append(vars[and.resVar()]).append(" = AND (");
+                for (int k = 0; k < and.vars().length; k++) {
+                    line.append(k == 0 ? " " : " , ").append(vars[and.vars()[k]]);
+                }
+                out.write(line.append(" )\n").toString());
+            }
+        }
+
+        out.write("End\n");
+        out.flush();
+    }
+
+    private static void appendTerm(StringBuilder line, double coeff, String var, int n) {
+        if (n > 0 && n % TERMS_PER_LINE == 0)
+            line.append("\n  ");
+        line.append(coeff < 0 ? " - " : (n == 0 ? " " : " + ")).append(Format.number(Math.abs(coeff)))
+                .append(' ').append(var);
+    }
+
+    // A constraint needs at least one term
+    private static void appendEmpty(StringBuilder line, int n, String[] vars) {
+        if (n == 0 && vars.length > 0)
+            line.append(" 0 ").append(vars[0]);
+    }
+
+    private static void writeSection(Writer out, String title, IrModel m, String[] vars, char type)
+            throws IOException {
+        StringBuilder section = new StringBuilder();
+        int n = 0;
+        for (int j = 0; j < m.nVars; j++) {
+            if (m.types[j] == type) {
+                section.append(n > 0 && n % TERMS_PER_LINE == 0 ? "\n " : " ").append(vars[j]);
+                n++;
+            }
+        }
+        if (n > 0)
+            out.write(title + "\n" + section + "\n");
+    }
+
+    private static String sense(char sense) {
+        switch (sense) {
+            case IrModel.LESS_EQUAL:
+                return "<=";
+            case IrModel.GREATER_EQUAL:
+                return ">=";
+            default:
+                return "=";
+        }
+    }
+
+    private static String bound(double b) {
+        if (b <= -IrModel.INFINITY)
+            return "-inf";
+        if (b >= IrModel.INFINITY)
+            return "+inf";
+        return Format.number(b);
+    }
+}
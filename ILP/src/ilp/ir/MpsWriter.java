@@ -0,0 +1,170 @@
+package ilp.ir;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Writes an IrModel in free MPS format. Indicator constraints are rows that are
+ * listed in the INDICATORS section (as read by Gurobi and CPLEX). MPS has no AND
+ * constraints, so r = AND(x1..xn) is written as its exact linearisation for
+ * binaries: r <= xi for every i, and r >= x1 + ... + xn - (n - 1).
+ */
+public final class MpsWriter {
+
+    private MpsWriter() {
+    }
+
+    private record Row(String name, char sense, int[] vars, double[] coeffs, double rhs) {
+    }
+
+    public static void write(IrModel m, Path file) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            write(m, out);
+        }
+    }
+
+    public static void write(IrModel m, Writer out) throws IOException {
+        String[] vars = Format.names(m.varNames, m.nVars, "x");
+
+        // All rows: linear constraints, indicator rows, linearised AND constraints
+        List<Row> rows = new ArrayList<>();
+        for (int r = 0; r < m.nRows; r++) {
+            int from = m.rowStart[r], to = m.rowStart[r + 1];
+            int[] rowVars = new int[to - from];
+            double[] rowCoeffs = new double[to - from];
+            System.arraycopy(m.rowVars, from, rowVars, 0, to - from);
+            System.arraycopy(m.rowCoeffs, from, rowCoeffs, 0, to - from);
+            rows.add(new Row(m.rowNames[r], m.senses[r], rowVars, rowCoeffs, m.rhs[r]));
+        }
+        for (IrModel.Indicator ind : m.indicators) {
+            rows.add(new Row(ind.name(), ind.sense(), ind.vars(), ind.coeffs(), ind.rhs()));
+        }
+        for (IrModel.And and : m.ands) {
+            int n = and.vars().length;
+            for (int k = 0; k < n; k++) {
+                rows.add(new Row(and.name() + "_le" + k, IrModel.LESS_EQUAL, new int[] { and.resVar(), and.vars()[k] },
+                        new double[] { 1.0, -1.0 }, 0.0));
+            }
+            int[] geVars = new int[n + 1];
+            double[] geCoeffs = new double[n + 1];
+            geVars[0] = and.resVar();
+            geCoeffs[0] = 1.0;
+            for (int k = 0; k < n; k++) {
+                geVars[k + 1] = and.vars()[k];
+                geCoeffs[k + 1] = -1.0;
+            }
+            rows.add(new Row(and.name() + "_ge", IrModel.GREATER_EQUAL, geVars, geCoeffs, 1.0 - n));
+        }
+        String[] rowNames = Format.names(rows.stream().map(Row::name).toArray(String[]::new), rows.size(), "c");
+
+        // Transpose the rows into columns
+        int[] count = new int[m.nVars];
+        for (Row row : rows) {
+            for (int v : row.vars) {
+                count[v]++;
+            }
+        }
+        int[][] colRows = new int[m.nVars][];
+        double[][] colCoeffs = new double[m.nVars][];
+        for (int j = 0; j < m.nVars; j++) {
+            colRows[j] = new int[count[j]];
+            colCoeffs[j] = new double[count[j]];
+            count[j] = 0;
+        }
+        for (int r = 0; r < rows.size(); r++) {
+            Row row = rows.get(r);
+            for (int k = 0; k < row.vars.length; k++) {
+                int v = row.vars[k];
+                colRows[v][count[v]] = r;
+                colCoeffs[v][count[v]++] = row.coeffs[k];
+            }
+        }
+
+        out.write("NAME model\n");
+        if (m.objSense == IrModel.MAXIMIZE)
+            out.write("OBJSENSE\n    MAX\n");
+
+        out.write("ROWS\n N  OBJ\n");
+        for (int r = 0; r < rows.size(); r++) {
+            out.write(" " + rowType(rows.get(r).sense) + "  " + rowNames[r] + "\n");
+        }
+
+        out.write("COLUMNS\n");
+        boolean integer = false;
+        int markers = 0;
+        for (int j = 0; j < m.nVars; j++) {
+            boolean isInteger = m.types[j] != IrModel.CONTINUOUS;
+            if (isInteger != integer) {
+                out.write("    MARKER" + markers++ + " 'MARKER' " + (isInteger ? "'INTORG'" : "'INTEND'") + "\n");
+                integer = isInteger;
+            }
+            if (m.obj[j] != 0.0 || colRows[j].length == 0)
+                out.write("    " + vars[j] + " OBJ " + Format.number(m.obj[j]) + "\n");
+            for (int k = 0; k < colRows[j].length; k++) {
+                out.write("    " + vars[j] + " " + rowNames[colRows[j][k]] + " " + Format.number(colCoeffs[j][k])
+                        + "\n");
+            }
+        }
+        if (integer)
+            out.write("    MARKER" + markers + " 'MARKER' 'INTEND'\n");
+
+        out.write("RHS\n");
+        if (m.objConstant != 0.0)
+            out.write("    RHS OBJ " + Format.number(-m.objConstant) + "\n");
+        for (int r = 0; r < rows.size(); r++) {
+            if (rows.get(r).rhs != 0.0)
+                out.write("    RHS " + rowNames[r] + " " + Format.number(rows.get(r).rhs) + "\n");
+        }
+
+        out.write("BOUNDS\n");
+        for (int j = 0; j < m.nVars; j++) {
+            if (m.types[j] == IrModel.BINARY && m.lb[j] == 0.0 && m.ub[j] == 1.0) {
+                out.write(" BV BND " + vars[j] + "\n");
+                continue;
+            }
+            if (m.lb[j] <= -IrModel.INFINITY && m.ub[j] >= IrModel.INFINITY) {
+                out.write(" FR BND " + vars[j] + "\n");
+                continue;
+            }
+            if (m.lb[j] == m.ub[j]) {
+                out.write(" FX BND " + vars[j] + " " + Format.number(m.lb[j]) + "\n");
+                continue;
+            }
+            if (m.lb[j] <= -IrModel.INFINITY)
+                out.write(" MI BND " + vars[j] + "\n");
+            else
+                out.write(" LO BND " + vars[j] + " " + Format.number(m.lb[j]) + "\n");
+            if (m.ub[j] >= IrModel.INFINITY)
+                out.write(" PL BND " + vars[j] + "\n");
+            else
+                out.write(" UP BND " + vars[j] + " " + Format.number(m.ub[j]) + "\n");
+        }
+
+        if (!m.indicators.isEmpty()) {
+            out.write("INDICATORS\n");
+            for (int i = 0; i < m.indicators.size(); i++) {
+                IrModel.Indicator ind = m.indicators.get(i);
+                out.write(" IF " + rowNames[m.nRows + i] + " " + vars[ind.binVar()] + " " + ind.binVal() + "\n");
+            }
+        }
+
+        out.write("ENDATA\n");
+        out.flush();
+    }
+
+    private static char rowType(char sense) {
+        switch (sense) {
+            case IrModel.LESS_EQUAL:
+                return 'L';
+            case IrModel.GREATER_EQUAL:
+                return 'G';
+            default:
+                return 'E';
+        }
+    }
+}
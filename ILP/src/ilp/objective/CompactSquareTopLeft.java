@@ -1,18 +1,16 @@
 package ilp.objective;
 
-import com.gurobi.gurobi.GRB;
-import com.gurobi.gurobi.GRBException;
-import com.gurobi.gurobi.GRBLinExpr;
-
 import ilp.ModelContext;
+import ilp.ir.IrLinExpr;
+import ilp.ir.IrModel;
 import ilp.variables.VarsRectangles;
 
 public class CompactSquareTopLeft implements ObjectiveModule {
 
     @Override
-    public void apply(ModelContext ctx) throws GRBException {
+    public void apply(ModelContext ctx) {
         if ((ctx.v instanceof VarsRectangles v)) { // only use this objective function for rectangle solutions
-            GRBLinExpr MINIMIZE_ME = new GRBLinExpr();
+            IrLinExpr MINIMIZE_ME = new IrLinExpr();
             MINIMIZE_ME.addTerm(1.0, v.diff);
             MINIMIZE_ME.addTerm(2.0, v.maxHeight);
             MINIMIZE_ME.addTerm(2.0, v.maxWidth);
@@ -26,11 +24,12 @@ public class CompactSquareTopLeft implements ObjectiveModule {
 
             // Favor top left
             for (int i = 0; i < ctx.statementIds.size(); i++) {
-                MINIMIZE_ME.addTerm(0.5, v.statementCoordinates[i][0]);
-                MINIMIZE_ME.addTerm(0.5, v.statementCoordinates[i][1]);
+                // (once per cell for statements taking several cells)
+                MINIMIZE_ME.addTerm(0.5 * ctx.statementWeight[i], v.statementCoordinates[i][0]);
+                MINIMIZE_ME.addTerm(0.5 * ctx.statementWeight[i], v.statementCoordinates[i][1]);
             }
 
-            ctx.model.setObjective(MINIMIZE_ME, GRB.MINIMIZE);
+            ctx.model.setObjective(MINIMIZE_ME, IrModel.MINIMIZE);
         }
     }
 }
@@ -1,8 +1,7 @@
 package ilp.objective;
-import com.gurobi.gurobi.GRBException;
 import ilp.ModelContext;
 
 public interface ObjectiveModule {
-  void apply(ModelContext ctx) throws GRBException;
+  void apply(ModelContext ctx);
 }
 
@@ -0,0 +1,135 @@
+package ilp.solvers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import model.PolygonSolution;
+import model.RectangleSolution;
+import model.Solution;
+import model.StatementEntityInstance;
+
+/*
+ * Statements that belong to exactly the same entities form a class. Every class
+ * of k >= 2 statements is replaced by super-statements of weight k (at most one
+ * grid row wide each), which take a run of k cells in one row; the model
+ * (ModelContext.statementWeight) then has one set of statement variables and
+ * pairwise rows per super-statement instead of per statement.
+ *
+ * Only layouts in which the statements of a class sit next to each other in a
+ * row can be found this way, so the compressed model may be infeasible, or its
+ * optimum worse, where the full model is not.
+ */
+public class ClassCompression {
+
+    // Instance with the super-statements, and the weight of every super-statement
+    // (ID of its first statement -> number of statements)
+    public final StatementEntityInstance reduced;
+    public final Map<Integer, Integer> weights;
+
+    // Super-statement ID -> IDs of its statements
+    private final Map<Integer, List<Integer>> members;
+
+    private ClassCompression(StatementEntityInstance reduced, Map<Integer, Integer> weights,
+            Map<Integer, List<Integer>> members) {
+        this.reduced = reduced;
+        this.weights = weights;
+        this.members = members;
+    }
+
+    /**
+     * Compression of inst for a grid with rows of the given width.
+     *
+     * @return null if no class has more than one statement
+     */
+    public static ClassCompression of(StatementEntityInstance inst, int width) {
+        // Entities of every statement
+        Map<Integer, TreeSet<Integer>> memberOf = new HashMap<>();
+        for (int statementId : inst.statements.keySet())
+            memberOf.put(statementId, new TreeSet<>());
+        for (Map.Entry<Integer, int[]> entry : inst.entityIndToStatements.entrySet()) {
+            for (int statementId : entry.getValue())
+                memberOf.get(statementId).add(entry.getKey());
+        }
+
+        LinkedHashMap<TreeSet<Integer>, List<Integer>> classes = new LinkedHashMap<>();
+        for (int statementId : inst.statements.keySet())
+            classes.computeIfAbsent(memberOf.get(statementId), k -> new ArrayList<>()).add(statementId);
+        if (classes.values().stream().allMatch(c -> c.size() < 2))
+            return null;
+
+        // Split every class into runs that fit in a row
+        HashMap<Integer, String> statements = new HashMap<>();
+        Map<Integer, Integer> weights = new HashMap<>();
+        Map<Integer, List<Integer>> members = new HashMap<>();
+        Map<Integer, Integer> superOf = new HashMap<>();
+        for (List<Integer> statementClass : classes.values()) {
+            for (int from = 0; from < statementClass.size(); from += width) {
+                List<Integer> run = statementClass.subList(from, Math.min(from + width, statementClass.size()));
+                int superId = run.get(0);
+                statements.put(superId, inst.statements.get(superId));
+                members.put(superId, run);
+                if (run.size() > 1)
+                    weights.put(superId, run.size());
+                for (int statementId : run)
+                    superOf.put(statementId, superId);
+            }
+        }
+
+        HashMap<Integer, int[]> entityStatements = new HashMap<>();
+        for (Map.Entry<Integer, int[]> entry : inst.entityIndToStatements.entrySet()) {
+            entityStatements.put(entry.getKey(), Arrays.stream(entry.getValue())
+                    .map(superOf::get).distinct().toArray());
+        }
+
+        StatementEntityInstance reduced = new StatementEntityInstance(new HashMap<>(inst.entities), statements,
+                entityStatements);
+        return new ClassCompression(reduced, weights, members);
+    }
+
+    /**
+     * Solution of the full instance inst from a solution of the reduced instance:
+     * the statements of every super-statement are put on the cells of its run,
+     * the entities stay where they are.
+     */
+    public Solution expand(Solution sol, StatementEntityInstance inst) throws Exception {
+        int[][] reducedCoordinates;
+        if (sol instanceof RectangleSolution r) {
+            reducedCoordinates = r.statementCoordinates;
+        } else if (sol instanceof PolygonSolution p) {
+            reducedCoordinates = p.statementCoordinates;
+        } else {
+            throw new Exception("Unknown solution type");
+        }
+
+        // Cell of every statement, by ID
+        List<Integer> superIds = new ArrayList<>(reduced.statements.keySet());
+        Map<Integer, int[]> cellOf = new HashMap<>();
+        for (int i = 0; i < superIds.size(); i++) {
+            List<Integer> run = members.get(superIds.get(i));
+            for (int k = 0; k < run.size(); k++)
+                cellOf.put(run.get(k), new int[] { reducedCoordinates[i][0] + k, reducedCoordinates[i][1] });
+        }
+
+        // In the statement order of a model of the full instance
+        List<Integer> statementIds = new ArrayList<>(inst.statements.keySet());
+        int[][] statementCoordinates = new int[statementIds.size()][];
+        for (int i = 0; i < statementIds.size(); i++)
+            statementCoordinates[i] = cellOf.get(statementIds.get(i));
+
+        Solution expanded;
+        if (sol instanceof RectangleSolution r) {
+            expanded = new RectangleSolution(inst, r.w, r.h, r.getEntityIds(), r.entityCoordinates,
+                    statementCoordinates);
+        } else {
+            PolygonSolution p = (PolygonSolution) sol;
+            expanded = new PolygonSolution(inst, p.w, p.h, p.getEntityIds(), p.entities, statementCoordinates);
+        }
+        expanded.setMipGap(sol.getMipGap());
+        return expanded;
+    }
+}
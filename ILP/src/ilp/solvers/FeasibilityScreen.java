@@ -0,0 +1,96 @@
+package ilp.solvers;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import ilp.constraints.C1StatementsDistinctCoordinates;
+import ilp.constraints.ConstraintModule;
+import ilp.constraints.G1CellAssignment;
+import ilp.constraints.G3MembersInsideEntities;
+import ilp.constraints.G4NonMembersOutsideEntities;
+import ilp.constraints.H1StatementsInsideEntities;
+import ilp.constraints.H2OutsideNonMembers;
+import model.StatementEntityInstance;
+
+/*
+ * Combinatorial checks that prove an instance infeasible before a model is built.
+ * Every rule only uses the incidence structure and the grid size L = d+1, and
+ * only fires when the constraint set actually enforces what the rule assumes.
+ *
+ * - capacity: the statements need distinct cells, so S <= L^2.
+ * - rectangle-waste (rectangles with H1, H2 and C1, or cells with G3, G4 and
+ *   G1): the rectangle of an entity
+ *   with k statements has at least minArea(k) = min{w*h : w, h <= L, w*h >= k}
+ *   cells. It contains no other statements, so minArea(k) - k cells are empty
+ *   and S + minArea(k) - k <= L^2 must hold for every entity. Empty cells of
+ *   different entities can coincide, so the waste is not summed.
+ *
+ * Polygons can be shaped to cover exactly their statements, so only the
+ * capacity rule applies to them.
+ */
+public final class FeasibilityScreen {
+    public static final String CAPACITY = "capacity";
+    public static final String RECTANGLE_WASTE = "rectangle-waste";
+
+    private final boolean wasteRule;
+
+    public FeasibilityScreen(int solutionType, List<ConstraintModule> constraints) {
+        boolean inside = false, outside = false, distinct = false;
+        for (ConstraintModule c : constraints) {
+            inside |= c instanceof H1StatementsInsideEntities || c instanceof G3MembersInsideEntities;
+            outside |= c instanceof H2OutsideNonMembers || c instanceof G4NonMembersOutsideEntities;
+            distinct |= c instanceof C1StatementsDistinctCoordinates || c instanceof G1CellAssignment;
+        }
+        this.wasteRule = solutionType != 1 && inside && outside && distinct;
+    }
+
+    // Name of the rule that proves inst infeasible on the grid of the given
+    // dimensions, null if no rule applies
+    public String check(StatementEntityInstance inst, int dimensions) {
+        int side = dimensions + 1;
+        int nStatements = inst.statements.size();
+        int cells = side * side;
+        if (nStatements > cells)
+            return CAPACITY;
+
+        if (wasteRule) {
+            int maxWaste = 0;
+            for (Integer entity : inst.entities.keySet()) {
+                int k = members(inst, entity);
+                if (k > 0)
+                    maxWaste = Math.max(maxWaste, minArea(k, side) - k);
+            }
+            if (nStatements + maxWaste > cells)
+                return RECTANGLE_WASTE;
+        }
+
+        return null;
+    }
+
+    // Number of statements of the instance contained in the entity
+    private static int members(StatementEntityInstance inst, int entity) {
+        int[] statements = inst.entityIndToStatements.get(entity);
+        if (statements == null)
+            return 0;
+
+        Set<Integer> distinct = new HashSet<>();
+        for (int st : statements) {
+            if (inst.statements.containsKey(st))
+                distinct.add(st);
+        }
+        return distinct.size();
+    }
+
+    // Smallest area of a rectangle of at most side x side cells with at least k
+    // cells (k <= side^2)
+    static int minArea(int k, int side) {
+        int best = Integer.MAX_VALUE;
+        for (int w = 1; w <= side; w++) {
+            int h = (k + w - 1) / w;
+            if (h <= side)
+                best = Math.min(best, w * h);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,72 @@
+package ilp.solvers;
+
+import org.json.JSONObject;
+
+import ilp.IncumbentCallback;
+
+/*
+ * Time to first incumbent of all solves, split by whether a MIP start was given
+ * ("start") or not ("cold"). A start counts as accepted when the first
+ * incumbent has the statement positions of the start.
+ *
+ * Within one run every model gets a start or none does (--mipStart), so one of
+ * the two is empty; to compare them, run the corpus once with --mipStart true
+ * and once with --mipStart false and compare the manifests. Empty modes are
+ * left out of the report.
+ */
+public class IncumbentStats {
+    private static final int COLD = 0;
+    private static final int START = 1;
+
+    private final int[] solves = new int[2];
+    private final int[] withIncumbent = new int[2];
+    private final int[] accepted = new int[2];
+    private final double[] timeToFirst = new double[2];
+
+    public synchronized void record(boolean withStart, IncumbentCallback cb) {
+        int mode = withStart ? START : COLD;
+        solves[mode]++;
+        if (cb.timeToFirst >= 0) {
+            withIncumbent[mode]++;
+            timeToFirst[mode] += cb.timeToFirst;
+        }
+        if (cb.firstIsStart)
+            accepted[mode]++;
+    }
+
+    public synchronized JSONObject toJson() {
+        JSONObject obj = new JSONObject();
+        if (solves[COLD] > 0)
+            obj.put("cold", toJson(COLD));
+        if (solves[START] > 0)
+            obj.put("start", toJson(START));
+        return obj;
+    }
+
+    private JSONObject toJson(int mode) {
+        JSONObject obj = new JSONObject();
+        obj.put("solves", solves[mode]);
+        obj.put("withIncumbent", withIncumbent[mode]);
+        if (mode == START)
+            obj.put("accepted", accepted[mode]);
+        obj.put("meanTimeToFirst", withIncumbent[mode] == 0 ? 0.0 : timeToFirst[mode] / withIncumbent[mode]);
+        return obj;
+    }
+
+    // Empty if nothing was solved
+    @Override
+    public synchronized String toString() {
+        StringBuilder sb = new StringBuilder();
+        if (solves[START] > 0) {
+            sb.append("MIP start: " + accepted[START] + "/" + solves[START]
+                    + " accepted, mean time to first incumbent " + toJson(START).getDouble("meanTimeToFirst") + " s");
+        }
+        if (solves[COLD] > 0) {
+            if (sb.length() > 0)
+                sb.append("; ");
+            sb.append("without MIP start: mean time to first incumbent " + toJson(COLD).getDouble("meanTimeToFirst")
+                    + " s over " + solves[COLD] + " solves");
+        }
+        return sb.toString();
+    }
+}
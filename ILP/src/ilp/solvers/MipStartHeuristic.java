@@ -0,0 +1,90 @@
+package ilp.solvers;
+
+import heuristic.ConstructiveLayout;
+import heuristic.Layout;
+import heuristic.LayoutModel;
+import ilp.ModelContext;
+import ilp.variables.VarsCells;
+import ilp.variables.VarsPolygons;
+import ilp.variables.VarsRectangles;
+import model.StatementEntityInstance;
+
+/*
+ * Constructive layout (see heuristic.ConstructiveLayout) used as a MIP start.
+ *
+ * If the layout violates nothing, a complete start is written. Otherwise only the
+ * statement positions are set, and Gurobi tries to complete the partial start.
+ */
+public final class MipStartHeuristic {
+
+    private MipStartHeuristic() {
+    }
+
+    public static Layout construct(ModelContext ctx) {
+        return construct(ctx.inst, ctx.dimensions, ctx.gridMin, ctx.v instanceof VarsPolygons);
+    }
+
+    public static Layout construct(StatementEntityInstance inst, int dimensions, int gridMin, boolean polygons) {
+        return new ConstructiveLayout(new LayoutModel(inst, dimensions, gridMin, polygons)).construct();
+    }
+
+    // Write the layout into the start values of the model variables
+    public static void apply(ModelContext ctx, Layout layout) {
+        if (ctx.v instanceof VarsRectangles v) {
+            for (int j = 0; j < layout.statements.length; j++) {
+                v.statementCoordinates[j][0].setStart(layout.statements[j][0]);
+                v.statementCoordinates[j][1].setStart(layout.statements[j][1]);
+                if (v instanceof VarsCells cells) {
+                    int start = cells.cell(layout.statements[j][0], layout.statements[j][1]);
+                    for (int c = 0; c < cells.statementCells[j].length; c++) {
+                        cells.statementCells[j][c].setStart(c == start ? 1 : 0);
+                    }
+                }
+            }
+            if (!layout.isComplete())
+                return;
+
+            for (int i = 0; i < layout.rectangles.length; i++) {
+                if (layout.rectangles[i] == null)
+                    continue; // entity without statements
+                for (int k = 0; k < 4; k++) {
+                    v.entityCoordinates[i][k].setStart(layout.rectangles[i][k]);
+                }
+                if (v instanceof VarsCells cells) {
+                    int[] r = layout.rectangles[i];
+                    for (int k = 0; k < cells.side; k++) {
+                        int coord = cells.lowerBound + k;
+                        cells.columnStart[i][k].setStart(coord == r[0] ? 1 : 0);
+                        cells.columnEnd[i][k].setStart(coord == r[2] ? 1 : 0);
+                        cells.rowStart[i][k].setStart(coord == r[1] ? 1 : 0);
+                        cells.rowEnd[i][k].setStart(coord == r[3] ? 1 : 0);
+                        cells.inColumn[i][k].setStart(r[0] <= coord && coord <= r[2] ? 1 : 0);
+                        cells.inRow[i][k].setStart(r[1] <= coord && coord <= r[3] ? 1 : 0);
+                    }
+                }
+            }
+        } else if (ctx.v instanceof VarsPolygons v) {
+            for (int j = 0; j < layout.statements.length; j++) {
+                v.statementCoordinates[j][0].setStart(layout.statements[j][0]);
+                v.statementCoordinates[j][1].setStart(layout.statements[j][1]);
+                for (int r = 0; r <= ctx.dimensions; r++) {
+                    v.statementIsOnRow[j][r].setStart(layout.statements[j][1] == r ? 1 : 0);
+                }
+            }
+            if (!layout.isComplete())
+                return;
+
+            for (int i = 0; i < layout.rows.length; i++) {
+                if (layout.rows[i] == null)
+                    continue; // entity without statements
+                for (int r = 0; r <= ctx.dimensions; r++) {
+                    int[] row = layout.rows[i][r];
+                    v.entities[i].activeRows[r].setStart(row[0]);
+                    v.entities[i].rowBounds[r][0].setStart(row[1]);
+                    v.entities[i].rowBounds[r][1].setStart(row[2]);
+                    v.entities[i].rowSpans[r].setStart(row[0] == 1 ? row[2] - row[1] + 1 : 0);
+                }
+            }
+        }
+    }
+}
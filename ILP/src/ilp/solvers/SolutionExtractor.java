@@ -1,8 +1,5 @@
 package ilp.solvers;
 
-import com.gurobi.gurobi.GRB;
-import com.gurobi.gurobi.GRBException;
-
 import ilp.ModelContext;
 import ilp.variables.VarsPolygons;
 import ilp.variables.VarsRectangles;
@@ -12,27 +9,27 @@ import model.Solution;
 
 public class SolutionExtractor {
     
-    public static Solution extractRectangleSolution(ModelContext ctx) throws Exception, GRBException {
+    public static Solution extractRectangleSolution(ModelContext ctx) throws Exception {
         if ((ctx.v instanceof VarsRectangles v)) { // only extracts rectangle solutions
             int nEntities = ctx.entityIds.size();
             int nStatements = ctx.statementIds.size();
             // Extract solution
-            int w = (int) v.maxWidth.get(GRB.DoubleAttr.X);
-            int h = (int) v.maxHeight.get(GRB.DoubleAttr.X);
+            int w = (int) v.maxWidth.value();
+            int h = (int) v.maxHeight.value();
 
             int[][] entityCoordinates = new int[nEntities][4];
             int[][] statementCoordinates = new int[nStatements][2];
 
             for (int i = 0; i < nEntities; i++) {
-                entityCoordinates[i][0] = (int) v.entityCoordinates[i][0].get(GRB.DoubleAttr.X);
-                entityCoordinates[i][1] = (int) v.entityCoordinates[i][1].get(GRB.DoubleAttr.X);
-                entityCoordinates[i][2] = (int) v.entityCoordinates[i][2].get(GRB.DoubleAttr.X);
-                entityCoordinates[i][3] = (int) v.entityCoordinates[i][3].get(GRB.DoubleAttr.X);
+                entityCoordinates[i][0] = (int) v.entityCoordinates[i][0].value();
+                entityCoordinates[i][1] = (int) v.entityCoordinates[i][1].value();
+                entityCoordinates[i][2] = (int) v.entityCoordinates[i][2].value();
+                entityCoordinates[i][3] = (int) v.entityCoordinates[i][3].value();
             }
 
             for (int i = 0; i < nStatements; i++) {
-                statementCoordinates[i][0] = (int) v.statementCoordinates[i][0].get(GRB.DoubleAttr.X);
-                statementCoordinates[i][1] = (int) v.statementCoordinates[i][1].get(GRB.DoubleAttr.X);
+                statementCoordinates[i][0] = (int) v.statementCoordinates[i][0].value();
+                statementCoordinates[i][1] = (int) v.statementCoordinates[i][1].value();
             }
 
             // Add solution to global list of solutions
@@ -45,13 +42,13 @@ public class SolutionExtractor {
         }
     }
 
-    public static Solution extractPolygonSolution(ModelContext ctx) throws Exception, GRBException {
+    public static Solution extractPolygonSolution(ModelContext ctx) throws Exception {
         if ((ctx.v instanceof VarsPolygons v)) { // only extracts rectangle solutions
             int nEntities = ctx.entityIds.size();
             int nStatements = ctx.statementIds.size();
             // Extract solution
-            int w = (int) v.maxWidth.get(GRB.DoubleAttr.X);
-            int h = (int) v.maxHeight.get(GRB.DoubleAttr.X);
+            int w = (int) v.maxWidth.value();
+            int h = (int) v.maxHeight.value();
 
             int[][] statementCoordinates = new int[nStatements][2];
 
@@ -63,15 +60,15 @@ public class SolutionExtractor {
 
             for (int i = 0; i < nEntities; i++) {
                 for (int j = 0; j <= ctx.dimensions; j++) {
-                    entities[i][j][0] = (int) v.entities[i].activeRows[j].get(GRB.DoubleAttr.X);
-                    entities[i][j][1] = (int) v.entities[i].rowBounds[j][0].get(GRB.DoubleAttr.X);
-                    entities[i][j][2] = (int) v.entities[i].rowBounds[j][1].get(GRB.DoubleAttr.X);
+                    entities[i][j][0] = (int) v.entities[i].activeRows[j].value();
+                    entities[i][j][1] = (int) v.entities[i].rowBounds[j][0].value();
+                    entities[i][j][2] = (int) v.entities[i].rowBounds[j][1].value();
                 }
             }
 
             for (int i = 0; i < nStatements; i++) {
-                statementCoordinates[i][0] = (int) v.statementCoordinates[i][0].get(GRB.DoubleAttr.X);
-                statementCoordinates[i][1] = (int) v.statementCoordinates[i][1].get(GRB.DoubleAttr.X);
+                statementCoordinates[i][0] = (int) v.statementCoordinates[i][0].value();
+                statementCoordinates[i][1] = (int) v.statementCoordinates[i][1].value();
             }
 
             // Add solution to global list of solutions
@@ -13,6 +13,7 @@ import com.gurobi.gurobi.GRBLinExpr;
 import com.gurobi.gurobi.GRBModel;
 import com.gurobi.gurobi.GRBVar;
 
+import ilp.EnvPool;
 import model.PolygonSolution;
 import model.PositionedSolution;
 import model.RectangleSolution;
@@ -23,12 +24,22 @@ public class SolutionPositioner {
     static final int GRID_HEIGHT = 30;
 
     public static PositionedSolution computeCompleteSolution(ArrayList<Solution> components) {
+        return computeCompleteSolution(components, 0);
+    }
+
+    // threads = Gurobi Threads parameter for the placement model (0 = Gurobi
+    // default, i.e. all cores)
+    public static PositionedSolution computeCompleteSolution(ArrayList<Solution> components, int threads) {
         final int nSolutions = components.size();
         int[][] solutionCoordinates = new int[nSolutions][2];
 
+        GRBEnv env = null;
+        GRBModel model = null;
         try {
-            GRBEnv env = new GRBEnv();
-            GRBModel model = new GRBModel(env);
+            env = EnvPool.shared().acquire();
+            model = new GRBModel(env);
+            if (threads > 0)
+                model.set(GRB.IntParam.Threads, threads);
 
             // Variables: component placement
             Map<String, GRBVar> placementVars = new HashMap<>();
@@ -198,11 +209,98 @@ public class SolutionPositioner {
 
         } catch (GRBException e) {
             System.out.println("Error code: " + e.getErrorCode() + ". " + e.getMessage());
+        } catch (LinkageError e) {
+            // No Gurobi native library, place the components without a model
+            System.out.println("Gurobi unavailable (" + e + "), placing components greedily");
+            return greedyPlacement(components);
+        } finally {
+            dispose(env, model);
         }
 
         return null;
     }
 
+    /*
+     * Placement without Gurobi: larger components first, each at the offset that
+     * keeps the bounding box smallest (max(W, H), then W + H), preferring the top
+     * left, without overlapping the cells of components placed before.
+     */
+    static PositionedSolution greedyPlacement(ArrayList<Solution> components) {
+        final int nSolutions = components.size();
+        int[][] solutionCoordinates = new int[nSolutions][2];
+        boolean[][] occupied = new boolean[GRID_WIDTH][GRID_HEIGHT];
+        int W = 0, H = 0;
+
+        List<Integer> order = new ArrayList<>();
+        for (int s = 0; s < nSolutions; s++) {
+            order.add(s);
+        }
+        order.sort((a, b) -> Integer.compare(components.get(b).getCells().size(), components.get(a).getCells().size()));
+
+        for (int s : order) {
+            Solution sol = components.get(s);
+            int bestX = -1, bestY = -1, bestW = 0, bestH = 0;
+            for (int y = 0; y < GRID_HEIGHT; y++) {
+                for (int x = 0; x < GRID_WIDTH; x++) {
+                    if (!fits(sol, x, y) || overlaps(sol, x, y, occupied))
+                        continue;
+
+                    int w = W, h = H;
+                    for (Point p : sol.getCells()) {
+                        w = Math.max(w, x + p.x);
+                        h = Math.max(h, y + p.y);
+                    }
+                    if (bestX == -1 || Math.max(w, h) < Math.max(bestW, bestH)
+                            || (Math.max(w, h) == Math.max(bestW, bestH) && w + h < bestW + bestH)) {
+                        bestX = x;
+                        bestY = y;
+                        bestW = w;
+                        bestH = h;
+                    }
+                }
+            }
+            if (bestX == -1) {
+                System.out.println("Components do not fit in the " + GRID_WIDTH + "x" + GRID_HEIGHT + " grid");
+                return null;
+            }
+
+            for (Point p : sol.getCells()) {
+                occupied[bestX + p.x][bestY + p.y] = true;
+            }
+            solutionCoordinates[s][0] = bestX;
+            solutionCoordinates[s][1] = bestY;
+            W = bestW;
+            H = bestH;
+        }
+
+        // Update component coordinates
+        offsetCoords(components, solutionCoordinates);
+
+        System.out.println("Bounding Box: " + W + " x " + H);
+
+        return new PositionedSolution(components, W, H);
+    }
+
+    private static boolean overlaps(Solution sol, int offsetX, int offsetY, boolean[][] occupied) {
+        for (Point p : sol.getCells()) {
+            if (occupied[offsetX + p.x][offsetY + p.y])
+                return true;
+        }
+        return false;
+    }
+
+    // Dispose the model and hand the environment back to the pool
+    private static void dispose(GRBEnv env, GRBModel model) {
+        try {
+            if (model != null)
+                model.dispose();
+            if (env != null)
+                EnvPool.shared().release(env);
+        } catch (GRBException e) {
+            System.out.println("Error code: " + e.getErrorCode() + ". " + e.getMessage());
+        }
+    }
+
     // Check if a component can be placed in this grid position
     private static boolean fits(Solution sol, int offsetX, int offsetY) {
         for (Point p : sol.getCells()) {
@@ -1,12 +1,28 @@
 package ilp.solvers;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 import com.gurobi.gurobi.*;
 
+import heuristic.AnnealingLayout;
+import heuristic.Layout;
+import heuristic.LayoutModel;
+import ilp.IncumbentCallback;
 import ilp.ModelContext;
+import ilp.cache.CachedLayout;
+import ilp.cache.CanonicalForm;
+import ilp.cache.SolveCache;
 import ilp.constraints.*;
+import ilp.ir.GurobiBackend;
+import ilp.ir.IrVar;
 import ilp.objective.*;
+import ilp.variables.VarsPolygons;
+import ilp.variables.VarsRectangles;
+import model.PolygonSolution;
+import model.RectangleSolution;
 import model.Solution;
 import model.StatementEntityInstance;
 
@@ -24,11 +40,69 @@ public class StatementEntitySolver {
 
     private final ObjectiveModule objective;
 
+    // Optional cache of solve results (null = always solve)
+    private SolveCache cache;
+
+    // Combinatorial pre-check, and how often each of its rules rejected an instance
+    private final FeasibilityScreen screen;
+    private final Map<String, Integer> screenedOut = new ConcurrentHashMap<>();
+
+    // Seed every model with a constructive layout (MipStartHeuristic), off by
+    // default; the time to first incumbent with and without it
+    private boolean mipStart = false;
+    private final IncumbentStats incumbentStats = new IncumbentStats();
+
+    // Grid deepening: if > 0, every instance is first tried on the smallest grid
+    // that can hold its statements, up to a grid of maxDimensions (dimensions is
+    // then not used)
+    private int maxDimensions = 0;
+
+    // Gurobi Threads parameter per model (0 = Gurobi default, i.e. all cores)
+    private int threads = 0;
+
+    // Solve the model with the statement classes compressed into weighted
+    // super-statements (ClassCompression) first, and the full model from its
+    // layout (or from scratch when it finds none)
+    private boolean classCompression = false;
+
+    // Engine that lays out an instance: the ILP model, or simulated annealing
+    // (AnnealingLayout) which needs no Gurobi and gives quick, non-optimal drafts
+    public enum Engine {
+        ILP, ANNEALING
+    }
+
+    private Engine engine = Engine.ILP;
+
+    // Use annealing when a model cannot be solved because Gurobi fails; once the
+    // native library turns out to be missing, Gurobi is not tried again
+    private boolean annealingFallback = true;
+    private volatile boolean gurobiUnavailable = false;
+
+    // Gurobi status of a solved model together with the extracted solution (null
+    // if there is none)
+    private record ModelResult(int status, Solution solution) {
+    }
+
     // Constructor with default constraints and objective (produces rectangle
     // solutions)
     public StatementEntitySolver(int dimensions, int solutionType) {
+        this(dimensions, defaultRectangleConstraints(), new CompactSquareTopLeft(), solutionType);
+    }
+
+    // Constructor that allows you to define your own list of constraints and
+    // objective function
+    public StatementEntitySolver(int dimensions, List<ConstraintModule> constraints, ObjectiveModule objective,
+            int solutionType) {
         this.dimensions = dimensions;
-        this.constraints = List.of(
+        this.constraints = constraints;
+        this.objective = objective;
+        this.solutionType = solutionType;
+        this.screen = new FeasibilityScreen(solutionType, constraints);
+    }
+
+    // Rectangle constraint set used by default
+    public static List<ConstraintModule> defaultRectangleConstraints() {
+        return List.of(
                 new C00NonNegativity(),
                 new C01UpperBound(),
                 new H1StatementsInsideEntities(),
@@ -39,18 +113,59 @@ public class StatementEntitySolver {
                 new H8MaxWidth(),
                 new H9MaxHeight(),
                 new H10Squareness());
-        this.objective = new CompactSquareTopLeft();
-        this.solutionType = solutionType;
     }
 
-    // Constructor that allows you to define your own list of constraints and
-    // objective function
-    public StatementEntitySolver(int dimensions, List<ConstraintModule> constraints, ObjectiveModule objective,
-            int solutionType) {
-        this.dimensions = dimensions;
-        this.constraints = constraints;
-        this.objective = objective;
-        this.solutionType = solutionType;
+    public void setCache(SolveCache cache) {
+        this.cache = cache;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public void setGridDeepening(int maxDimensions) {
+        this.maxDimensions = maxDimensions;
+    }
+
+    // Number of statements the largest grid used can hold, (d+1)^2
+    public int capacity() {
+        int d = maxDimensions > 0 ? maxDimensions : dimensions;
+        return (d + 1) * (d + 1);
+    }
+
+    public void setEngine(Engine engine) {
+        this.engine = engine;
+    }
+
+    public void setAnnealingFallback(boolean annealingFallback) {
+        this.annealingFallback = annealingFallback;
+    }
+
+    public void setMipStart(boolean mipStart) {
+        this.mipStart = mipStart;
+    }
+
+    public void setClassCompression(boolean classCompression) {
+        this.classCompression = classCompression;
+    }
+
+    public IncumbentStats getIncumbentStats() {
+        return incumbentStats;
+    }
+
+    // Number of instances rejected by each rule of the feasibility screen
+    public Map<String, Integer> getScreenedOut() {
+        return screenedOut;
+    }
+
+    // Everything besides the instance that determines the model, used as part of
+    // the cache key
+    private String configKey(int d) {
+        return "d=" + d + ";type=" + solutionType + ";gridMin=" + gridMin + ";maxSizeSum=" + maxSizeSum
+                + ";wTopLeft=" + wTopLeft + ";wMaxExtents=" + wMaxExtents + ";compress=" + classCompression
+                + ";objective=" + objective.getClass().getSimpleName()
+                + ";constraints=" + constraints.stream().map(ConstraintModule::name).collect(Collectors.joining(","))
+                + "|";
     }
 
     /**
@@ -59,60 +174,301 @@ public class StatementEntitySolver {
      * @return Solution if optimal, else null (caller decides to split).
      */
     public Solution solve(StatementEntityInstance inst) throws Exception, GRBException {
-        int maxCells = (dimensions + 1) * (dimensions + 1);
-        if (inst.numberOfStatements > maxCells) {
-            System.out.println("Instance too large");
-            return null;
+        return solve(inst, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Solve with a time limit (in seconds). When the limit is hit, the best
+     * solution found so far is returned; its MIP gap tells how far from optimal
+     * it may be.
+     * 
+     * @return Solution if one was found in time, else null (caller decides to
+     *         split).
+     */
+    public Solution solve(StatementEntityInstance inst, double timeLimit) throws Exception, GRBException {
+        if (maxDimensions <= 0) {
+            return solveAt(inst, dimensions, timeLimit, null).solution;
+        }
+
+        /*
+         * Grid deepening: start with the smallest grid that can hold the statements
+         * and move to the next larger grid when the current one is infeasible or its
+         * time share ran out without a solution. The layout used as start in the
+         * previous attempt fits in the larger grid, so it is carried over as start
+         * when it is at least as good as a fresh one.
+         */
+        int d0 = Math.max(1, (int) Math.ceil(Math.sqrt(inst.numberOfStatements)) - 1);
+        long start = System.nanoTime();
+        Layout carried = null;
+        for (int d = d0; d <= maxDimensions; d++) {
+            // Equal share of the remaining time for every remaining grid size
+            double remaining = timeLimit - (System.nanoTime() - start) / 1e9;
+            if (remaining <= 0)
+                break;
+            double attemptLimit = remaining / (maxDimensions - d + 1);
+
+            Layout layout = null;
+            if (mipStart) {
+                layout = MipStartHeuristic.construct(inst, d, gridMin, solutionType == 1);
+                if (carried != null && carried.violations <= layout.violations)
+                    layout = carried.widen(d);
+                carried = layout;
+            }
+
+            ModelResult result = solveAt(inst, d, attemptLimit, layout);
+            if (result.solution != null) {
+                return result.solution;
+            }
+            if (result.status != GRB.Status.INFEASIBLE && result.status != GRB.Status.INF_OR_UNBD
+                    && result.status != GRB.Status.TIME_LIMIT) {
+                break; // e.g. interrupted, a larger grid will not help
+            }
         }
+        return null;
+    }
 
-        try (ModelContext ctx = new ModelContext(inst, dimensions, gridMin, maxSizeSum, wTopLeft, wMaxExtents,
-                solutionType)) {
-            // Add constraints
+    // One attempt on the grid of dimensions d (start = MIP start to use, null for
+    // the default)
+    private ModelResult solveAt(StatementEntityInstance inst, int d, double timeLimit,
+            Layout start) throws Exception, GRBException {
+        // Reject provably infeasible instances without building a model
+        String rule = screen.check(inst, d);
+        if (rule != null) {
+            screenedOut.merge(rule, 1, Integer::sum);
+            System.out.println("Instance infeasible on " + (d + 1) + "x" + (d + 1) + " grid (" + rule + ")");
+            return new ModelResult(GRB.Status.INFEASIBLE, null);
+        }
+
+        ModelResult result;
+        if (cache == null) {
+            result = solveWithEngine(inst, d, timeLimit, start);
+        } else {
+            // Look the instance up by its canonical form, and remap the cached layout
+            // onto the IDs of this instance on a hit
+            CanonicalForm form = CanonicalForm.of(inst);
+            String key = configKey(d) + form.key();
+            CachedLayout cached = cache.get(key);
+            if (cached != null) {
+                result = cached.isInfeasible() ? new ModelResult(GRB.Status.INFEASIBLE, null)
+                        : new ModelResult(GRB.Status.OPTIMAL, cached.toSolution(inst, form));
+            } else {
+                // Only optimal layouts are cached, one found under a time limit may be
+                // improved by a later solve
+                result = solveWithEngine(inst, d, timeLimit, start);
+                if (result.status == GRB.Status.OPTIMAL && result.solution != null) {
+                    cache.put(key, CachedLayout.of(result.solution, form));
+                } else if (result.status == GRB.Status.INFEASIBLE) {
+                    cache.put(key, CachedLayout.infeasible());
+                }
+            }
+        }
+
+        if (result.solution != null)
+            result.solution.setDimensions(d);
+        return result;
+    }
+
+    private ModelResult solveWithEngine(StatementEntityInstance inst, int d, double timeLimit, Layout start)
+            throws Exception, GRBException {
+        if (engine == Engine.ANNEALING || gurobiUnavailable)
+            return solveAnnealing(inst, d, timeLimit);
+
+        try {
+            return solveModel(inst, d, timeLimit, start);
+        } catch (GRBException | LinkageError e) {
+            if (!annealingFallback)
+                throw e;
+            if (e instanceof LinkageError)
+                gurobiUnavailable = true;
+            System.out.println("Gurobi failed (" + e + "), using annealing instead");
+            return solveAnnealing(inst, d, timeLimit);
+        }
+    }
+
+    /*
+     * Layout by simulated annealing. Its result is feasible but not proven optimal:
+     * it gets status SUBOPTIMAL (so it is not cached) and a MIP gap of 1.0, which
+     * is what Gurobi reports for an incumbent without a bound. When no layout
+     * without violations is found the status is TIME_LIMIT, so grid deepening
+     * moves on to a larger grid.
+     */
+    private ModelResult solveAnnealing(StatementEntityInstance inst, int d, double timeLimit) {
+        LayoutModel model = new LayoutModel(inst, d, gridMin, solutionType == 1);
+        Layout layout = new AnnealingLayout(model, 0).run(timeLimit);
+        if (!layout.isComplete())
+            return new ModelResult(GRB.Status.TIME_LIMIT, null);
+
+        Solution sol = model.toSolution(layout);
+        sol.setMipGap(1.0);
+        return new ModelResult(GRB.Status.SUBOPTIMAL, sol);
+    }
+
+    private static IrVar[][] statementVars(ModelContext ctx) {
+        if (ctx.v instanceof VarsRectangles v)
+            return v.statementCoordinates;
+        return ((VarsPolygons) ctx.v).statementCoordinates;
+    }
+
+    public List<ConstraintModule> getConstraints() {
+        return constraints;
+    }
+
+    public ObjectiveModule getObjective() {
+        return objective;
+    }
+
+    // Empty model (variables only) of inst on the grid of dimensions d
+    public ModelContext newContext(StatementEntityInstance inst, int d) {
+        return newContext(inst, d, Map.of());
+    }
+
+    // weights: statement ID -> number of cells, for statements taking more than one
+    public ModelContext newContext(StatementEntityInstance inst, int d, Map<Integer, Integer> weights) {
+        return new ModelContext(inst, d, gridMin, maxSizeSum, wTopLeft, wMaxExtents, solutionType, weights);
+    }
+
+    // Complete model of inst on the grid of dimensions d, built without Gurobi
+    public ModelContext buildModel(StatementEntityInstance inst, int d) {
+        return buildModel(inst, d, Map.of());
+    }
+
+    public ModelContext buildModel(StatementEntityInstance inst, int d, Map<Integer, Integer> weights) {
+        ModelContext ctx = newContext(inst, d, weights);
+
+        // Add constraints
+        for (ConstraintModule c : constraints)
+            c.add(ctx);
+
+        // Objective
+        objective.apply(ctx);
+        return ctx;
+    }
+
+    private ModelResult solveModel(StatementEntityInstance inst, int d, double timeLimit,
+            Layout start) throws Exception, GRBException {
+        /*
+         * The compressed model only has layouts with the classes in runs, so its
+         * optimum is not one of the full instance. Its layout is used as the MIP
+         * start of the full model, which gets the rest of the time; if none is
+         * left, the expanded layout is returned without a bound (SUBOPTIMAL, so
+         * it is not cached, with a gap of 1.0, as for annealing).
+         */
+        Solution compressed = null;
+        if (classCompression) {
+            ClassCompression compression = ClassCompression.of(inst, d + 1);
+            if (compression != null) {
+                // No MIP start, the constructive layouts do not keep the classes in runs;
+                // half of a time limit, the other half is for the full model
+                long begin = System.nanoTime();
+                ModelResult result = optimize(buildModel(compression.reduced, d, compression.weights),
+                        timeLimit / 2, null);
+                if (result.solution != null) {
+                    compressed = compression.expand(result.solution, inst);
+                    compressed.setMipGap(1.0);
+                } else {
+                    System.out.println("No layout with the statement classes in runs, solving the full model");
+                }
+
+                timeLimit -= (System.nanoTime() - begin) / 1e9;
+                if (timeLimit <= 0)
+                    return compressed == null ? new ModelResult(GRB.Status.TIME_LIMIT, null)
+                            : new ModelResult(GRB.Status.SUBOPTIMAL, compressed);
+            }
+        }
+
+        ModelContext ctx = buildModel(inst, d);
+
+        // Warm start from the compressed layout or a constructive one
+        int[][] startCoordinates = null;
+        if (compressed != null) {
+            Layout layout = new LayoutModel(inst, d, gridMin, solutionType == 1)
+                    .evaluate(statementCoordinates(compressed));
             for (ConstraintModule c : constraints)
-                c.add(ctx);
+                c.adjustStart(ctx, layout.statements);
+            MipStartHeuristic.apply(ctx, layout);
+            startCoordinates = layout.statements;
+        } else if (mipStart) {
+            Layout layout = start != null ? start : MipStartHeuristic.construct(ctx);
+            for (ConstraintModule c : constraints)
+                c.adjustStart(ctx, layout.statements);
+            MipStartHeuristic.apply(ctx, layout);
+            startCoordinates = layout.statements;
+        }
+        ModelResult result = optimize(ctx, timeLimit, startCoordinates);
+        if (result.solution == null && compressed != null)
+            return new ModelResult(GRB.Status.SUBOPTIMAL, compressed);
+        return result;
+    }
 
-            // Objective
-            objective.apply(ctx);
+    private static int[][] statementCoordinates(Solution sol) {
+        if (sol instanceof RectangleSolution r)
+            return r.statementCoordinates;
+        return ((PolygonSolution) sol).statementCoordinates;
+    }
 
-            ctx.model.set(GRB.DoubleParam.Heuristics, 0.3);
-            // ctx.model.set(GRB.IntParam.MIPFocus, GRB.MIPFOCUS_FEASIBILITY);
+    // Solves a built model (startCoordinates = statement positions of the MIP
+    // start already set on it, null if there is none)
+    private ModelResult optimize(ModelContext ctx, double timeLimit, int[][] startCoordinates)
+            throws Exception, GRBException {
+        try (GurobiBackend backend = new GurobiBackend(ctx.model)) {
+            GRBModel model = backend.model;
+            model.set(GRB.DoubleParam.Heuristics, 0.3);
+            if (threads > 0)
+                model.set(GRB.IntParam.Threads, threads);
+            // model.set(GRB.IntParam.MIPFocus, GRB.MIPFOCUS_FEASIBILITY);
 
             // Solve
-            // ctx.model.optimize();
-            // int status = ctx.model.get(GRB.IntAttr.Status);
+            // model.optimize();
+            // int status = model.get(GRB.IntAttr.Status);
             // if (status != GRB.Status.OPTIMAL) {
             // return null;
             // }
 
             // Set time limit
-            // ctx.model.set(GRB.DoubleParam.TimeLimit, 600.0);
+            if (timeLimit < Double.POSITIVE_INFINITY)
+                model.set(GRB.DoubleParam.TimeLimit, Math.max(0.0, timeLimit));
 
             // Set callback to save solutions when found
-            // SaveSolutionCallback cb = new SaveSolutionCallback(ctx, solutionType);
-            // ctx.model.setCallback(cb);  
+            // SaveSolutionCallback cb = new SaveSolutionCallback(ctx, backend, solutionType);
+            // model.setCallback(cb);
+            IncumbentCallback incumbents = new IncumbentCallback(backend.vars(statementVars(ctx)), startCoordinates);
+            model.setCallback(incumbents);
 
             // Solve
-            ctx.model.optimize();
-            int status = ctx.model.get(GRB.IntAttr.Status);
-            int solCount = ctx.model.get(GRB.IntAttr.SolCount);
+            model.optimize();
+            incumbentStats.record(startCoordinates != null, incumbents);
+            int status = model.get(GRB.IntAttr.Status);
+            int solCount = model.get(GRB.IntAttr.SolCount);
 
             // If no feasible solution exists:
             if (status == GRB.Status.INFEASIBLE ||
                     status == GRB.Status.INF_OR_UNBD ||
                     solCount == 0) {
 
-                return null;
+                return new ModelResult(status, null);
             }
 
             // Extract and return
+            backend.readSolution();
+            Solution sol;
             switch (solutionType) {
                 case 0:
-                    return SolutionExtractor.extractRectangleSolution(ctx);
+                case 2:
+                    sol = SolutionExtractor.extractRectangleSolution(ctx);
+                    break;
                 case 1:
-                    return SolutionExtractor.extractPolygonSolution(ctx);
+                    sol = SolutionExtractor.extractPolygonSolution(ctx);
+                    break;
                 default:
                     throw new Exception("Unknown solution type");
             }
+
+            // Best incumbent when the time limit was hit, record how good it is
+            sol.setMipGap(model.get(GRB.DoubleAttr.MIPGap));
+            if (status == GRB.Status.TIME_LIMIT) {
+                System.out.println("Time limit reached, using incumbent with gap " + sol.getMipGap());
+            }
+            return new ModelResult(status, sol);
         }
     }
-}
\ No newline at end of file
+}
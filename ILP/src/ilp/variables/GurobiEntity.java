@@ -1,18 +1,18 @@
 package ilp.variables;
 
-import com.gurobi.gurobi.GRBVar;
+import ilp.ir.IrVar;
 
 public class GurobiEntity {
     // Boolean variable defining which rows of the grid are used by this entity
-    public GRBVar[] activeRows;
+    public IrVar[] activeRows;
     
     // for each row, its start cell and end cell coordinates
-    public GRBVar[][] rowBounds;
+    public IrVar[][] rowBounds;
 
     // for each row, its span
-    public GRBVar[] rowSpans;
+    public IrVar[] rowSpans;
 
-    public GurobiEntity(GRBVar[] activeRows, GRBVar[][] rowBounds, GRBVar[] span) {
+    public GurobiEntity(IrVar[] activeRows, IrVar[][] rowBounds, IrVar[] span) {
         this.activeRows = activeRows;
         this.rowBounds = rowBounds;
         this.rowSpans = span;
@@ -0,0 +1,45 @@
+package ilp.variables;
+
+import ilp.ir.IrLinExpr;
+import ilp.ir.IrVar;
+
+/*
+ * Rectangles assigned to grid cells: every statement picks one cell (the first
+ * of its run for statements taking several cells), and every entity picks the
+ * first and last of its columns and rows. The coordinates of VarsRectangles are
+ * tied to these binaries (G1, G2), so modules and objectives on the coordinates
+ * work unchanged. Cell c is the cell in column c % side and row c / side (from
+ * lowerBound on).
+ */
+public final class VarsCells extends VarsRectangles {
+    public int side;
+    public int lowerBound;
+
+    // Statement vars: [nStatements][cells] => statement starts in the cell
+    public IrVar[][] statementCells;
+
+    // Entity vars: [nEntities][side] => first / last column (row) of the entity
+    public IrVar[][] columnStart;
+    public IrVar[][] columnEnd;
+    public IrVar[][] rowStart;
+    public IrVar[][] rowEnd;
+
+    // Entity vars: [nEntities][side] => column (row) lies within the entity,
+    // continuous but integral once the start and end binaries are
+    public IrVar[][] inColumn;
+    public IrVar[][] inRow;
+
+    public int cell(int x, int y) {
+        return (y - lowerBound) * side + (x - lowerBound);
+    }
+
+    // 1 if the statement (with the given weight) occupies cell (x, y), i.e. it
+    // starts in one of the weight cells ending there
+    public IrLinExpr occupancy(int statement, int weight, int x, int y) {
+        IrLinExpr expr = new IrLinExpr();
+        for (int k = 0; k < weight && x - k >= lowerBound; k++) {
+            expr.addTerm(1.0, statementCells[statement][cell(x - k, y)]);
+        }
+        return expr;
+    }
+}
@@ -1,19 +1,17 @@
 package ilp.variables;
 
-import com.gurobi.gurobi.GRB;
-import com.gurobi.gurobi.GRBException;
-import com.gurobi.gurobi.GRBModel;
-import com.gurobi.gurobi.GRBVar;
+import ilp.ir.IrModel;
+import ilp.ir.IrVar;
 
 public final class VarsFactory {
     private VarsFactory() {
     }
 
-    public static Vars create(GRBModel model,
+    public static Vars create(IrModel model,
             int nEntities,
             int nStatements,
             int coordLowerBound,
-            int coordUpperBound, int modelType) throws GRBException {
+            int coordUpperBound, int modelType) {
 
         switch (modelType) {
             case 0:
@@ -22,6 +20,8 @@ public final class VarsFactory {
                 return v;
             case 1:
                 return createPolygonVars(model, nEntities, nStatements, coordLowerBound, coordUpperBound);
+            case 2:
+                return createCellVars(model, nEntities, nStatements, coordLowerBound, coordUpperBound);
             default:
                 System.out.println("Unidentified model type");
                 return createRectangleVars(model, nEntities, nStatements, coordLowerBound, coordUpperBound);
@@ -29,58 +29,111 @@ public final class VarsFactory {
     }
 
     /** Creates all variables for an ILP using rectangles for Entities */
-    public static VarsRectangles createRectangleVars(GRBModel model,
+    public static VarsRectangles createRectangleVars(IrModel model,
             int nEntities,
             int nStatements,
             int coordLowerBound,
-            int coordUpperBound) throws GRBException {
+            int coordUpperBound) {
         VarsRectangles v = new VarsRectangles();
+        fillRectangleVars(v, model, nEntities, nStatements, coordLowerBound, coordUpperBound);
+        return v;
+    }
 
+    private static void fillRectangleVars(VarsRectangles v, IrModel model,
+            int nEntities,
+            int nStatements,
+            int coordLowerBound,
+            int coordUpperBound) {
         // statement coordinates: statementCoordinates[i][x/y]
-        v.statementCoordinates = new GRBVar[nStatements][2];
+        v.statementCoordinates = new IrVar[nStatements][2];
         for (int i = 0; i < nStatements; i++) {
-            v.statementCoordinates[i][0] = model.addVar(coordLowerBound, coordUpperBound, 0.0, GRB.INTEGER,
+            v.statementCoordinates[i][0] = model.addVar(coordLowerBound, coordUpperBound, 0.0, IrModel.INTEGER,
                     "s" + i + "_x");
-            v.statementCoordinates[i][1] = model.addVar(coordLowerBound, coordUpperBound, 0.0, GRB.INTEGER,
+            v.statementCoordinates[i][1] = model.addVar(coordLowerBound, coordUpperBound, 0.0, IrModel.INTEGER,
                     "s" + i + "_y");
         }
 
         // entity coordinates: entityCoordinates[i][x1,y1,x2,y2]
-        v.entityCoordinates = new GRBVar[nEntities][4];
+        v.entityCoordinates = new IrVar[nEntities][4];
         for (int i = 0; i < nEntities; i++) {
             for (int j = 0; j < 4; j++) {
-                v.entityCoordinates[i][j] = model.addVar(coordLowerBound, coordUpperBound, 0.0, GRB.INTEGER,
+                v.entityCoordinates[i][j] = model.addVar(coordLowerBound, coordUpperBound, 0.0, IrModel.INTEGER,
                         "e" + i + "_" + (j % 2 == 0 ? "x" : "y") + (j / 2 == 0 ? "_t" : "_b"));
             }
         }
 
         // extra vars
-        v.maxWidth = model.addVar(0.0, coordUpperBound + 1, 0.0, GRB.INTEGER, "maxWidth");
-        v.maxHeight = model.addVar(0.0, coordUpperBound + 1, 0.0, GRB.INTEGER, "maxHeight");
-        v.diff = model.addVar(0.0, coordUpperBound + 1, 0.0, GRB.INTEGER, "diff");
+        v.maxWidth = model.addVar(0.0, coordUpperBound + 1, 0.0, IrModel.INTEGER, "maxWidth");
+        v.maxHeight = model.addVar(0.0, coordUpperBound + 1, 0.0, IrModel.INTEGER, "maxHeight");
+        v.diff = model.addVar(0.0, coordUpperBound + 1, 0.0, IrModel.INTEGER, "diff");
+    }
+
+    /**
+     * Creates all variables for an ILP using rectangles for Entities, with
+     * statements and entity sides assigned to grid cells
+     */
+    public static VarsCells createCellVars(IrModel model,
+            int nEntities,
+            int nStatements,
+            int coordLowerBound,
+            int coordUpperBound) {
+        VarsCells v = new VarsCells();
+        fillRectangleVars(v, model, nEntities, nStatements, coordLowerBound, coordUpperBound);
+
+        int side = coordUpperBound - coordLowerBound + 1;
+        v.side = side;
+        v.lowerBound = coordLowerBound;
+
+        // statement cells: statementCells[i][cell]
+        v.statementCells = new IrVar[nStatements][side * side];
+        for (int i = 0; i < nStatements; i++) {
+            for (int c = 0; c < side * side; c++) {
+                v.statementCells[i][c] = model.addVar(0.0, 1.0, 0.0, IrModel.BINARY,
+                        "s" + i + "_cell_" + (coordLowerBound + c % side) + "_" + (coordLowerBound + c / side));
+            }
+        }
+
+        // entity columns and rows
+        v.columnStart = new IrVar[nEntities][side];
+        v.columnEnd = new IrVar[nEntities][side];
+        v.rowStart = new IrVar[nEntities][side];
+        v.rowEnd = new IrVar[nEntities][side];
+        v.inColumn = new IrVar[nEntities][side];
+        v.inRow = new IrVar[nEntities][side];
+        for (int i = 0; i < nEntities; i++) {
+            for (int k = 0; k < side; k++) {
+                int coord = coordLowerBound + k;
+                v.columnStart[i][k] = model.addVar(0.0, 1.0, 0.0, IrModel.BINARY, "e" + i + "_x_t_" + coord);
+                v.columnEnd[i][k] = model.addVar(0.0, 1.0, 0.0, IrModel.BINARY, "e" + i + "_x_b_" + coord);
+                v.rowStart[i][k] = model.addVar(0.0, 1.0, 0.0, IrModel.BINARY, "e" + i + "_y_t_" + coord);
+                v.rowEnd[i][k] = model.addVar(0.0, 1.0, 0.0, IrModel.BINARY, "e" + i + "_y_b_" + coord);
+                v.inColumn[i][k] = model.addVar(0.0, 1.0, 0.0, IrModel.CONTINUOUS, "e" + i + "_column_" + coord);
+                v.inRow[i][k] = model.addVar(0.0, 1.0, 0.0, IrModel.CONTINUOUS, "e" + i + "_row_" + coord);
+            }
+        }
 
         return v;
     }
 
     /** Creates all variables for an ILP using polygons for Entities */
-    public static VarsPolygons createPolygonVars(GRBModel model,
+    public static VarsPolygons createPolygonVars(IrModel model,
             int nEntities,
             int nStatements,
             int coordLowerBound,
-            int coordUpperBound) throws GRBException {
+            int coordUpperBound) {
         VarsPolygons v = new VarsPolygons();
 
         // statement coordinates: statementCoordinates[i][x/y]
-        v.statementCoordinates = new GRBVar[nStatements][2];
-        v.statementIsOnRow = new GRBVar[nStatements][coordUpperBound + 1];
+        v.statementCoordinates = new IrVar[nStatements][2];
+        v.statementIsOnRow = new IrVar[nStatements][coordUpperBound + 1];
         for (int i = 0; i < nStatements; i++) {
-            v.statementCoordinates[i][0] = model.addVar(coordLowerBound, coordUpperBound, 0.0, GRB.INTEGER,
+            v.statementCoordinates[i][0] = model.addVar(coordLowerBound, coordUpperBound, 0.0, IrModel.INTEGER,
                     "s" + i + "_x");
-            v.statementCoordinates[i][1] = model.addVar(coordLowerBound, coordUpperBound, 0.0, GRB.INTEGER,
+            v.statementCoordinates[i][1] = model.addVar(coordLowerBound, coordUpperBound, 0.0, IrModel.INTEGER,
                     "s" + i + "_y");
 
             for (int j = 0; j <= coordUpperBound; j++) {
-                v.statementIsOnRow[i][j] = model.addVar(0.0, 1.0, 0.0, GRB.BINARY,
+                v.statementIsOnRow[i][j] = model.addVar(0.0, 1.0, 0.0, IrModel.BINARY,
                         "statement_" + i + "_is_on_row_" + j);
             }
         }
@@ -89,27 +142,27 @@ public final class VarsFactory {
         v.entities = new GurobiEntity[nEntities];
         for (int i = 0; i < nEntities; i++) {
             // For each row in the entity, a variable determining if it is used
-            GRBVar[] rowBinaries = new GRBVar[coordUpperBound + 1];
+            IrVar[] rowBinaries = new IrVar[coordUpperBound + 1];
             // For each row in the entity: start_x, end_x
-            GRBVar[][] rowCoordinates = new GRBVar[coordUpperBound + 1][2];
-            GRBVar[] rowSpans = new GRBVar[coordUpperBound + 1];
+            IrVar[][] rowCoordinates = new IrVar[coordUpperBound + 1][2];
+            IrVar[] rowSpans = new IrVar[coordUpperBound + 1];
             for (int j = 0; j <= coordUpperBound; j++) {
-                rowBinaries[j] = model.addVar(0.0, 1.0, 0.0, GRB.BINARY, "e_" + i + "_" + j + "_active_row");
+                rowBinaries[j] = model.addVar(0.0, 1.0, 0.0, IrModel.BINARY, "e_" + i + "_" + j + "_active_row");
 
-                rowCoordinates[j][0] = model.addVar(coordLowerBound, coordUpperBound, 0.0, GRB.INTEGER,
+                rowCoordinates[j][0] = model.addVar(coordLowerBound, coordUpperBound, 0.0, IrModel.INTEGER,
                         "e" + i + "_row_" + j + "start_x");
-                rowCoordinates[j][1] = model.addVar(coordLowerBound, coordUpperBound, 0.0, GRB.INTEGER,
+                rowCoordinates[j][1] = model.addVar(coordLowerBound, coordUpperBound, 0.0, IrModel.INTEGER,
                         "e" + i + "_row_" + j + "end_x");
 
-                rowSpans[j] = model.addVar(0, coordUpperBound + 1, 0.0, GRB.CONTINUOUS, "span_j");
+                rowSpans[j] = model.addVar(0, coordUpperBound + 1, 0.0, IrModel.CONTINUOUS, "span_j");
             }
             v.entities[i] = new GurobiEntity(rowBinaries, rowCoordinates, rowSpans);
         }
 
         // extra vars
-        v.maxWidth = model.addVar(0.0, coordUpperBound, 0.0, GRB.CONTINUOUS, "maxWidth");
-        v.maxHeight = model.addVar(0.0, coordUpperBound, 0.0, GRB.CONTINUOUS, "maxHeight");
-        v.diff = model.addVar(0.0, coordUpperBound, 0.0, GRB.CONTINUOUS, "diff");
+        v.maxWidth = model.addVar(0.0, coordUpperBound, 0.0, IrModel.CONTINUOUS, "maxWidth");
+        v.maxHeight = model.addVar(0.0, coordUpperBound, 0.0, IrModel.CONTINUOUS, "maxHeight");
+        v.diff = model.addVar(0.0, coordUpperBound, 0.0, IrModel.CONTINUOUS, "diff");
 
         return v;
     }
@@ -1,20 +1,20 @@
 package ilp.variables;
 
-import com.gurobi.gurobi.GRBVar;
+import ilp.ir.IrVar;
 
 public final class VarsPolygons implements Vars{
     // Statement vars: [nStatements][2] => x,y
-    public GRBVar[][] statementCoordinates;
+    public IrVar[][] statementCoordinates;
 
     // Statement is on row j
-    public GRBVar[][] statementIsOnRow;
+    public IrVar[][] statementIsOnRow;
 
     // Entity vars: active rows and coordinates of each row
     public GurobiEntity[] entities;
     
     // Others    
-    public GRBVar maxWidth;
-    public GRBVar maxHeight;
-    public GRBVar diff;
+    public IrVar maxWidth;
+    public IrVar maxHeight;
+    public IrVar diff;
 }
 
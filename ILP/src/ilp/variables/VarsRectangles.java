@@ -1,16 +1,17 @@
 package ilp.variables;
 
-import com.gurobi.gurobi.GRBVar;
+import ilp.ir.IrVar;
 
-public final class VarsRectangles implements Vars {
+// Also the entity and layout variables of the cell formulation (VarsCells)
+public sealed class VarsRectangles implements Vars permits VarsCells {
     // Statement vars: [nStatements][2] => x,y
-    public GRBVar[][] statementCoordinates;
+    public IrVar[][] statementCoordinates;
 
     // Entity vars: [nEntities][4] => x1,y1,x2,y2
-    public GRBVar[][] entityCoordinates;
+    public IrVar[][] entityCoordinates;
 
     // Others
-    public GRBVar maxWidth;
-    public GRBVar maxHeight;
-    public GRBVar diff;
+    public IrVar maxWidth;
+    public IrVar maxHeight;
+    public IrVar diff;
 }
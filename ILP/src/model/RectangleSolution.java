@@ -11,6 +11,8 @@ public class RectangleSolution implements Solution {
     public int[][] entityCoordinates;
     public int[][] statementCoordinates;
     public ArrayList<Point> cells;
+    public double mipGap = 0.0;
+    public int dimensions = -1; // grid the solution was found on, -1 if unknown
 
     public RectangleSolution(StatementEntityInstance inst, int w, int h, ArrayList<Integer> eIds, int[][] eCoords,
             int[][] sCoords) {
@@ -48,6 +50,26 @@ public class RectangleSolution implements Solution {
         return this.cells;
     }
 
+    @Override
+    public double getMipGap() {
+        return this.mipGap;
+    }
+
+    @Override
+    public void setMipGap(double mipGap) {
+        this.mipGap = mipGap;
+    }
+
+    @Override
+    public int getDimensions() {
+        return this.dimensions;
+    }
+
+    @Override
+    public void setDimensions(int dimensions) {
+        this.dimensions = dimensions;
+    }
+
     @Override
     public ArrayList<Point> setCells() {
         ArrayList<Point> coveredCells = new ArrayList<>();
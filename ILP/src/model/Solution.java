@@ -12,4 +12,12 @@ public interface Solution {
 
     ArrayList<Point> setCells();
     ArrayList<Point> getCells();
+
+    // Relative MIP gap of the solve that produced this solution (0 = optimal)
+    double getMipGap();
+    void setMipGap(double mipGap);
+
+    // Grid the solution was found on (dimensions d = (d+1)x(d+1) grid)
+    int getDimensions();
+    void setDimensions(int dimensions);
 }
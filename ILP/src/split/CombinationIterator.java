@@ -0,0 +1,217 @@
+package split;
+
+import java.util.Arrays;
+
+/*
+ * Enumerates the subsets of {0, ..., n-1} with 1 to s elements without storing
+ * them: first all subsets of size 1, then of size 2, and so on, each size in
+ * lexicographic order of the sorted elements (the order of the former
+ * generateCombinations). The current subset is kept as a bit mask over as many
+ * 64-bit words as n needs, together with its sorted elements, and next()
+ * advances both in place.
+ *
+ * Every subset has a rank, its position in the enumeration, so that disjoint
+ * rank ranges can be enumerated independently after seek(rank).
+ */
+public class CombinationIterator {
+    private final int n;
+    private final int s;
+    private final long[] mask;
+    private final int[] elements;
+    private int size; // size of the current subset, 0 before the first one
+    private long rank = -1;
+
+    public CombinationIterator(int n, int s) {
+        this.n = n;
+        this.s = Math.max(0, Math.min(s, n));
+        this.mask = new long[Math.max(1, (n + 63) >>> 6)];
+        this.elements = new int[this.s];
+    }
+
+    // Total number of subsets
+    public long count() {
+        long count = 0;
+        for (int k = 1; k <= s; k++) {
+            count += binomial(n, k);
+        }
+        return count;
+    }
+
+    // Move to the next subset; false when all subsets were enumerated
+    public boolean next() {
+        if (size == 0) {
+            if (s == 0)
+                return false;
+            first(1);
+            rank = 0;
+            return true;
+        }
+
+        // Increase the last element that can still be increased and put the
+        // following ones right after it
+        int i = size - 1;
+        while (i >= 0 && elements[i] == n - size + i) {
+            i--;
+        }
+        if (i < 0) {
+            if (size == s)
+                return false;
+            first(size + 1);
+        } else {
+            clear(elements[i]);
+            elements[i]++;
+            set(elements[i]);
+            for (int j = i + 1; j < size; j++) {
+                clear(elements[j]);
+                elements[j] = elements[j - 1] + 1;
+                set(elements[j]);
+            }
+        }
+        rank++;
+        return true;
+    }
+
+    /*
+     * Position the iterator so that the following next() returns the subset with
+     * the given rank (combinatorial number system within its size).
+     */
+    public void seek(long target) {
+        clearAll();
+        if (target <= 0) {
+            size = 0;
+            rank = -1;
+            return;
+        }
+
+        long r = target;
+        int k = 1;
+        while (k < s && r >= binomial(n, k)) {
+            r -= binomial(n, k);
+            k++;
+        }
+
+        size = k;
+        int c = 0;
+        for (int p = 0; p < k; p++) {
+            while (r >= binomial(n - c - 1, k - p - 1)) {
+                r -= binomial(n - c - 1, k - p - 1);
+                c++;
+            }
+            elements[p] = c;
+            set(c);
+            c++;
+        }
+        rank = target;
+
+        // Step back one subset so that next() returns the target
+        stepBack();
+    }
+
+    // Inverse of next(): decrease the last element that can be decreased and
+    // move the following ones to their maximum
+    private void stepBack() {
+        int i = size - 1;
+        while (i > 0 && elements[i] == elements[i - 1] + 1) {
+            i--;
+        }
+        if (i == 0 && elements[0] == 0) {
+            // First subset of this size: the previous one is the last of size-1
+            clearAll();
+            size--;
+            for (int j = 0; j < size; j++) {
+                elements[j] = n - size + j;
+                set(elements[j]);
+            }
+        } else {
+            clear(elements[i]);
+            elements[i]--;
+            set(elements[i]);
+            for (int j = size - 1; j > i; j--) {
+                clear(elements[j]);
+                elements[j] = n - size + j;
+                set(elements[j]);
+            }
+        }
+        rank--;
+    }
+
+    private void first(int k) {
+        clearAll();
+        size = k;
+        for (int j = 0; j < k; j++) {
+            elements[j] = j;
+            set(j);
+        }
+    }
+
+    // Bit mask of the current subset (shared, changed by next())
+    public long[] mask() {
+        return mask;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Element j of the current subset, in increasing order
+    public int element(int j) {
+        return elements[j];
+    }
+
+    // Rank of the current subset
+    public long rank() {
+        return rank;
+    }
+
+    // Rank of the subset given as a mask, as next() would reach it
+    public static long rank(int n, long[] mask) {
+        int k = 0;
+        for (long bits : mask) {
+            k += Long.bitCount(bits);
+        }
+
+        long rank = 0;
+        for (int size = 1; size < k; size++) {
+            rank += binomial(n, size);
+        }
+
+        // Subsets of size k that come first: same elements up to position p and
+        // a smaller element at p
+        int p = 0, c = 0;
+        for (int w = 0; w < mask.length; w++) {
+            long bits = mask[w];
+            while (bits != 0) {
+                int e = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                for (; c < e; c++) {
+                    rank += binomial(n - c - 1, k - p - 1);
+                }
+                c = e + 1;
+                p++;
+            }
+        }
+        return rank;
+    }
+
+    private void set(int i) {
+        mask[i >>> 6] |= 1L << i;
+    }
+
+    private void clear(int i) {
+        mask[i >>> 6] &= ~(1L << i);
+    }
+
+    private void clearAll() {
+        Arrays.fill(mask, 0L);
+    }
+
+    static long binomial(int n, int k) {
+        if (k < 0 || k > n)
+            return 0;
+        long result = 1;
+        for (int i = 0; i < k; i++) {
+            result = result * (n - i) / (i + 1);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,52 @@
+package split;
+
+/*
+ * The original split cost: one per component, deleted node and copy, a
+ * penalty for every component above the size bound, and the ratio of the
+ * largest to the smallest component, all counted in entities.
+ */
+public class EntityCountCost implements SplitCostModel {
+    private static final int OVERSIZE = 10;
+
+    @Override
+    public double cost(Shape split) {
+        int[] entities = split.entities();
+
+        double cost = 0;
+        cost += entities.length;
+        cost += split.deleted();
+        cost += split.copies();
+
+        int largest = 0, smallest = Integer.MAX_VALUE;
+        for (int size : entities) {
+            if (size > split.maxAllowed())
+                cost += OVERSIZE;
+            largest = Math.max(largest, size);
+            smallest = Math.min(smallest, size);
+        }
+
+        // Add size difference between the biggest and smallest component
+        cost += ((double) largest / (double) smallest);
+
+        return cost;
+    }
+
+    /*
+     * A split has at least two components and a size ratio of at least 1. The
+     * piece is never merged with anything once it is above the size bound, and
+     * the ratio is at least piece / other.
+     */
+    @Override
+    public double lowerBound(Partial partial) {
+        double bound = 2 + partial.deleted() + partial.copies();
+
+        if (partial.piece() > partial.maxAllowed())
+            bound += OVERSIZE;
+
+        double ratio = 1.0;
+        if (partial.piece() > 0 && partial.other() > 0)
+            ratio = Math.max(ratio, (double) partial.piece() / partial.other());
+
+        return bound + ratio;
+    }
+}
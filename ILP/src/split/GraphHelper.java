@@ -2,6 +2,7 @@ package split;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 
 import model.StatementEntityInstance;
@@ -31,51 +32,48 @@ public class GraphHelper {
         this.deletedNodes = deleted;
     }
 
-    public int containsGroup(ArrayList<Integer> entities, ArrayList<DeletedNodeGroup> groups) {
-        for (int i = 0; i < groups.size(); i++) {
-            if (entities.equals(groups.get(i).entities)) {
-                return i;
-            }
-        }
-
-        return -1;
-    }
-
     private void createMaps() {
         HashMap<Integer, int[]> entityStatementMap = instance.entityIndToStatements;
 
+        HashSet<Integer> deletedIds = new HashSet<>();
+        for (Node node : deletedNodes) {
+            deletedIds.add(node.id);
+        }
+
         // Go through all entities
         for (Integer entity : entityStatementMap.keySet()) {
-            // Go through each entity's statements
-            for (int i = 0; i < entityStatementMap.get(entity).length; i++) {
-                // Get statement ID
-                int id = entityStatementMap.get(entity)[i];
+            // If the entity has been deleted, add its statements to the deleted map,
+            // otherwise to the non-deleted map
+            HashMap<Integer, ArrayList<Integer>> inverted = deletedIds.contains(entity) ? invertedDeleted
+                    : invertedNonDeleted;
 
-                // If the entity has been deleted, add it to the deleted map
-                if (deletedNodes.stream().anyMatch(o -> entity == o.id)) {
-                    invertedDeleted.computeIfAbsent(id, k -> new ArrayList<>()).add(entity);
-                }
-                // Otherwise add it to the non-deleted map
-                else {
-                    invertedNonDeleted.computeIfAbsent(id, k -> new ArrayList<>()).add(entity);
-                }
+            // Go through each entity's statements
+            for (int id : entityStatementMap.get(entity)) {
+                inverted.computeIfAbsent(id, k -> new ArrayList<>()).add(entity);
             }
         }
     }
 
     private void createGroups() {
+        // Groups by their entities; the entity lists of all statements are in the
+        // same (entity) order, so equal lists mean equal entities
+        HashMap<ArrayList<Integer>, DeletedNodeGroup> byEntities = new HashMap<>();
+
         // Go through all statements of deleted nodes
         for (Integer statement : invertedDeleted.keySet()) {
+            ArrayList<Integer> entities = invertedDeleted.get(statement);
 
             // If the statement is shared between at least 2 deleted nodes
-            if (invertedDeleted.get(statement).size() > 1) {
+            if (entities.size() > 1) {
                 // Merge groups with the same entities
-                if (containsGroup(invertedDeleted.get(statement), groups) == -1) {
-                    groups.add(new DeletedNodeGroup(new ArrayList<>(List.of(statement)), invertedDeleted.get(statement)));
+                DeletedNodeGroup group = byEntities.get(entities);
+                if (group == null) {
+                    group = new DeletedNodeGroup(new ArrayList<>(List.of(statement)), entities);
+                    byEntities.put(entities, group);
+                    groups.add(group);
                 }
                 else {
-                    int groupIndex = containsGroup(invertedDeleted.get(statement), groups);
-                    groups.get(groupIndex).statements.add(statement);
+                    group.statements.add(statement);
                 }
             }
         }
@@ -1,7 +1,10 @@
 package split;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 
 import model.StatementEntityInstance;
 
@@ -10,6 +13,23 @@ public class GreedySplit {
     int nEntities;
     int nStatements;
     public ArrayList<Integer> deletedEntities;
+    private int parallelism = 1; // Number of threads evaluating combinations (1 = sequential)
+    private Search search = Search.EXHAUSTIVE;
+    private SplitEvaluator evaluator; // Costs without building graphs, null if the instance is not supported
+    private SplitCostModel costModel = new EntityCountCost();
+
+    // Combinations evaluated by one task before it stops forking
+    private static final long TASK_SIZE = 64;
+
+    /*
+     * EXHAUSTIVE evaluates every combination. BRANCH_AND_BOUND extends deletion
+     * sets one node at a time (nodes by decreasing degree, so good splits are found
+     * early) and skips every extension of a set whose lower bound is above the
+     * best cost found so far; it finds the same split.
+     */
+    public enum Search {
+        EXHAUSTIVE, BRANCH_AND_BOUND
+    }
 
     public GreedySplit(StatementEntityInstance instance) {
         this.instance = instance;
@@ -18,6 +38,32 @@ public class GreedySplit {
         this.deletedEntities = new ArrayList<>();
     }
 
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    public void setSearch(Search search) {
+        this.search = search;
+    }
+
+    public void setCostModel(SplitCostModel costModel) {
+        this.costModel = costModel;
+    }
+
+    // A combination of deleted nodes together with the cost of its split and its
+    // index in the enumeration
+    private record Candidate(long index, double cost, long[] deleted) {
+        // The better of two candidates; equal costs go to the earlier combination,
+        // which is the one the sequential loop keeps
+        Candidate min(Candidate other) {
+            if (other == null)
+                return this;
+            if (other.cost < cost || (other.cost == cost && other.index < index))
+                return other;
+            return this;
+        }
+    }
+
     // Try all possible splits by deleting up to s nodes and return a set of
     // instances for the one with minimal cost
     public ArrayList<StatementEntityInstance> findSplit(int s, double alpha) {
@@ -29,50 +75,37 @@ public class GreedySplit {
         double bestCost = Double.MAX_VALUE;
         IntersectionGraph bestSplit = graph;
 
-        // Get all possible combinations of deleted nodes
-        ArrayList<ArrayList<Integer>> combinations = generateCombinations(n,
-                Math.min(s, instance.numberOfEntities - 1));
-
-        // For each combination make the split and evaluate its cost
-        for (ArrayList<Integer> combination : combinations) {
-            // Make a new graph
-            IntersectionGraph split = new IntersectionGraph(instance);
-            int initSize = split.components.size();
-
-            // Make the split
-            split.split(combination);
-
-            split.merge(alpha);
-
-            split.addDeletedNodes();
+        evaluator = SplitEvaluator.supports(instance) ? new SplitEvaluator(instance, costModel) : null;
 
-            // Evaluate the cost of the split
-            double cost = cost(split, alpha, initSize);
+        // All possible combinations of deleted nodes, enumerated lazily
+        int maxDeleted = Math.min(s, instance.numberOfEntities - 1);
+        long combinations = new CombinationIterator(n, maxDeleted).count();
 
-            // Store the split with minimal cost
-            if (cost < bestCost) {
-                bestCost = cost;
-                bestSplit = split;
-            }
+        // For each combination make the split and evaluate its cost, keep the
+        // split with minimal cost (the bounds need the evaluator)
+        Candidate best;
+        if (search == Search.BRANCH_AND_BOUND && evaluator != null) {
+            best = boundedSearch(n, maxDeleted, alpha);
+        } else {
+            best = parallelism > 1 && combinations > TASK_SIZE
+                    ? evaluateParallel(n, maxDeleted, combinations, alpha)
+                    : evaluateRange(n, maxDeleted, 0, combinations, alpha);
+        }
+        if (best != null) {
+            // Only the winning combination is turned into a graph, with its
+            // components in the size order scoring used to leave them in
+            bestCost = best.cost;
+            bestSplit = IntersectionGraph.splitBy(instance, best.deleted, alpha);
+            bestSplit.sortComponentsBySize();
         }
 
         if (bestCost == Double.MAX_VALUE) {
-            // Make a new graph
-            IntersectionGraph split = new IntersectionGraph(instance);
-
-            ArrayList<Integer> allNodes = new ArrayList<>();
-            for (int i = 0; i < split.intersectionGraph.length; i++) {
-                allNodes.add(i);
+            long[] allNodes = new long[(n + 63) >>> 6];
+            for (int i = 0; i < n; i++) {
+                allNodes[i >>> 6] |= 1L << i;
             }
 
-            // Make the split
-            split.split(allNodes);
-
-            split.merge(alpha);
-
-            split.addDeletedNodes();
-
-            bestSplit = split;
+            bestSplit = IntersectionGraph.splitBy(instance, allNodes, alpha);
         }
 
         getDeletedEntities(bestSplit);
@@ -81,59 +114,167 @@ public class GreedySplit {
         return new SplitIntanceFactory(instance, bestSplit).createInstances();
     }
 
-    // Create an array list containing the indices of the deleted nodes from this
-    // split
-    private void getDeletedEntities(IntersectionGraph graph) {
-        for (Node deletedNode : graph.deletedNodes) {
-            deletedEntities.add(deletedNode.id);
+    // Cost of the split for one combination of deleted nodes
+    private double cost(long[] deleted, double alpha) {
+        if (evaluator != null)
+            return evaluator.cost(deleted, alpha);
+
+        IntersectionGraph split = new IntersectionGraph(instance);
+        split.split(deleted);
+        split.merge(alpha);
+        split.addDeletedNodes();
+        return cost(split, alpha);
+    }
+
+    // Best candidate among the combinations of up to s of the n nodes with rank in
+    // [from, to), null if none splits the graph
+    private Candidate evaluateRange(int n, int s, long from, long to, double alpha) {
+        CombinationIterator combinations = new CombinationIterator(n, s);
+        combinations.seek(from);
+        Candidate best = null;
+        while (combinations.rank() + 1 < to && combinations.next()) {
+            // Store the combination with minimal cost; the ranks increase, so
+            // the first of equal costs is kept
+            double cost = cost(combinations.mask(), alpha);
+            if (cost < Double.MAX_VALUE && (best == null || cost < best.cost))
+                best = new Candidate(combinations.rank(), cost, combinations.mask().clone());
+        }
+        return best;
+    }
+
+    /*
+     * Evaluate the combinations as fork-join tasks over rank ranges. Each task
+     * keeps only its best candidate, and the reduction breaks ties by combination
+     * index, so the result is the split the sequential loop finds. When called from
+     * a fork-join worker (the parallel Orchestrator) the tasks run in that pool.
+     */
+    private Candidate evaluateParallel(int n, int s, long combinations, double alpha) {
+        return invoke(new EvaluateTask(n, s, 0, combinations, alpha));
+    }
+
+    // Run a task in the current fork-join pool, or in a new one
+    private <T> T invoke(ForkJoinTask<T> task) {
+        if (ForkJoinTask.inForkJoinPool()) {
+            return task.invoke();
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.invoke(task);
+        } finally {
+            pool.shutdown();
         }
     }
 
-    public static ArrayList<ArrayList<Integer>> generateCombinations(int n, int s) {
-        ArrayList<ArrayList<Integer>> result = new ArrayList<>();
-        for (int size = 1; size <= s; size++) {
-            backtrack(n, size, 0, new ArrayList<>(), result);
+    @SuppressWarnings("serial") // fork-join tasks are never serialized
+    private class EvaluateTask extends RecursiveTask<Candidate> {
+        private final int n, s;
+        private final long from, to;
+        private final double alpha;
+
+        EvaluateTask(int n, int s, long from, long to, double alpha) {
+            this.n = n;
+            this.s = s;
+            this.from = from;
+            this.to = to;
+            this.alpha = alpha;
+        }
+
+        @Override
+        protected Candidate compute() {
+            if (to - from <= TASK_SIZE) {
+                return evaluateRange(n, s, from, to, alpha);
+            }
+
+            long mid = (from + to) >>> 1;
+            EvaluateTask left = new EvaluateTask(n, s, from, mid, alpha);
+            EvaluateTask right = new EvaluateTask(n, s, mid, to, alpha);
+            right.fork();
+            Candidate best = left.compute();
+            Candidate other = right.join();
+            return best == null ? other : best.min(other);
         }
-        return result;
     }
 
-    private static void backtrack(int n, int size, int start, ArrayList<Integer> current,
-            ArrayList<ArrayList<Integer>> result) {
-        if (current.size() == size) {
-            result.add(new ArrayList<>(current));
-            return;
+    // Best candidate found so far, shared by the branches of the bounded search
+    private static final class Incumbent {
+        private Candidate best;
+
+        synchronized Candidate get() {
+            return best;
         }
 
-        for (int i = start; i < n; i++) {
-            current.add(i);
-            backtrack(n, size, i + 1, current, result);
-            current.remove(current.size() - 1);
+        synchronized void offer(Candidate candidate) {
+            best = candidate.min(best);
         }
     }
 
-    private double cost(IntersectionGraph graph, double alpha, int initSize) {
-        // Do not consider "splits" that do not actually split the graph
-        if (graph.components.size() == 1)
-            return Double.MAX_VALUE;
+    /*
+     * Branch-and-bound over the deletion sets of up to s nodes. Each set is
+     * extended only with nodes that come later in the degree order, so every set
+     * is visited once. A set and all its extensions are skipped when the lower
+     * bound is above the incumbent's cost; candidates with equal cost are compared
+     * by their rank in the exhaustive enumeration, so the result is the same.
+     */
+    private Candidate boundedSearch(int n, int s, double alpha) {
+        int[] order = evaluator.byDegree();
+        Incumbent incumbent = new Incumbent();
 
-        double cost = 0;
-        cost += graph.components.size();
-        cost += graph.deletedNodes.size();
-        cost += graph.deletedNodeCopies.size();
+        if (parallelism > 1) {
+            // One task per first node
+            List<ForkJoinTask<?>> branches = new ArrayList<>();
+            for (int p = 0; p < n; p++) {
+                int first = p;
+                branches.add(ForkJoinTask.adapt(
+                        () -> branch(order, first, first + 1, new long[(n + 63) >>> 6], 0, s, alpha, incumbent)));
+            }
+            invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(branches)));
+        } else {
+            branch(order, 0, n, new long[(n + 63) >>> 6], 0, s, alpha, incumbent);
+        }
 
-        int w = 10;
-        int maxAllowed = (int) Math.floor((1 - alpha) * graph.intersectionGraph.length);
+        return incumbent.get();
+    }
+
+    // Extend the deletion set (size nodes) with each of the nodes order[from..to)
+    private void branch(int[] order, int from, int to, long[] deleted, int size, int s, double alpha,
+            Incumbent incumbent) {
+        for (int p = from; p < to; p++) {
+            int node = order[p];
+            deleted[node >>> 6] |= 1L << node;
+
+            Candidate best = incumbent.get();
+            double bound = evaluator.lowerBound(deleted, s, alpha);
+            if (best == null || bound <= best.cost) {
+                double cost = cost(deleted, alpha);
+                if (cost < Double.MAX_VALUE) {
+                    long rank = CombinationIterator.rank(order.length, deleted);
+                    if (best == null || cost < best.cost || (cost == best.cost && rank < best.index))
+                        incumbent.offer(new Candidate(rank, cost, deleted.clone()));
+                }
+
+                // Larger sets delete at least one more node
+                best = incumbent.get();
+                if (size + 1 < s && (best == null || bound + 1 <= best.cost))
+                    branch(order, p + 1, order.length, deleted, size + 1, s, alpha, incumbent);
+            }
 
-        for (ArrayList<Node> component : graph.components) {
-            if (component.size() > maxAllowed)
-                cost += w;
+            deleted[node >>> 6] &= ~(1L << node);
         }
+    }
 
-        // Add size difference between the biggest and smallest component
-        Collections.sort(graph.components, (o1, o2) -> (Integer.compare(o1.size(), o2.size())));
-        cost += ((double) graph.components.get(graph.components.size() - 1).size()
-                / (double) graph.components.get(0).size());
+    // Create an array list containing the indices of the deleted nodes from this
+    // split
+    private void getDeletedEntities(IntersectionGraph graph) {
+        deletedEntities.addAll(graph.deletedEntityIds());
+    }
 
-        return cost;
+    private double cost(IntersectionGraph graph, double alpha) {
+        // Do not consider "splits" that do not actually split the graph
+        if (graph.components.size() == 1)
+            return Double.MAX_VALUE;
+
+        int maxAllowed = (int) Math.floor((1 - alpha) * graph.intersectionGraph.length);
+        return costModel.cost(graph.shape(instance, maxAllowed, costModel.countsStatements()));
     }
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package split;
+
+import java.util.ArrayList;
+
+import model.StatementEntityInstance;
+
+// GreedySplit as a SplitStrategy: the cheapest deletion set of up to k entities
+public class GreedySplitStrategy implements SplitStrategy {
+    private final int k;
+    private final double alpha;
+    private final GreedySplit.Search search;
+    private final int parallelism;
+    private final SplitCostModel costModel;
+
+    public GreedySplitStrategy(int k, double alpha, GreedySplit.Search search, int parallelism,
+            SplitCostModel costModel) {
+        this.k = k;
+        this.alpha = alpha;
+        this.search = search;
+        this.parallelism = parallelism;
+        this.costModel = costModel;
+    }
+
+    @Override
+    public Result split(StatementEntityInstance instance) {
+        GreedySplit greedy = new GreedySplit(instance);
+        greedy.setSearch(search);
+        greedy.setParallelism(parallelism);
+        greedy.setCostModel(costModel);
+        ArrayList<StatementEntityInstance> parts = greedy.findSplit(k, alpha);
+        return new Result(parts, greedy.deletedEntities);
+    }
+}
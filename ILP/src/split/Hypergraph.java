@@ -0,0 +1,124 @@
+package split;
+
+import java.util.Arrays;
+
+/*
+ * Weighted hypergraph in compressed form, used by HypergraphPartitioner: the
+ * pins of net e are pins[netStart[e] .. netStart[e+1]) and the nets of vertex v
+ * are nets[vertexStart[v] .. vertexStart[v+1]).
+ */
+final class Hypergraph {
+    final int n; // vertices
+    final int m; // nets
+    final int[] weight;
+    final int[] netStart;
+    final int[] pins;
+    final int[] vertexStart;
+    final int[] nets;
+
+    Hypergraph(int[] weight, int[] netStart, int[] pins) {
+        this.n = weight.length;
+        this.m = netStart.length - 1;
+        this.weight = weight;
+        this.netStart = netStart;
+        this.pins = pins;
+
+        // Incidence lists, by counting
+        vertexStart = new int[n + 1];
+        for (int k = 0; k < netStart[m]; k++) {
+            vertexStart[pins[k] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            vertexStart[v + 1] += vertexStart[v];
+        }
+        nets = new int[netStart[m]];
+        int[] fill = Arrays.copyOf(vertexStart, n);
+        for (int e = 0; e < m; e++) {
+            for (int k = netStart[e]; k < netStart[e + 1]; k++) {
+                nets[fill[pins[k]]++] = e;
+            }
+        }
+    }
+
+    int netSize(int e) {
+        return netStart[e + 1] - netStart[e];
+    }
+
+    int totalWeight() {
+        int total = 0;
+        for (int w : weight) {
+            total += w;
+        }
+        return total;
+    }
+
+    /*
+     * The hypergraph with vertex v merged into coarse vertex map[v]. Pins that
+     * fall together are kept once, and nets left with a single pin are dropped.
+     */
+    Hypergraph contract(int[] map, int coarseN) {
+        int[] coarseWeight = new int[coarseN];
+        for (int v = 0; v < n; v++) {
+            coarseWeight[map[v]] += weight[v];
+        }
+
+        int[] start = new int[m + 1];
+        int[] coarsePins = new int[netStart[m]];
+        int[] seen = new int[coarseN];
+        Arrays.fill(seen, -1);
+        int coarseM = 0, size = 0;
+        for (int e = 0; e < m; e++) {
+            int first = size;
+            for (int k = netStart[e]; k < netStart[e + 1]; k++) {
+                int c = map[pins[k]];
+                if (seen[c] != e) {
+                    seen[c] = e;
+                    coarsePins[size++] = c;
+                }
+            }
+            if (size - first < 2) {
+                size = first;
+                continue;
+            }
+            start[++coarseM] = size;
+        }
+
+        return new Hypergraph(coarseWeight, Arrays.copyOf(start, coarseM + 1), Arrays.copyOf(coarsePins, size));
+    }
+
+    /*
+     * The hypergraph induced by the vertices on the given side (local[v] is the
+     * new index of v, -1 for the other side). Nets with pins on both sides are
+     * cut already and are left out.
+     */
+    Hypergraph restrict(int[] side, int s, int[] local) {
+        int count = 0;
+        for (int v = 0; v < n; v++) {
+            local[v] = side[v] == s ? count++ : -1;
+        }
+
+        int[] subWeight = new int[count];
+        for (int v = 0; v < n; v++) {
+            if (local[v] != -1)
+                subWeight[local[v]] = weight[v];
+        }
+
+        int[] start = new int[m + 1];
+        int[] subPins = new int[netStart[m]];
+        int subM = 0, size = 0;
+        for (int e = 0; e < m; e++) {
+            boolean inside = true;
+            for (int k = netStart[e]; k < netStart[e + 1] && inside; k++) {
+                inside = side[pins[k]] == s;
+            }
+            if (!inside || netSize(e) < 2)
+                continue;
+            for (int k = netStart[e]; k < netStart[e + 1]; k++) {
+                subPins[size++] = local[pins[k]];
+            }
+            start[++subM] = size;
+        }
+
+        return new Hypergraph(subWeight, Arrays.copyOf(start, subM + 1), Arrays.copyOf(subPins, size));
+    }
+}
@@ -0,0 +1,485 @@
+package split;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import model.StatementEntityInstance;
+
+/*
+ * Split for instances with many statements, in the style of the multilevel
+ * hypergraph partitioners (hMETIS, KaHyPar). The statements are the vertices and
+ * every entity is a net over its statements; an entity whose statements end up
+ * in different parts is cut and becomes a deleted node, copied into the parts it
+ * touches. The statements are divided by recursive bisection, and each
+ * bisection
+ * - coarsens the hypergraph by heavy-edge matching until it is small,
+ * - bisects the coarsest hypergraph by growing one side from a seed,
+ * - projects the bisection back level by level and improves it at every level
+ *   with Fiduccia-Mattheyses passes,
+ * minimising the number of cut nets. A part holds at most capacity statements
+ * (the (d+1)^2 cells of the grid). All steps are linear in the number of pins,
+ * apart from the priority queues of the refinement.
+ */
+public class HypergraphPartitioner implements SplitStrategy {
+    private final int capacity;
+    private final SplitStrategy fallback; // if the parts do not split the intersection graph
+
+    // Coarsening stops at this many vertices, or when a matching merges less than
+    // 5% of the vertices
+    private static final int COARSEST = 160;
+    // Nets with more pins are left out when rating the neighbours of a vertex
+    private static final int MAX_RATED_NET = 1000;
+    // Allowed imbalance of a bisection, relative to its target weights
+    private static final double EPSILON = 0.05;
+    private static final int INITIAL_TRIES = 10;
+    private static final int PASSES = 8;
+    // A refinement pass stops after this many moves without improvement
+    private static final int STALL = 100;
+    private static final long SEED = 42;
+
+    public HypergraphPartitioner(int capacity, SplitStrategy fallback) {
+        this.capacity = Math.max(1, capacity);
+        this.fallback = fallback;
+    }
+
+    @Override
+    public Result split(StatementEntityInstance instance) {
+        // Entities in the order of the intersection graph nodes
+        List<Integer> entityIds = new ArrayList<>(instance.entities.keySet());
+        HashMap<Integer, Integer> vertexOf = new HashMap<>();
+        for (Integer statementId : instance.statements.keySet()) {
+            vertexOf.put(statementId, vertexOf.size());
+        }
+        int n = vertexOf.size();
+
+        // Net e is entity e, over its distinct statements
+        int total = 0;
+        for (Integer id : entityIds) {
+            int[] statements = instance.entityIndToStatements.get(id);
+            total += statements == null ? 0 : statements.length;
+        }
+        int[] netStart = new int[entityIds.size() + 1];
+        int[] pins = new int[total];
+        int[] seen = new int[n];
+        Arrays.fill(seen, -1);
+        int size = 0;
+        for (int e = 0; e < entityIds.size(); e++) {
+            int[] statements = instance.entityIndToStatements.get(entityIds.get(e));
+            for (int statementId : statements == null ? new int[0] : statements) {
+                Integer v = vertexOf.get(statementId);
+                if (v != null && seen[v] != e) {
+                    seen[v] = e;
+                    pins[size++] = v;
+                }
+            }
+            netStart[e + 1] = size;
+        }
+        int[] weight = new int[n];
+        Arrays.fill(weight, 1);
+        Hypergraph hypergraph = new Hypergraph(weight, netStart, Arrays.copyOf(pins, size));
+
+        int[] vertices = new int[n];
+        for (int v = 0; v < n; v++) {
+            vertices[v] = v;
+        }
+        int[] part = new int[n];
+        partition(hypergraph, vertices, parts(n, true), 0, part, new Random(SEED));
+
+        // Entities with statements in several parts are deleted, the others get
+        // the part of their statements
+        long[] deleted = new long[Math.max(1, (entityIds.size() + 63) >>> 6)];
+        int[] labels = new int[entityIds.size()];
+        for (int e = 0; e < entityIds.size(); e++) {
+            if (hypergraph.netSize(e) == 0)
+                continue;
+            labels[e] = part[hypergraph.pins[netStart[e]]];
+            for (int k = netStart[e]; k < netStart[e + 1]; k++) {
+                if (part[hypergraph.pins[k]] != labels[e]) {
+                    deleted[e >>> 6] |= 1L << e;
+                    break;
+                }
+            }
+        }
+
+        IntersectionGraph graph = new IntersectionGraph(instance);
+        graph.split(deleted);
+        graph.group(labels);
+        if (graph.components.size() < 2)
+            return fallback.split(instance);
+        graph.addDeletedNodes();
+        graph.sortComponentsBySize();
+
+        return new Result(new SplitIntanceFactory(instance, graph).createInstances(), graph.deletedEntityIds());
+    }
+
+    // Number of parts for a weight: one if it fits (unless it has to be split),
+    // otherwise enough to leave EPSILON of slack in every part
+    private int parts(int weight, boolean split) {
+        if (weight <= capacity && !split)
+            return 1;
+        return Math.max(2, (int) Math.ceil((1 + EPSILON) * weight / capacity));
+    }
+
+    // Largest weight of a side that gets parts of the k parts of total
+    private int maxWeight(int total, int parts, int k) {
+        int balanced = (int) Math.ceil((double) total * parts / k);
+        return Math.max(balanced, Math.min(parts * capacity, (int) Math.floor((1 + EPSILON) * total * parts / k)));
+    }
+
+    /*
+     * Divide the vertices of h into the parts first, ..., first + k - 1 by
+     * recursive bisection (vertices[v] is the statement of vertex v); returns the
+     * next free part. The nets cut by a bisection are left out below it.
+     */
+    private int partition(Hypergraph h, int[] vertices, int k, int first, int[] part, Random random) {
+        if (k < 2 || h.n < 2) {
+            for (int v = 0; v < h.n; v++) {
+                part[vertices[v]] = first;
+            }
+            return first + 1;
+        }
+
+        int total = h.totalWeight();
+        int left = k / 2;
+        int target = (int) ((long) total * left / k);
+        int[] max = { maxWeight(total, left, k), maxWeight(total, k - left, k) };
+        int[] side = bisect(h, target, max, random);
+
+        int next = first;
+        for (int s = 0; s < 2; s++) {
+            int[] local = new int[h.n];
+            Hypergraph sub = h.restrict(side, s, local);
+            int[] subVertices = new int[sub.n];
+            for (int v = 0; v < h.n; v++) {
+                if (local[v] != -1)
+                    subVertices[local[v]] = vertices[v];
+            }
+            next = partition(sub, subVertices, parts(sub.totalWeight(), false), next, part, random);
+        }
+        return next;
+    }
+
+    // Multilevel bisection with side 0 of about target weight and the sides of at
+    // most max[0] and max[1]
+    private static int[] bisect(Hypergraph h, int target, int[] max, Random random) {
+        List<Hypergraph> levels = new ArrayList<>();
+        List<int[]> maps = new ArrayList<>();
+        int maxVertexWeight = Math.max(1, (int) Math.ceil(1.5 * h.totalWeight() / COARSEST));
+
+        Hypergraph coarse = h;
+        while (coarse.n > COARSEST) {
+            int[] map = new int[coarse.n];
+            int coarseN = match(coarse, maxVertexWeight, map, random);
+            if (coarseN > 0.95 * coarse.n)
+                break;
+            levels.add(coarse);
+            maps.add(map);
+            coarse = coarse.contract(map, coarseN);
+        }
+
+        int[] side = initialBisection(coarse, target, max, random);
+
+        // Uncoarsen, refining at every level
+        for (int l = levels.size() - 1; l >= 0; l--) {
+            Hypergraph fine = levels.get(l);
+            int[] map = maps.get(l);
+            int[] fineSide = new int[fine.n];
+            for (int v = 0; v < fine.n; v++) {
+                fineSide[v] = side[map[v]];
+            }
+            side = fineSide;
+            new Bisection(fine, side, max).refine();
+        }
+        return side;
+    }
+
+    /*
+     * Heavy-edge matching: every unmatched vertex, in random order, is matched
+     * with the unmatched neighbour of highest rating, the sum of 1/(|e|-1) over
+     * the nets e they share divided by the weight of the neighbour. Sets map[v] to
+     * the coarse vertex of v and returns the number of coarse vertices.
+     */
+    private static int match(Hypergraph h, int maxWeight, int[] map, Random random) {
+        int[] mate = new int[h.n];
+        Arrays.fill(mate, -1);
+        double[] rating = new double[h.n];
+        int[] touched = new int[h.n];
+
+        for (int u : shuffled(h.n, random)) {
+            if (mate[u] != -1)
+                continue;
+
+            int count = 0;
+            for (int i = h.vertexStart[u]; i < h.vertexStart[u + 1]; i++) {
+                int e = h.nets[i];
+                int size = h.netSize(e);
+                if (size < 2 || size > MAX_RATED_NET)
+                    continue;
+                for (int k = h.netStart[e]; k < h.netStart[e + 1]; k++) {
+                    int v = h.pins[k];
+                    if (v != u && mate[v] == -1) {
+                        if (rating[v] == 0)
+                            touched[count++] = v;
+                        rating[v] += 1.0 / (size - 1);
+                    }
+                }
+            }
+
+            int best = -1;
+            double bestRating = 0;
+            for (int i = 0; i < count; i++) {
+                int v = touched[i];
+                double r = rating[v] / h.weight[v];
+                if (h.weight[u] + h.weight[v] <= maxWeight && r > bestRating) {
+                    best = v;
+                    bestRating = r;
+                }
+                rating[v] = 0;
+            }
+
+            mate[u] = best == -1 ? u : best;
+            if (best != -1)
+                mate[best] = u;
+        }
+
+        Arrays.fill(map, -1);
+        int coarseN = 0;
+        for (int v = 0; v < h.n; v++) {
+            if (map[v] == -1) {
+                map[v] = coarseN;
+                map[mate[v]] = coarseN;
+                coarseN++;
+            }
+        }
+        return coarseN;
+    }
+
+    // The best of several refined bisections grown from random seeds
+    private static int[] initialBisection(Hypergraph h, int target, int[] max, Random random) {
+        int[] best = null;
+        int bestOverload = Integer.MAX_VALUE, bestCut = Integer.MAX_VALUE;
+        for (int t = 0; t < INITIAL_TRIES; t++) {
+            int[] side = grow(h, target, max[0], random);
+            Bisection bisection = new Bisection(h, side, max);
+            bisection.refine();
+
+            int overload = bisection.overload();
+            if (overload < bestOverload || (overload == bestOverload && bisection.cut < bestCut)) {
+                best = side;
+                bestOverload = overload;
+                bestCut = bisection.cut;
+            }
+        }
+        return best;
+    }
+
+    // Grow side 0 breadth-first over the nets, from a random seed (and further
+    // seeds when the hypergraph is disconnected), until it weighs target
+    private static int[] grow(Hypergraph h, int target, int max, Random random) {
+        int[] side = new int[h.n];
+        Arrays.fill(side, 1);
+        boolean[] queued = new boolean[h.n];
+        boolean[] expanded = new boolean[h.m];
+        int[] seeds = shuffled(h.n, random);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+
+        int load = 0, next = 0;
+        while (load < target) {
+            if (queue.isEmpty()) {
+                while (next < h.n && queued[seeds[next]]) {
+                    next++;
+                }
+                if (next == h.n)
+                    break;
+                queued[seeds[next]] = true;
+                queue.add(seeds[next]);
+            }
+
+            int v = queue.poll();
+            if (load + h.weight[v] > max)
+                continue;
+            side[v] = 0;
+            load += h.weight[v];
+
+            for (int i = h.vertexStart[v]; i < h.vertexStart[v + 1]; i++) {
+                int e = h.nets[i];
+                if (expanded[e])
+                    continue;
+                expanded[e] = true;
+                for (int k = h.netStart[e]; k < h.netStart[e + 1]; k++) {
+                    if (!queued[h.pins[k]]) {
+                        queued[h.pins[k]] = true;
+                        queue.add(h.pins[k]);
+                    }
+                }
+            }
+        }
+        return side;
+    }
+
+    private static int[] shuffled(int n, Random random) {
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        return order;
+    }
+
+    // A bisection of a hypergraph (side[v] is 0 or 1) with the pin counts of the
+    // nets on both sides, changed in place by the refinement
+    private static final class Bisection {
+        private final Hypergraph h;
+        private final int[] side;
+        private final int[] max;
+        private final int[][] count;
+        private final int[] load = new int[2];
+        int cut;
+
+        // Queue entries {gain, vertex}: highest gain first, then lowest vertex
+        private static final Comparator<int[]> BY_GAIN = (a, b) -> a[0] != b[0] ? Integer.compare(b[0], a[0])
+                : Integer.compare(a[1], b[1]);
+
+        Bisection(Hypergraph h, int[] side, int[] max) {
+            this.h = h;
+            this.side = side;
+            this.max = max;
+            this.count = new int[2][h.m];
+            for (int v = 0; v < h.n; v++) {
+                load[side[v]] += h.weight[v];
+                for (int i = h.vertexStart[v]; i < h.vertexStart[v + 1]; i++) {
+                    count[side[v]][h.nets[i]]++;
+                }
+            }
+            for (int e = 0; e < h.m; e++) {
+                if (count[0][e] > 0 && count[1][e] > 0)
+                    cut++;
+            }
+        }
+
+        // Weight above the maxima of the sides
+        int overload() {
+            return Math.max(0, load[0] - max[0]) + Math.max(0, load[1] - max[1]);
+        }
+
+        // Decrease of the cut if v changes sides
+        private int gain(int v) {
+            int from = side[v], to = 1 - from;
+            int gain = 0;
+            for (int i = h.vertexStart[v]; i < h.vertexStart[v + 1]; i++) {
+                int e = h.nets[i];
+                if (count[from][e] == 1 && count[to][e] > 0)
+                    gain++;
+                else if (count[from][e] > 1 && count[to][e] == 0)
+                    gain--;
+            }
+            return gain;
+        }
+
+        private void move(int v) {
+            int from = side[v], to = 1 - from;
+            for (int i = h.vertexStart[v]; i < h.vertexStart[v + 1]; i++) {
+                int e = h.nets[i];
+                boolean wasCut = count[0][e] > 0 && count[1][e] > 0;
+                count[from][e]--;
+                count[to][e]++;
+                boolean isCut = count[0][e] > 0 && count[1][e] > 0;
+                cut += (isCut ? 1 : 0) - (wasCut ? 1 : 0);
+            }
+            side[v] = to;
+            load[from] -= h.weight[v];
+            load[to] += h.weight[v];
+        }
+
+        /*
+         * Fiduccia-Mattheyses passes: move the unlocked vertex of highest gain
+         * whose move keeps the other side within its maximum, lock it, and keep
+         * going; then roll back to the best bisection seen in the pass (least
+         * overload, then smallest cut). Gains only change for the pins of nets
+         * with at most two pins on the side a vertex leaves or at most one on the
+         * side it joins, so only those are recomputed.
+         */
+        void refine() {
+            for (int pass = 0; pass < PASSES; pass++) {
+                boolean[] locked = new boolean[h.n];
+                int[] gain = new int[h.n];
+                List<PriorityQueue<int[]>> queues = List.of(new PriorityQueue<>(BY_GAIN), new PriorityQueue<>(BY_GAIN));
+                for (int v = 0; v < h.n; v++) {
+                    gain[v] = gain(v);
+                    queues.get(side[v]).add(new int[] { gain[v], v });
+                }
+
+                int[] moves = new int[h.n];
+                int[] critical = new int[h.nets.length];
+                int moved = 0, bestMoved = 0;
+                int bestOverload = overload(), bestCut = cut;
+                while (moved - bestMoved < STALL) {
+                    // Best feasible move from either side; stale entries are dropped
+                    int v = -1;
+                    for (int s = 0; s < 2; s++) {
+                        PriorityQueue<int[]> queue = queues.get(s);
+                        while (!queue.isEmpty() && (locked[queue.peek()[1]] || gain[queue.peek()[1]] != queue.peek()[0]
+                                || side[queue.peek()[1]] != s)) {
+                            queue.poll();
+                        }
+                        if (queue.isEmpty())
+                            continue;
+                        int u = queue.peek()[1];
+                        if (load[1 - s] + h.weight[u] <= max[1 - s] && (v == -1 || gain[u] > gain[v]))
+                            v = u;
+                    }
+                    if (v == -1)
+                        break;
+                    queues.get(side[v]).poll();
+
+                    int from = side[v], to = 1 - from;
+                    int criticalNets = 0;
+                    for (int i = h.vertexStart[v]; i < h.vertexStart[v + 1]; i++) {
+                        int e = h.nets[i];
+                        if (count[from][e] <= 2 || count[to][e] <= 1)
+                            critical[criticalNets++] = e;
+                    }
+                    locked[v] = true;
+                    move(v);
+                    moves[moved++] = v;
+
+                    for (int c = 0; c < criticalNets; c++) {
+                        int e = critical[c];
+                        for (int k = h.netStart[e]; k < h.netStart[e + 1]; k++) {
+                            int u = h.pins[k];
+                            if (!locked[u]) {
+                                gain[u] = gain(u);
+                                queues.get(side[u]).add(new int[] { gain[u], u });
+                            }
+                        }
+                    }
+
+                    int overload = overload();
+                    if (overload < bestOverload || (overload == bestOverload && cut < bestCut)) {
+                        bestOverload = overload;
+                        bestCut = cut;
+                        bestMoved = moved;
+                    }
+                }
+
+                // Undo the moves after the best bisection
+                for (int i = moved - 1; i >= bestMoved; i--) {
+                    move(moves[i]);
+                }
+                if (bestMoved == 0)
+                    break;
+            }
+        }
+    }
+}
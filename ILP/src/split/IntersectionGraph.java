@@ -1,123 +1,129 @@
 package split;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
+import java.util.LinkedHashMap;
 
 import model.StatementEntityInstance;
 
 class Node {
-    ArrayList<Edge> adj = new ArrayList<>();
     int id;
-    int comp = -1;
     boolean deleted = false;
-    boolean visited = false;
     HashSet<Integer> uniqueStatements = new HashSet<>();
 
     Node(int id) {
         this.id = id;
     }
+}
 
-    public Node copy() {
-        Node copy = new Node(id);
-
-        for (Edge e : adj) {
-            Edge eCopy = new Edge(e.target);
-
-            for (Integer statement : e.statements) {
-                eCopy.statements.add(statement);
-            }
+/*
+ * A component of the intersection graph: the indices of its nodes in the order
+ * they were added, and the same nodes as a bitset. Deleted nodes are added to
+ * components as copies, i.e. the same index can be in several components.
+ */
+class GraphComponent {
+    int label;
+    private int[] nodes = new int[4];
+    private int size = 0;
+    private final long[] members;
+
+    GraphComponent(int label, int n) {
+        this.label = label;
+        this.members = new long[(n + 63) >>> 6];
+    }
 
-            copy.adj.add(eCopy);
+    void add(int node) {
+        if (size == nodes.length) {
+            nodes = Arrays.copyOf(nodes, 2 * size);
         }
-
-        copy.comp = this.comp;
-        copy.deleted = this.deleted;
-        copy.visited = this.visited;
-        copy.uniqueStatements = this.uniqueStatements; // same for all copies
-
-        return copy;
+        nodes[size++] = node;
+        members[node >>> 6] |= 1L << node;
     }
 
-    public boolean connectedTo(Node other) {
-        return this.adj.stream().anyMatch(o -> other.id == o.target);
+    int get(int i) {
+        return nodes[i];
     }
-}
 
-class Edge {
-    int target;
-    ArrayList<Integer> statements;
+    int size() {
+        return size;
+    }
 
-    Edge(int target) {
-        this.statements = new ArrayList<>();
-        this.target = target;
+    boolean contains(int node) {
+        return (members[node >>> 6] & (1L << node)) != 0;
     }
 }
 
 public class IntersectionGraph {
     Node[] intersectionGraph;
-    ArrayList<ArrayList<Node>> components = new ArrayList<>();
+    ArrayList<GraphComponent> components = new ArrayList<>();
     private int maxComponent = 0;
     ArrayList<Node> deletedNodes = new ArrayList<>();
-    ArrayList<Node> deletedNodeCopies = new ArrayList<>();
+    int deletedNodeCopies = 0;
     GraphHelper helper;
+    private final HashMap<Integer, Integer> indexOf = new HashMap<>(); // entity id -> node index
+
+    /*
+     * Edges in compressed form: the edges of node v are edgeStart[v] ..
+     * edgeStart[v+1], to the nodes edgeTarget[k] in increasing order. Both
+     * directions of an edge share its statements, which are
+     * edgeStatements[statementStart[e] .. statementStart[e+1]) for e =
+     * edgeLink[k].
+     */
+    int[] edgeStart;
+    int[] edgeTarget;
+    int[] edgeLink;
+    int[] statementStart;
+    int[] edgeStatements;
+
+    private int[] componentOf; // component label of every node
+    private boolean[] visited;
 
     IntersectionGraph(StatementEntityInstance instance) {
         createGraph(instance);
         helper = new GraphHelper(instance);
     }
 
-    public int getGraphIndexFromId(int id) {
-        for (int i = 0; i < intersectionGraph.length; i++) {
-            if (intersectionGraph[i].id == id) {
-                return i;
-            }
-        }
+    // The graph of the instance split by deleting a set of nodes (bit mask over the
+    // node indices), merged and with the deleted nodes added back
+    static IntersectionGraph splitBy(StatementEntityInstance instance, long[] deletedNodes, double alpha) {
+        IntersectionGraph graph = new IntersectionGraph(instance);
 
-        System.out.println("Something went wrong");
-        return -1;
-    }
+        // Make the split
+        graph.split(deletedNodes);
 
-    private void initEdge(int entity1, int entity2) {
-        boolean edgeExists = false;
-        for (Edge e : intersectionGraph[getGraphIndexFromId(entity1)].adj) {
-            if (e.target == entity2) {
-                edgeExists = true;
-            }
-        }
+        graph.merge(alpha);
 
-        if (!edgeExists) {
-            intersectionGraph[getGraphIndexFromId(entity1)].adj.add(new Edge(entity2));
-            intersectionGraph[getGraphIndexFromId(entity2)].adj.add(new Edge(entity1));
-        }
+        graph.addDeletedNodes();
+
+        return graph;
     }
 
-    private void addStatement(StatementEntityInstance instance, int entity1, int entity2, int stInd) {
-        for (Edge e : intersectionGraph[getGraphIndexFromId(entity1)].adj) {
-            if (e.target == entity2) {
-                e.statements.add(instance.entityIndToStatements.get(entity1)[stInd]);
-            }
+    // IDs of the deleted entities, in the order they were deleted
+    ArrayList<Integer> deletedEntityIds() {
+        ArrayList<Integer> ids = new ArrayList<>();
+        for (Node node : deletedNodes) {
+            ids.add(node.id);
         }
+        return ids;
+    }
 
-        for (Edge e : intersectionGraph[getGraphIndexFromId(entity2)].adj) {
-            if (e.target == entity1) {
-                e.statements.add(instance.entityIndToStatements.get(entity1)[stInd]);
-            }
-        }
+    // Sort the components by size in increasing order (stable, so equal sizes keep
+    // their order); the sub-instances of a split are created in this order
+    void sortComponentsBySize() {
+        Collections.sort(components, (o1, o2) -> (Integer.compare(o1.size(), o2.size())));
     }
 
-    public void createEdge(StatementEntityInstance instance, int entity1, int entity2) {
-        // Go through both statement lists
-        for (int k = 0; k < instance.entityIndToStatements.get(entity1).length; k++) {
-            for (int l = 0; l < instance.entityIndToStatements.get(entity2).length; l++) {
-                // They share some statement
-                if (instance.entityIndToStatements.get(entity1)[k] == instance.entityIndToStatements.get(entity2)[l]) {
-                    initEdge(entity1, entity2);
-                    addStatement(instance, entity1, entity2, k);
-                }
-            }
+    public int getGraphIndexFromId(int id) {
+        Integer index = indexOf.get(id);
+        if (index != null) {
+            return index;
         }
+
+        System.out.println("Something went wrong");
+        return -1;
     }
 
     private void createGraph(StatementEntityInstance instance) {
@@ -126,44 +132,121 @@ public class IntersectionGraph {
         int ind = 0;
         for (Integer entityId : instance.entities.keySet()) {
             intersectionGraph[ind] = new Node(entityId);
+            indexOf.put(entityId, ind);
             ind++;
         }
+        int n = ind;
 
-        // Create edges
-        List<Integer> keys = new ArrayList<>(instance.entities.keySet()); // Get all keys as a list
+        // Inverted index: statement -> nodes that have it, in increasing order and
+        // once for every time a node lists the statement
+        int[][] statementsOf = new int[n][];
+        HashMap<Integer, ArrayList<Integer>> nodesOf = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            statementsOf[i] = instance.entityIndToStatements.get(intersectionGraph[i].id);
+            for (int statement : statementsOf[i]) {
+                nodesOf.computeIfAbsent(statement, k -> new ArrayList<>()).add(i);
+            }
+        }
+
+        /*
+         * Create edges. Two entities are adjacent if they share a statement; the
+         * edge between nodes i < j gets every statement of i, in the order i lists
+         * them, once for every time j lists it. Edges are numbered by i and then
+         * by j.
+         */
+        int edges = 0, size = 0;
+        int[] from = new int[16];
+        int[] to = new int[16];
+        statementStart = new int[17];
+        edgeStatements = new int[16];
+
+        int[] count = new int[n]; // statements on the edge from i to j
+        int[] fill = new int[n];
+        int[] touched = new int[n];
+        for (int i = 0; i < n; i++) {
+            int t = 0, total = 0;
+            for (int statement : statementsOf[i]) {
+                for (int j : nodesOf.get(statement)) {
+                    if (j <= i)
+                        continue;
+                    if (count[j]++ == 0)
+                        touched[t++] = j;
+                    total++;
+                }
+            }
+
+            if (edges + t >= from.length) {
+                int capacity = Math.max(2 * from.length, edges + t + 1);
+                from = Arrays.copyOf(from, capacity);
+                to = Arrays.copyOf(to, capacity);
+                statementStart = Arrays.copyOf(statementStart, capacity + 1);
+            }
+            if (size + total > edgeStatements.length) {
+                edgeStatements = Arrays.copyOf(edgeStatements, Math.max(2 * edgeStatements.length, size + total));
+            }
 
-        for (int i = 0; i < keys.size(); i++) {
-            for (int j = i + 1; j < keys.size(); j++) {
-                int entity1 = keys.get(i);
-                int entity2 = keys.get(j);
+            Arrays.sort(touched, 0, t);
+            for (int k = 0; k < t; k++) {
+                int j = touched[k];
+                from[edges] = i;
+                to[edges] = j;
+                fill[j] = size;
+                size += count[j];
+                statementStart[++edges] = size;
+                count[j] = 0;
+            }
 
-                createEdge(instance, entity1, entity2);
+            for (int statement : statementsOf[i]) {
+                for (int j : nodesOf.get(statement)) {
+                    if (j > i)
+                        edgeStatements[fill[j]++] = statement;
+                }
             }
         }
+        statementStart = Arrays.copyOf(statementStart, edges + 1);
+        edgeStatements = Arrays.copyOf(edgeStatements, size);
+
+        // Adjacency by counting; adding the edges in order keeps every node's edges
+        // in increasing order of the other end
+        edgeStart = new int[intersectionGraph.length + 1];
+        for (int e = 0; e < edges; e++) {
+            edgeStart[from[e] + 1]++;
+            edgeStart[to[e] + 1]++;
+        }
+        for (int v = 0; v < intersectionGraph.length; v++) {
+            edgeStart[v + 1] += edgeStart[v];
+        }
+        edgeTarget = new int[2 * edges];
+        edgeLink = new int[2 * edges];
+        int[] next = Arrays.copyOf(edgeStart, intersectionGraph.length);
+        for (int e = 0; e < edges; e++) {
+            edgeTarget[next[from[e]]] = to[e];
+            edgeLink[next[from[e]]++] = e;
+            edgeTarget[next[to[e]]] = from[e];
+            edgeLink[next[to[e]]++] = e;
+        }
 
         /* Initialize components */
 
-        // Restart dfs // just in case
-        for (Node node : intersectionGraph) {
-            node.visited = false;
-        }
+        componentOf = new int[intersectionGraph.length];
+        visited = new boolean[intersectionGraph.length];
 
         // Find and assign components with dfs
-        for (Node node : intersectionGraph) {
-            if (!node.visited && !node.deleted) {
-                dfs(getGraphIndexFromId(node.id), maxComponent);
+        for (int i = 0; i < intersectionGraph.length; i++) {
+            if (!visited[i] && !intersectionGraph[i].deleted) {
+                dfs(i, maxComponent);
                 maxComponent++;
             }
         }
 
-        // Create component lists
+        // Create components
         for (int i = 0; i < maxComponent; i++) {
-            components.add(new ArrayList<>());
+            components.add(new GraphComponent(i, intersectionGraph.length));
         }
 
-        // Add nodes to the corresponding lists
-        for (Node node : intersectionGraph) {
-            components.get(node.comp).add(node);
+        // Add nodes to the corresponding components
+        for (int i = 0; i < intersectionGraph.length; i++) {
+            components.get(componentOf[i]).add(i);
         }
     }
 
@@ -174,79 +257,100 @@ public class IntersectionGraph {
     }
 
     private void recomputeComponents(int deletedIndex) {
-        ArrayList<Node> affectedComponent = new ArrayList<>();
-
         // Find component of deleted node
-        for (ArrayList<Node> comp : components) {
-            if (comp.contains(intersectionGraph[deletedIndex])) {
-                comp.remove(intersectionGraph[deletedIndex]);
+        GraphComponent affectedComponent = null;
+        for (GraphComponent comp : components) {
+            if (comp.contains(deletedIndex)) {
                 affectedComponent = comp;
             }
         }
 
+        if (affectedComponent == null)
+            return;
+
         // Restart dfs
-        for (Node node : affectedComponent) {
-            node.visited = false;
+        for (int i = 0; i < affectedComponent.size(); i++) {
+            visited[affectedComponent.get(i)] = false;
         }
 
-        int nrNewComponents = 0;
+        int firstNewComponent = maxComponent;
 
         // Reassign components
-        for (Node node : affectedComponent) {
-            if (!node.visited && !node.deleted) {
-                dfs(getGraphIndexFromId(node.id), maxComponent);
+        for (int i = 0; i < affectedComponent.size(); i++) {
+            int node = affectedComponent.get(i);
+            if (!visited[node] && !intersectionGraph[node].deleted) {
+                dfs(node, maxComponent);
                 maxComponent++;
-                nrNewComponents++;
             }
         }
 
-        // Create new component lists
-        ArrayList<ArrayList<Node>> newComponents = new ArrayList<>();
+        // Create new components
+        ArrayList<GraphComponent> newComponents = new ArrayList<>();
 
-        for (int i = 0; i < nrNewComponents; i++) {
-            newComponents.add(new ArrayList<>());
+        for (int comp = firstNewComponent; comp < maxComponent; comp++) {
+            newComponents.add(new GraphComponent(comp, intersectionGraph.length));
         }
 
-        // Assign nodes to new components
+        // Assign the remaining nodes to new components
         for (int i = 0; i < affectedComponent.size(); i++) {
-            int currNodeCompIndex = affectedComponent.get(i).comp - (maxComponent - nrNewComponents);
-            newComponents.get(currNodeCompIndex).add(affectedComponent.get(i));
+            int node = affectedComponent.get(i);
+            if (node != deletedIndex) {
+                newComponents.get(componentOf[node] - firstNewComponent).add(node);
+            }
         }
 
-        // Remove old component from main component list
+        // Replace the old component by the new ones
         components.remove(affectedComponent);
-
-        // Add new components to main component list
-        for (ArrayList<Node> component : newComponents) {
-            components.add(component);
-        }
+        components.addAll(newComponents);
     }
 
+    // Label the nodes reachable from node without passing deleted nodes (with an
+    // explicit stack, so large components do not overflow the call stack)
     private void dfs(int node, int component) {
-        if (intersectionGraph[node].visited)
+        if (visited[node])
             return;
         if (intersectionGraph[node].deleted)
             return;
 
-        intersectionGraph[node].visited = true;
-        intersectionGraph[node].comp = component;
+        int[] stack = new int[intersectionGraph.length];
+        int top = 0;
+        stack[top++] = node;
+        visited[node] = true;
+
+        while (top > 0) {
+            int current = stack[--top];
+            componentOf[current] = component;
 
-        for (Edge e : intersectionGraph[node].adj) {
-            dfs(getGraphIndexFromId(e.target), component);
+            for (int k = edgeStart[current]; k < edgeStart[current + 1]; k++) {
+                int next = edgeTarget[k];
+                if (!visited[next] && !intersectionGraph[next].deleted) {
+                    visited[next] = true;
+                    stack[top++] = next;
+                }
+            }
         }
     }
 
-    // Split into components by deleting a set of nodes
-    public void split(ArrayList<Integer> deletedNodeIndices) {
-        for (Integer nodeIndex : deletedNodeIndices) {
-            deleteNode(nodeIndex);
-            recomputeComponents(nodeIndex);
+    // Split into components by deleting a set of nodes, given as a bit mask over
+    // the node indices (bit i of word i / 64); nodes are deleted in increasing
+    // index order
+    public void split(long[] deletedNodes) {
+        for (int w = 0; w < deletedNodes.length; w++) {
+            long bits = deletedNodes[w];
+            while (bits != 0) {
+                int nodeIndex = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                deleteNode(nodeIndex);
+                recomputeComponents(nodeIndex);
+            }
         }
 
-        // Fix node component field
-        for (ArrayList<Node> component : components) {
-            for (Node node : component) {
-                node.comp = components.indexOf(component);
+        // Fix component labels
+        for (int c = 0; c < components.size(); c++) {
+            GraphComponent component = components.get(c);
+            component.label = c;
+            for (int i = 0; i < component.size(); i++) {
+                componentOf[component.get(i)] = c;
             }
         }
     }
@@ -255,13 +359,13 @@ public class IntersectionGraph {
     public void merge(Double alpha) {
         // If all nodes were deleted, make two empty components and add each node to both components
         if (components.isEmpty()) {
-            components.add(new ArrayList<Node>());
-            components.add(new ArrayList<Node>());
-
-            for (ArrayList<Node> component : components) {
+            int label = intersectionGraph.length > 0 ? componentOf[0] : 0;
+            for (int c = 0; c < 2; c++) {
+                GraphComponent component = new GraphComponent(label, intersectionGraph.length);
                 for (int i = 0; i < intersectionGraph.length; i++) {
-                    component.add(intersectionGraph[i]);
+                    component.add(i);
                 }
+                components.add(component);
             }
 
             return;
@@ -279,18 +383,19 @@ public class IntersectionGraph {
         // Merge until all components are within the allowed range (except components
         // that are too large even initially)
         while (minCompSize < minAllowed && components.size() > 2) {
-            ArrayList<Node> smallest = components.get(0);
-            ArrayList<Node> secondSmallest = components.get(1);
+            GraphComponent smallest = components.get(0);
+            GraphComponent secondSmallest = components.get(1);
 
             // If merging would create a component that is too large, stop merging
             if (smallest.size() + secondSmallest.size() > maxAllowed)
                 break;
 
             // Add all nodes from the second smallest component to the smallest
-            for (Node node : secondSmallest) {
+            for (int i = 0; i < secondSmallest.size(); i++) {
+                int node = secondSmallest.get(i);
                 smallest.add(node);
-                // Update component field for all nodes
-                node.comp = smallest.get(0).comp;
+                // Update component for all nodes
+                componentOf[node] = smallest.label;
             }
 
             // Remove redundant component
@@ -302,38 +407,68 @@ public class IntersectionGraph {
         }
     }
 
-    // Add deleted nodes to components
+    // Merge the components whose nodes have the same label (labels are given per
+    // node index, e.g. the part of a partition the node belongs to)
+    public void group(int[] labels) {
+        LinkedHashMap<Integer, GraphComponent> byLabel = new LinkedHashMap<>();
+        for (GraphComponent component : components) {
+            int label = labels[component.get(0)];
+            GraphComponent group = byLabel.get(label);
+            if (group == null) {
+                byLabel.put(label, component);
+                continue;
+            }
+
+            for (int i = 0; i < component.size(); i++) {
+                int node = component.get(i);
+                group.add(node);
+                componentOf[node] = group.label;
+            }
+        }
+
+        components = new ArrayList<>(byLabel.values());
+    }
+
+    // Add deleted nodes to components (edges to nodes of other components are
+    // left in place, SplitIntanceFactory only follows edges within a component)
     public void addDeletedNodes() {
         addDeletedCopies();
         addCopiesToPreserveDeletedEdges();
         addAllDeletedNodesToAtLeastOneComponent();
-        deleteRedundantEdges();
     }
 
-    public static boolean containsId(int id, ArrayList<Node> component) {
-        return component.stream().anyMatch(o -> id == o.id);
+    // Statements on the edges from node to the nodes of a component (to nodes
+    // that are not deleted only, unless includeDeleted is set)
+    void addSharedStatements(int node, GraphComponent component, boolean includeDeleted, ArrayList<Integer> out) {
+        for (int k = edgeStart[node]; k < edgeStart[node + 1]; k++) {
+            int target = edgeTarget[k];
+            if (!component.contains(target) || (!includeDeleted && intersectionGraph[target].deleted))
+                continue;
+
+            int e = edgeLink[k];
+            for (int s = statementStart[e]; s < statementStart[e + 1]; s++) {
+                out.add(edgeStatements[s]);
+            }
+        }
     }
 
-    private boolean isConnectedToComponent(Node node, ArrayList<Node> component) {
-        for (Edge e : node.adj) {
-            if (!intersectionGraph[getGraphIndexFromId(e.target)].deleted && containsId(e.target, component))
+    private boolean isConnectedToComponent(int node, GraphComponent component) {
+        for (int k = edgeStart[node]; k < edgeStart[node + 1]; k++) {
+            int target = edgeTarget[k];
+            if (!intersectionGraph[target].deleted && component.contains(target))
                 return true;
         }
 
         return false;
     }
 
-    private int findSmallestComponentContainingNode(int id) {
-        int minSize = Integer.MAX_VALUE;
-        int compInd = -1;
-        for (ArrayList<Node> component : components) {
-            if (containsId(id, component) && component.size() < minSize) {
-                minSize = component.size();
-                compInd = components.indexOf(component);
-            }
+    private boolean inSomeComponent(int node) {
+        for (GraphComponent component : components) {
+            if (component.contains(node))
+                return true;
         }
 
-        return compInd;
+        return false;
     }
 
     // Find the component with the highest number of nodes from the list (in case of
@@ -342,17 +477,17 @@ public class IntersectionGraph {
         int max = 0;
         int compId = -1;
 
-        for (ArrayList<Node> component : components) {
+        for (GraphComponent component : components) {
             int contains = 0;
             for (Integer entity : group.entities) {
-                if (containsId(entity, component))
+                if (component.contains(getGraphIndexFromId(entity)))
                     contains++;
             }
 
             if (max <= contains) {
                 if (compId == -1 || component.size() < components.get(findComponentIndex(compId)).size()) {
                     max = contains;
-                    compId = component.get(0).comp;
+                    compId = component.label;
                 }
             }
         }
@@ -360,23 +495,19 @@ public class IntersectionGraph {
         return compId;
     }
 
-    private ArrayList<Node> findSmallestComponent() {
+    private GraphComponent findSmallestComponent() {
         Collections.sort(components, (o1, o2) -> (Integer.compare(o1.size(), o2.size())));
         return components.get(0);
     }
 
     private void addAllDeletedNodesToAtLeastOneComponent() {
         for (Node node : deletedNodes) {
-            // Find if the node is contained in some component
-            if (findSmallestComponentContainingNode(node.id) == -1) {
-                // Make a copy and add it to the smallest component
-                Node copy = node.copy();
-                ArrayList<Node> smallest = findSmallestComponent();
-
-                // Update the component field
-                copy.comp = smallest.get(0).comp;
+            int index = getGraphIndexFromId(node.id);
 
-                smallest.add(copy);
+            // If the node is not contained in any component, add a copy to the
+            // smallest component
+            if (!inSomeComponent(index)) {
+                findSmallestComponent().add(index);
             }
         }
     }
@@ -385,24 +516,21 @@ public class IntersectionGraph {
     // some non deleted node in that component
     private void addDeletedCopies() {
         for (Node node : deletedNodes) {
-            for (ArrayList<Node> component : components) {
-                if (isConnectedToComponent(node, component)) {
-                    // Make a copy and set its component
-                    Node copy = node.copy();
-                    copy.comp = component.get(0).comp;
-
-                    // Add the copy to the component and the global deleted copies list
-                    component.add(copy);
-                    deletedNodeCopies.add(copy);
+            int index = getGraphIndexFromId(node.id);
+            for (GraphComponent component : components) {
+                if (isConnectedToComponent(index, component)) {
+                    component.add(index);
+                    deletedNodeCopies++;
                 }
             }
         }
     }
 
     private int findComponent(int id) {
-        for (int i = 0; i < this.components.size(); i++) {
-            if (containsId(id, components.get(i))) {
-                return components.get(i).get(0).comp;
+        int index = getGraphIndexFromId(id);
+        for (GraphComponent component : components) {
+            if (component.contains(index)) {
+                return component.label;
             }
         }
 
@@ -424,7 +552,7 @@ public class IntersectionGraph {
 
     private int findComponentIndex(int comp) {
         for (int i = 0; i < components.size(); i++) {
-            if (components.get(i).get(0).comp == comp) {
+            if (components.get(i).label == comp) {
                 return i;
             }
         }
@@ -433,32 +561,22 @@ public class IntersectionGraph {
         return -1;
     }
 
-    private void putCopyInComponent(int id, ArrayList<Node> component) {
-        Node node = intersectionGraph[getGraphIndexFromId(id)];
-
-        // Make a copy and update its component
-        Node copy = node.copy();
-        copy.comp = component.get(0).comp;
-
-        // Add the copy to the component and the global deleted copies list
-        component.add(copy);
-        deletedNodeCopies.add(copy);
-    }
-
-    private void addCopiesToComponent(DeletedNodeGroup group, ArrayList<Node> component) {
+    private void addCopiesToComponent(DeletedNodeGroup group, GraphComponent component) {
         // Track which nodes are not already in the component
         ArrayList<Integer> missingFromComponent = new ArrayList<>();
 
         // Add all missing nodes
         for (Integer entity : group.entities) {
-            if (!containsId(entity, component)) {
-                missingFromComponent.add(entity);
+            int index = getGraphIndexFromId(entity);
+            if (!component.contains(index)) {
+                missingFromComponent.add(index);
             }
         }
 
         // Copy the missing nodes into the component
-        for (Integer missingId : missingFromComponent) {
-            putCopyInComponent(missingId, component);
+        for (Integer missing : missingFromComponent) {
+            component.add(missing);
+            deletedNodeCopies++;
         }
     }
 
@@ -481,26 +599,32 @@ public class IntersectionGraph {
         }
     }
 
-    /*
-     * For each edge between deleted nodes where the nodes do not share a component,
-     * find the smallest component with a copy of one deleted node and add to it a
-     * copy of the other deleted node
-     */
-
-    // For all nodes, remove edges to any node that is not in their component
-    private void deleteRedundantEdges() {
-        for (ArrayList<Node> component : components) {
-            for (Node node : component) {
-                Node copy = node.copy();
-
-                // Remove all edges to nodes not in this component
-                for (Edge e : copy.adj) { // Iterate through the copy adjacency list
-                    if (!containsId(e.target, component)) {
-                        node.adj.remove(e); // Remove from actual adjacency list
-                    }
+    // The split for a SplitCostModel; the statements of the parts are counted by
+    // running SplitIntanceFactory on this graph
+    SplitCostModel.Shape shape(StatementEntityInstance instance, int maxAllowed, boolean countStatements) {
+        int k = components.size();
+        int[] entities = new int[k];
+        for (int c = 0; c < k; c++) {
+            entities[c] = components.get(c).size();
+        }
+
+        int[] statements = null, memberships = null;
+        if (countStatements) {
+            ArrayList<StatementEntityInstance> parts = new SplitIntanceFactory(instance, this).createInstances();
+            statements = new int[k];
+            memberships = new int[k];
+            for (int c = 0; c < k; c++) {
+                StatementEntityInstance part = parts.get(c);
+                statements[c] = part.numberOfStatements;
+                for (Integer entity : part.entities.keySet()) {
+                    int[] entityStatements = part.entityIndToStatements.get(entity);
+                    memberships[c] += entityStatements == null ? 0 : entityStatements.length;
                 }
             }
         }
+
+        return new SplitCostModel.Shape(intersectionGraph.length, maxAllowed, deletedNodes.size(),
+                deletedNodeCopies, entities, statements, memberships);
     }
 
     public void printGraph() {
@@ -508,16 +632,17 @@ public class IntersectionGraph {
         System.out.println("Number of entities: " + this.intersectionGraph.length);
         System.out.println("Number of components: " + this.components.size());
         System.out.println("_______ Components ______");
-        for (ArrayList<Node> comp : components) {
+        for (GraphComponent comp : components) {
             System.out.println();
-            for (Node node : comp) {
-                System.out.print(node.id + " ");
+            for (int i = 0; i < comp.size(); i++) {
+                System.out.print(intersectionGraph[comp.get(i)].id + " ");
             }
             System.out.println();
-            for (Node node : comp) {
-                System.out.print("Node " + node.id + " connects to: ");
-                for (Edge e : node.adj) {
-                    System.out.print(e.target + " ");
+            for (int i = 0; i < comp.size(); i++) {
+                int node = comp.get(i);
+                System.out.print("Node " + intersectionGraph[node].id + " connects to: ");
+                for (int k = edgeStart[node]; k < edgeStart[node + 1]; k++) {
+                    System.out.print(intersectionGraph[edgeTarget[k]].id + " ");
                 }
             }
         }
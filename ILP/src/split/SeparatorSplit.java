@@ -0,0 +1,384 @@
+package split;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import model.StatementEntityInstance;
+
+/*
+ * Polynomial-time split for instances too large for the subset search of
+ * GreedySplit. The candidate deletion sets are vertex separators of the
+ * intersection graph:
+ * - no deletion at all, when the graph is already disconnected;
+ * - every articulation point (Tarjan, also gives the biconnected blocks);
+ * - minimum vertex cuts (max-flow on the graph with split nodes) between the
+ *   two ends of a sweep from a pair of far-apart nodes of the largest block,
+ *   for several balances.
+ * Every candidate is scored with the cost model, and the cheapest one is
+ * split like GreedySplit splits its best combination.
+ */
+public class SeparatorSplit implements SplitStrategy {
+    private final double alpha;
+    private final SplitCostModel costModel;
+    private final SplitStrategy fallback; // for instances the evaluator does not support
+
+    // Sizes of the sweep ends, as fractions of the nodes
+    private static final double[] ENDS = { 0.0, 1.0 / 8, 1.0 / 4, 1.0 / 3 };
+
+    public SeparatorSplit(double alpha, SplitCostModel costModel, SplitStrategy fallback) {
+        this.alpha = alpha;
+        this.costModel = costModel;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public Result split(StatementEntityInstance instance) {
+        if (!SplitEvaluator.supports(instance))
+            return fallback.split(instance);
+
+        SplitEvaluator evaluator = new SplitEvaluator(instance, costModel);
+        int n = evaluator.size();
+        int words = Math.max(1, (n + 63) >>> 6);
+
+        List<long[]> candidates = new ArrayList<>();
+        candidates.add(new long[words]);
+
+        List<List<Integer>> blocks = new ArrayList<>();
+        for (int a : articulationPoints(evaluator, blocks)) {
+            long[] candidate = new long[words];
+            candidate[a >>> 6] |= 1L << a;
+            candidates.add(candidate);
+        }
+
+        // Balanced separators inside the largest biconnected block
+        List<Integer> largest = blocks.stream().max(Comparator.comparingInt(List::size)).orElse(List.of());
+        if (largest.size() > 2) {
+            for (long[] cut : sweepCuts(evaluator, largest)) {
+                if (candidates.stream().noneMatch(c -> Arrays.equals(c, cut)))
+                    candidates.add(cut);
+            }
+        }
+
+        // The cheapest candidate, the first one on equal cost
+        long[] best = null;
+        double bestCost = Double.MAX_VALUE;
+        for (long[] candidate : candidates) {
+            double cost = evaluator.cost(candidate, alpha);
+            if (cost < bestCost) {
+                bestCost = cost;
+                best = candidate;
+            }
+        }
+
+        // Nothing splits the graph: delete all nodes, as GreedySplit does
+        boolean found = best != null;
+        if (!found) {
+            best = new long[words];
+            for (int i = 0; i < n; i++) {
+                best[i >>> 6] |= 1L << i;
+            }
+        }
+
+        // Components by size, like those of a GreedySplit split
+        IntersectionGraph graph = IntersectionGraph.splitBy(instance, best, alpha);
+        if (found)
+            graph.sortComponentsBySize();
+        return new Result(new SplitIntanceFactory(instance, graph).createInstances(), graph.deletedEntityIds());
+    }
+
+    private static int[] adjacency(SplitEvaluator evaluator, int node) {
+        long[] mask = evaluator.neighbours(node);
+        int count = 0;
+        for (long bits : mask) {
+            count += Long.bitCount(bits);
+        }
+        int[] result = new int[count];
+        int k = 0;
+        for (int w = 0; w < mask.length; w++) {
+            long bits = mask[w];
+            while (bits != 0) {
+                result[k++] = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        return result;
+    }
+
+    /*
+     * Articulation points in increasing order, and the biconnected blocks (node
+     * lists) of the graph, with Tarjan's algorithm. The depth-first search keeps
+     * its own stack so deep graphs do not overflow the call stack.
+     */
+    private static int[] articulationPoints(SplitEvaluator evaluator, List<List<Integer>> blocks) {
+        int n = evaluator.size();
+        int[][] adj = new int[n][];
+        for (int v = 0; v < n; v++) {
+            adj[v] = adjacency(evaluator, v);
+        }
+
+        int[] discovery = new int[n];
+        int[] low = new int[n];
+        int[] parent = new int[n];
+        int[] next = new int[n]; // next neighbour to visit
+        boolean[] articulation = new boolean[n];
+        Arrays.fill(discovery, -1);
+        int time = 0;
+
+        ArrayDeque<int[]> edges = new ArrayDeque<>(); // tree and back edges of the open blocks
+        int[] stack = new int[n];
+
+        for (int root = 0; root < n; root++) {
+            if (discovery[root] != -1)
+                continue;
+            if (adj[root].length == 0) {
+                blocks.add(List.of(root));
+                discovery[root] = time++;
+                continue;
+            }
+
+            int children = 0;
+            int top = 0;
+            stack[top++] = root;
+            parent[root] = -1;
+            discovery[root] = low[root] = time++;
+
+            while (top > 0) {
+                int v = stack[top - 1];
+                if (next[v] < adj[v].length) {
+                    int w = adj[v][next[v]++];
+                    if (discovery[w] == -1) {
+                        parent[w] = v;
+                        discovery[w] = low[w] = time++;
+                        edges.push(new int[] { v, w });
+                        stack[top++] = w;
+                        if (v == root)
+                            children++;
+                    } else if (w != parent[v] && discovery[w] < discovery[v]) {
+                        low[v] = Math.min(low[v], discovery[w]);
+                        edges.push(new int[] { v, w });
+                    }
+                    continue;
+                }
+
+                // v is finished
+                top--;
+                int u = parent[v];
+                if (u == -1)
+                    continue;
+                low[u] = Math.min(low[u], low[v]);
+                if (low[v] >= discovery[u]) {
+                    if (u != root)
+                        articulation[u] = true;
+
+                    // Pop the block closed by the edge u-v
+                    boolean[] inBlock = new boolean[n];
+                    List<Integer> block = new ArrayList<>();
+                    int[] e;
+                    do {
+                        e = edges.pop();
+                        for (int x : e) {
+                            if (!inBlock[x]) {
+                                inBlock[x] = true;
+                                block.add(x);
+                            }
+                        }
+                    } while (e[0] != u || e[1] != v);
+                    blocks.add(block);
+                }
+            }
+            if (children > 1)
+                articulation[root] = true;
+        }
+
+        return IntStream.range(0, n).filter(v -> articulation[v]).toArray();
+    }
+
+    /*
+     * Minimum vertex cuts inside a block between the two ends of a sweep: u is far
+     * from an arbitrary node of the block, v is far from u, and the nodes are
+     * ordered by d(u) - d(v). Each cut separates the first a nodes of the order
+     * from the last b nodes, for the end sizes in ENDS (at least one node each).
+     */
+    private static List<long[]> sweepCuts(SplitEvaluator evaluator, List<Integer> block) {
+        int n = evaluator.size();
+        boolean[] inBlock = new boolean[n];
+        for (int v : block) {
+            inBlock[v] = true;
+        }
+
+        int u = farthest(evaluator, block.get(0), inBlock, new int[n]);
+        int[] du = new int[n];
+        int v = farthest(evaluator, u, inBlock, du);
+        int[] dv = new int[n];
+        farthest(evaluator, v, inBlock, dv);
+
+        Integer[] order = block.toArray(new Integer[0]);
+        Arrays.sort(order, Comparator.comparingInt((Integer x) -> du[x] - dv[x]).thenComparingInt(x -> x));
+
+        List<long[]> cuts = new ArrayList<>();
+        int m = order.length;
+        for (double a : ENDS) {
+            for (double b : ENDS) {
+                int first = Math.max(1, (int) (a * m));
+                int last = Math.max(1, (int) (b * m));
+                if (first + last >= m)
+                    continue;
+
+                boolean[] source = new boolean[n];
+                boolean[] sink = new boolean[n];
+                for (int i = 0; i < first; i++) {
+                    source[order[i]] = true;
+                }
+                for (int i = m - last; i < m; i++) {
+                    sink[order[i]] = true;
+                }
+
+                long[] cut = new VertexCut(evaluator, inBlock, source, sink).minimumCut();
+                if (cut != null && cuts.stream().noneMatch(c -> Arrays.equals(c, cut)))
+                    cuts.add(cut);
+            }
+        }
+        return cuts;
+    }
+
+    // Breadth-first distances from start within the block; returns the farthest
+    // node (the smallest index among the farthest)
+    private static int farthest(SplitEvaluator evaluator, int start, boolean[] inBlock, int[] distance) {
+        Arrays.fill(distance, -1);
+        int[] queue = new int[distance.length];
+        int head = 0, tail = 0;
+        queue[tail++] = start;
+        distance[start] = 0;
+        int far = start;
+        while (head < tail) {
+            int x = queue[head++];
+            if (distance[x] > distance[far] || (distance[x] == distance[far] && x < far))
+                far = x;
+            for (int y : adjacency(evaluator, x)) {
+                if (inBlock[y] && distance[y] == -1) {
+                    distance[y] = distance[x] + 1;
+                    queue[tail++] = y;
+                }
+            }
+        }
+        return far;
+    }
+
+    /*
+     * Minimum vertex cut between two node sets of a block, as a maximum flow where
+     * every node is an in-node and an out-node joined by an arc of capacity 1
+     * (unbounded for the source and sink nodes) and every edge is a pair of
+     * unbounded arcs. Augmenting paths are found by breadth-first search.
+     */
+    private static final class VertexCut {
+        private static final int INF = Integer.MAX_VALUE / 2;
+
+        private final int n;
+        private final int s, t;
+        private int[] head, next, to, capacity;
+        private int arcs;
+
+        VertexCut(SplitEvaluator evaluator, boolean[] inBlock, boolean[] source, boolean[] sink) {
+            this.n = inBlock.length;
+            this.s = 2 * n;
+            this.t = 2 * n + 1;
+            this.head = new int[2 * n + 2];
+            Arrays.fill(head, -1);
+            this.next = new int[16];
+            this.to = new int[16];
+            this.capacity = new int[16];
+
+            for (int x = 0; x < n; x++) {
+                if (!inBlock[x])
+                    continue;
+                addArc(2 * x, 2 * x + 1, source[x] || sink[x] ? INF : 1);
+                if (source[x])
+                    addArc(s, 2 * x, INF);
+                if (sink[x])
+                    addArc(2 * x + 1, t, INF);
+                for (int y : adjacency(evaluator, x)) {
+                    if (inBlock[y])
+                        addArc(2 * x + 1, 2 * y, INF);
+                }
+            }
+        }
+
+        private void addArc(int from, int target, int cap) {
+            if (arcs + 2 > to.length) {
+                next = Arrays.copyOf(next, 2 * to.length);
+                capacity = Arrays.copyOf(capacity, 2 * to.length);
+                to = Arrays.copyOf(to, 2 * to.length);
+            }
+            to[arcs] = target;
+            capacity[arcs] = cap;
+            next[arcs] = head[from];
+            head[from] = arcs++;
+            to[arcs] = from;
+            capacity[arcs] = 0;
+            next[arcs] = head[target];
+            head[target] = arcs++;
+        }
+
+        // The cut nodes as a bit mask, null if the sets are adjacent (no vertex cut)
+        long[] minimumCut() {
+            int[] via = new int[2 * n + 2];
+            int flow = 0;
+            while (true) {
+                Arrays.fill(via, -1);
+                boolean[] seen = reachable(via);
+                if (!seen[t])
+                    break;
+
+                // Augment by the bottleneck of the path
+                int bottleneck = INF;
+                for (int x = t; x != s; x = to[via[x] ^ 1]) {
+                    bottleneck = Math.min(bottleneck, capacity[via[x]]);
+                }
+                if (bottleneck >= INF)
+                    return null;
+                for (int x = t; x != s; x = to[via[x] ^ 1]) {
+                    capacity[via[x]] -= bottleneck;
+                    capacity[via[x] ^ 1] += bottleneck;
+                }
+                flow += bottleneck;
+                if (flow > n)
+                    return null;
+            }
+
+            // Nodes whose in-node is reachable in the residual graph but not their
+            // out-node
+            boolean[] seen = reachable(via);
+            long[] cut = new long[Math.max(1, (n + 63) >>> 6)];
+            for (int x = 0; x < n; x++) {
+                if (seen[2 * x] && !seen[2 * x + 1])
+                    cut[x >>> 6] |= 1L << x;
+            }
+            return cut;
+        }
+
+        // Nodes reachable from the source in the residual graph, with the arc
+        // each one was reached by
+        private boolean[] reachable(int[] via) {
+            boolean[] seen = new boolean[2 * n + 2];
+            int[] queue = new int[2 * n + 2];
+            int qHead = 0, qTail = 0;
+            queue[qTail++] = s;
+            seen[s] = true;
+            while (qHead < qTail) {
+                int x = queue[qHead++];
+                for (int a = head[x]; a != -1; a = next[a]) {
+                    if (capacity[a] > 0 && !seen[to[a]]) {
+                        seen[to[a]] = true;
+                        via[to[a]] = a;
+                        queue[qTail++] = to[a];
+                    }
+                }
+            }
+            return seen;
+        }
+    }
+}
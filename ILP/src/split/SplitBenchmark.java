@@ -0,0 +1,132 @@
+package split;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+import io.StatementEntityReader;
+import model.StatementEntityInstance;
+
+/*
+ * Splits every instance recursively with GreedySplit until all parts have at
+ * most the given number of statements, and times building the split graphs
+ * (including adding back the deleted nodes) and creating the sub-instances from
+ * them. For every instance it prints a fingerprint of all sub-instances that
+ * were created (statements, entities and the statement lists of the entities,
+ * in order), so the output of two versions can be compared.
+ *
+ * Usage: SplitBenchmark [--k <n>] [--alpha <a>] [--statements <n>] [--repeat <n>] <file | directory>...
+ */
+public class SplitBenchmark {
+
+    private static long fingerprint(long hash, StatementEntityInstance inst) {
+        int[] statements = inst.statements.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        int[] entities = inst.entities.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+
+        hash = 31 * hash + Arrays.hashCode(statements);
+        hash = 31 * hash + Arrays.hashCode(entities);
+        for (int entity : entities) {
+            hash = 31 * hash + Arrays.hashCode(inst.entityIndToStatements.get(entity));
+        }
+        return 31 * hash + inst.numberOfStatements;
+    }
+
+    private static List<File> collect(List<String> inputs) {
+        List<File> files = new ArrayList<>();
+        for (String input : inputs) {
+            File file = new File(input);
+            File[] children = file.listFiles((dir, name) -> name.endsWith(".json"));
+            if (children != null) {
+                Arrays.sort(children);
+                files.addAll(Arrays.asList(children));
+            } else {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int k = 3, maxStatements = 16, repeat = 10;
+        double alpha = 1.0 / 3;
+        List<String> inputs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--k") && i + 1 < args.length) {
+                k = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--alpha") && i + 1 < args.length) {
+                alpha = Double.parseDouble(args[++i]);
+            } else if (args[i].equals("--statements") && i + 1 < args.length) {
+                maxStatements = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--repeat") && i + 1 < args.length) {
+                repeat = Math.max(1, Integer.parseInt(args[++i]));
+            } else {
+                inputs.add(args[i]);
+            }
+        }
+        if (inputs.isEmpty()) {
+            System.out.println("Usage: SplitBenchmark [--k <n>] [--alpha <a>] [--statements <n>] [--repeat <n>] <file | directory>...");
+            return;
+        }
+
+        System.out.printf("%-28s %6s %6s %6s %10s %10s  %s%n", "instance", "splits", "parts", "deleted",
+                "graph ms", "create ms", "fingerprint");
+        for (File file : collect(inputs)) {
+            StatementEntityInstance root;
+            try {
+                root = StatementEntityReader.readFromFile(file.getPath());
+            } catch (Exception e) {
+                System.out.println(file.getName() + ": " + e.getMessage());
+                continue;
+            }
+
+            int splits = 0, parts = 0, deleted = 0;
+            long graphTime = 0, createTime = 0, hash = 1;
+            Deque<StatementEntityInstance> queue = new ArrayDeque<>();
+            queue.add(root);
+            while (!queue.isEmpty()) {
+                StatementEntityInstance inst = queue.removeFirst();
+                if (inst.numberOfStatements <= maxStatements || inst.numberOfEntities < 2) {
+                    parts++;
+                    continue;
+                }
+
+                // The split search itself is not timed, only turning its result into
+                // sub-instances; the parts it returns are fingerprinted and split
+                // further, so the fingerprint is that of the pipeline
+                GreedySplit greedy = new GreedySplit(inst);
+                ArrayList<StatementEntityInstance> found = greedy.findSplit(Math.min(k, inst.numberOfEntities - 1),
+                        alpha);
+                splits++;
+                deleted += greedy.deletedEntities.size();
+
+                IntersectionGraph graph = new IntersectionGraph(inst);
+                long[] mask = new long[(graph.intersectionGraph.length + 63) >>> 6];
+                for (int id : greedy.deletedEntities) {
+                    int node = graph.getGraphIndexFromId(id);
+                    mask[node >>> 6] |= 1L << node;
+                }
+
+                for (int r = 0; r < repeat; r++) {
+                    long start = System.nanoTime();
+                    IntersectionGraph split = IntersectionGraph.splitBy(inst, mask, alpha);
+                    split.sortComponentsBySize();
+                    long built = System.nanoTime();
+                    new SplitIntanceFactory(inst, split).createInstances();
+                    graphTime += built - start;
+                    createTime += System.nanoTime() - built;
+                }
+
+                for (StatementEntityInstance part : found) {
+                    hash = fingerprint(hash, part);
+                }
+                queue.addAll(found);
+            }
+
+            System.out.printf("%-28s %6d %6d %6d %10.2f %10.2f  %016x%n", file.getName().replaceFirst("\\.json$", ""),
+                    splits, parts, deleted, graphTime / 1e6 / repeat, createTime / 1e6 / repeat, hash);
+        }
+    }
+}
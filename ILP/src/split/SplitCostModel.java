@@ -0,0 +1,39 @@
+package split;
+
+/*
+ * How the split searches (GreedySplit, SeparatorSplit) compare deletion sets.
+ * A model scores the shape of the split a deletion set produces after merge
+ * and addDeletedNodes, and gives a lower bound for all deletion sets that
+ * extend a partial one, which the branch-and-bound search uses to prune.
+ */
+public interface SplitCostModel {
+
+    /*
+     * A split: its number of nodes, the component size bound of merge, the
+     * deleted nodes and their copies, and for every component its entities
+     * (including copies). If the model counts statements, also the statements
+     * of every part (with those SplitIntanceFactory adds for deleted nodes) and
+     * its memberships (entity-statement pairs); otherwise these are null.
+     */
+    record Shape(int nodes, int maxAllowed, int deleted, int copies, int[] entities, int[] statements,
+            int[] memberships) {
+    }
+
+    /*
+     * What holds for every split that extends a partial deletion set: at least
+     * deleted nodes and copies, a component of at least piece entities (and at
+     * least pieceStatements statements, 0 if not counted), and another
+     * component of at most other entities.
+     */
+    record Partial(int nodes, int maxAllowed, int deleted, int copies, int piece, int other, int pieceStatements) {
+    }
+
+    double cost(Shape split);
+
+    double lowerBound(Partial partial);
+
+    // Whether cost needs the statements and memberships of the parts
+    default boolean countsStatements() {
+        return false;
+    }
+}
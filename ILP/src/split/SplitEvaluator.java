@@ -0,0 +1,693 @@
+package split;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+import model.StatementEntityInstance;
+
+/*
+ * Computes the cost GreedySplit assigns to a deletion set without building an
+ * IntersectionGraph. The entity adjacency is built once as bitsets over the node
+ * indices of the intersection graph; for every deletion set the steps of
+ * IntersectionGraph.split, merge and addDeletedNodes are replayed on component
+ * bitsets, in the same order and with the same tie-breaking, so the split is
+ * the one GreedySplit would build. If the cost model counts statements, the
+ * way SplitIntanceFactory places the statements of deleted nodes is replayed
+ * as well. Only the winning deletion set has to be turned into an
+ * IntersectionGraph.
+ *
+ * The evaluator only depends on the instance, so one evaluator can be used by
+ * several threads at the same time.
+ */
+public class SplitEvaluator {
+    private final int n;
+    private final int words;
+    private final long[][] adj; // neighbours of every node
+    private final int[] keyRank; // position of every node in entityIndToStatements.keySet()
+    private final int[][] statementsOf; // entityIndToStatements of every node
+    private final HashMap<Integer, int[]> nodesOf; // statement -> nodes having it, in keySet order
+    private final List<long[]> cliques = new ArrayList<>(); // nodes of every statement
+    private final int repeat; // most times an entity lists the same statement
+    private final List<long[]> initialComponents = new ArrayList<>();
+    private final SplitCostModel costModel;
+
+    // Statements as bitsets over the statements of the entities
+    private final HashMap<Integer, Integer> statementIndex = new HashMap<>();
+    private final long[][] statementMask; // distinct statements of every node
+    private final int[] unique; // statements of every node that no other node has
+
+    // A component: its nodes (including copies of deleted nodes) and its size
+    private static final class Component {
+        final long[] nodes;
+        int size;
+
+        Component(long[] nodes) {
+            this.nodes = nodes;
+            this.size = cardinality(nodes);
+        }
+    }
+
+    // Deleted nodes that share statements, as in GraphHelper
+    private static final class Group {
+        final ArrayList<Integer> statements = new ArrayList<>();
+        final ArrayList<Integer> entities; // nodes
+        final ArrayList<Component> components = new ArrayList<>();
+
+        Group(ArrayList<Integer> entities) {
+            this.entities = entities;
+        }
+    }
+
+    private static final Comparator<Component> BY_SIZE = (o1, o2) -> Integer.compare(o1.size, o2.size);
+
+    // The evaluator reproduces the graph only if every entity has a statement list
+    public static boolean supports(StatementEntityInstance instance) {
+        return instance.numberOfEntities == instance.entities.size()
+                && instance.entityIndToStatements.keySet().equals(instance.entities.keySet());
+    }
+
+    public SplitEvaluator(StatementEntityInstance instance) {
+        this(instance, new EntityCountCost());
+    }
+
+    public SplitEvaluator(StatementEntityInstance instance, SplitCostModel costModel) {
+        this.costModel = costModel;
+        this.n = instance.numberOfEntities;
+        this.words = Math.max(1, (n + 63) >>> 6);
+        HashMap<Integer, Integer> index = new HashMap<>(); // entity id -> node
+        this.adj = new long[n][words];
+        this.statementsOf = new int[n][];
+
+        // Nodes in the order of the intersection graph
+        int ind = 0;
+        for (Integer entityId : instance.entities.keySet()) {
+            index.put(entityId, ind);
+            statementsOf[ind] = instance.entityIndToStatements.get(entityId);
+            ind++;
+        }
+
+        // Nodes by statement, in the order GraphHelper visits the entities
+        this.keyRank = new int[n];
+        HashMap<Integer, ArrayList<Integer>> byStatement = new HashMap<>();
+        int rank = 0;
+        for (Integer entityId : instance.entityIndToStatements.keySet()) {
+            int node = index.get(entityId);
+            keyRank[node] = rank++;
+            for (int statement : statementsOf[node]) {
+                ArrayList<Integer> nodes = byStatement.computeIfAbsent(statement, k -> new ArrayList<>());
+                if (nodes.isEmpty() || nodes.get(nodes.size() - 1).intValue() != node)
+                    nodes.add(node);
+            }
+        }
+        this.nodesOf = new HashMap<>();
+        for (var entry : byStatement.entrySet()) {
+            int[] nodes = entry.getValue().stream().mapToInt(Integer::intValue).toArray();
+            nodesOf.put(entry.getKey(), nodes);
+
+            long[] clique = new long[words];
+            for (int a : nodes) {
+                set(clique, a);
+            }
+            cliques.add(clique);
+
+            // Entities that share a statement are adjacent
+            for (int a : nodes) {
+                for (int b : nodes) {
+                    if (a != b)
+                        set(adj[a], b);
+                }
+            }
+        }
+
+        // Largest cliques first, they give the largest cores
+        cliques.sort((o1, o2) -> Integer.compare(cardinality(o2), cardinality(o1)));
+
+        int repeat = 1;
+        for (int[] statements : statementsOf) {
+            HashMap<Integer, Integer> times = new HashMap<>();
+            for (int statement : statements) {
+                repeat = Math.max(repeat, times.merge(statement, 1, Integer::sum));
+            }
+        }
+        this.repeat = repeat;
+
+        for (Integer statement : nodesOf.keySet()) {
+            statementIndex.put(statement, statementIndex.size());
+        }
+        this.statementMask = new long[n][Math.max(1, (statementIndex.size() + 63) >>> 6)];
+        this.unique = new int[n];
+        for (int node = 0; node < n; node++) {
+            for (int statement : statementsOf[node]) {
+                set(statementMask[node], statementIndex.get(statement));
+            }
+        }
+        for (var entry : nodesOf.entrySet()) {
+            if (entry.getValue().length == 1)
+                unique[entry.getValue()[0]]++;
+        }
+
+        // Components of the whole graph, ordered by their first node
+        long[] rest = new long[words];
+        for (int i = 0; i < n; i++) {
+            set(rest, i);
+        }
+        while (!isEmpty(rest)) {
+            long[] component = reach(first(rest), rest);
+            andNot(rest, component);
+            initialComponents.add(component);
+        }
+    }
+
+    // Number of nodes
+    int size() {
+        return n;
+    }
+
+    // Neighbours of a node as a bit mask (not to be changed)
+    long[] neighbours(int node) {
+        return adj[node];
+    }
+
+    // Cost of deleting the nodes in the mask (bit i of word i / 64) under the
+    // cost model, as GreedySplit.cost on the split graph
+    public double cost(long[] deleted, double alpha) {
+        int[] deletedNodes = nodes(deleted);
+
+        /* IntersectionGraph.split: every deleted node breaks its component into
+         * the pieces that stay connected, appended in the order of their first node */
+        ArrayList<long[]> split = new ArrayList<>(initialComponents.size() + deletedNodes.length);
+        for (long[] component : initialComponents) {
+            split.add(component.clone());
+        }
+        for (int d : deletedNodes) {
+            long[] affected = null;
+            for (int c = 0; c < split.size(); c++) {
+                if (get(split.get(c), d)) {
+                    affected = split.remove(c);
+                    break;
+                }
+            }
+            if (affected == null)
+                continue;
+            clear(affected, d);
+            while (!isEmpty(affected)) {
+                long[] piece = reach(first(affected), affected);
+                andNot(affected, piece);
+                split.add(piece);
+            }
+        }
+
+        ArrayList<Component> components = new ArrayList<>(split.size());
+        for (long[] component : split) {
+            components.add(new Component(component));
+        }
+
+        final int maxAllowed = (int) Math.floor((1 - alpha) * n);
+
+        /* IntersectionGraph.merge */
+        if (components.isEmpty()) {
+            // Two components that hold all nodes, addDeletedNodes adds no copies
+            long[] all = new long[words];
+            for (int i = 0; i < n; i++) {
+                set(all, i);
+            }
+            components.add(new Component(all));
+            components.add(new Component(all.clone()));
+            return costModel.cost(shape(components, deletedNodes, deleted, 0, groups(deletedNodes), maxAllowed));
+        }
+        if (components.size() == 1)
+            return Double.MAX_VALUE;
+
+        final int minAllowed = (int) Math.ceil(alpha * n);
+        Collections.sort(components, BY_SIZE);
+        while (components.get(0).size < minAllowed && components.size() > 2) {
+            Component smallest = components.get(0);
+            Component secondSmallest = components.get(1);
+            if (smallest.size + secondSmallest.size > maxAllowed)
+                break;
+
+            or(smallest.nodes, secondSmallest.nodes);
+            smallest.size += secondSmallest.size;
+            components.remove(1);
+            Collections.sort(components, BY_SIZE);
+        }
+
+        /* IntersectionGraph.addDeletedNodes */
+        int copies = 0;
+
+        // A copy of each deleted node in every component with one of its neighbours
+        for (int d : deletedNodes) {
+            for (Component component : components) {
+                if (intersectsAndNot(adj[d], component.nodes, deleted)) {
+                    set(component.nodes, d);
+                    component.size++;
+                    copies++;
+                }
+            }
+        }
+
+        // Copies that preserve the statements shared by deleted nodes
+        ArrayList<Group> groups = groups(deletedNodes);
+        for (Group group : groups) {
+            for (int statement : group.statements) {
+                int first = firstNotDeleted(statement, deleted);
+                if (first != -1) {
+                    Component component = componentOf(components, first);
+                    if (!group.components.contains(component))
+                        group.components.add(component);
+                }
+            }
+        }
+        for (Group group : groups) {
+            if (group.components.isEmpty())
+                group.components.add(bestComponent(components, group));
+            for (Component component : group.components) {
+                copies += addMissing(component, group);
+            }
+        }
+
+        // Every deleted node in at least one component
+        for (int d : deletedNodes) {
+            boolean contained = false;
+            for (Component component : components) {
+                if (get(component.nodes, d)) {
+                    contained = true;
+                    break;
+                }
+            }
+            if (!contained) {
+                Collections.sort(components, BY_SIZE);
+                Component smallest = components.get(0);
+                set(smallest.nodes, d);
+                smallest.size++;
+            }
+        }
+
+        return costModel.cost(shape(components, deletedNodes, deleted, copies, groups, maxAllowed));
+    }
+
+    /*
+     * The split as the cost model sees it. The statements of the parts are
+     * counted as SplitIntanceFactory builds them: a part has the statements of
+     * its nodes that are not deleted, and a copy of a deleted node the ones it
+     * shares with them. Then every statement of a group of deleted nodes that no
+     * part has yet goes to the part with fewest statements among those holding
+     * the whole group, and the statements only one deleted node has go to the
+     * part with fewest statements, nodes with most such statements first.
+     */
+    private SplitCostModel.Shape shape(List<Component> components, int[] deletedNodes, long[] deleted, int copies,
+            List<Group> groups, int maxAllowed) {
+        int k = components.size();
+        int[] entities = new int[k];
+        for (int c = 0; c < k; c++) {
+            entities[c] = components.get(c).size;
+        }
+        if (!costModel.countsStatements())
+            return new SplitCostModel.Shape(n, maxAllowed, deletedNodes.length, copies, entities, null, null);
+
+        int[] statements = new int[k];
+        int[] memberships = new int[k];
+        long[] added = new long[statementMask.length > 0 ? statementMask[0].length : 1];
+        for (int c = 0; c < k; c++) {
+            long[] nodes = components.get(c).nodes;
+            long[] covered = new long[added.length];
+            for (int v : nodes(nodes)) {
+                if (!get(deleted, v)) {
+                    or(covered, statementMask[v]);
+                    memberships[c] += cardinality(statementMask[v]);
+                }
+            }
+            for (int d : deletedNodes) {
+                if (get(nodes, d))
+                    memberships[c] += cardinalityAnd(statementMask[d], covered);
+            }
+            statements[c] = cardinality(covered);
+            or(added, covered);
+        }
+
+        for (Group group : groups) {
+            for (int statement : group.statements) {
+                int index = statementIndex.get(statement);
+                if (get(added, index))
+                    continue;
+                set(added, index);
+
+                int smallest = -1;
+                for (int c = 0; c < k; c++) {
+                    if (containsAll(components.get(c).nodes, group.entities)
+                            && (smallest == -1 || statements[c] < statements[smallest]))
+                        smallest = c;
+                }
+                if (smallest != -1) {
+                    statements[smallest]++;
+                    memberships[smallest] += group.entities.size();
+                }
+            }
+        }
+
+        Integer[] byUnique = new Integer[deletedNodes.length];
+        for (int i = 0; i < deletedNodes.length; i++) {
+            byUnique[i] = deletedNodes[i];
+        }
+        Arrays.sort(byUnique, (o1, o2) -> Integer.compare(unique[o2], unique[o1]));
+        for (int d : byUnique) {
+            int smallest = 0;
+            for (int c = 1; c < k; c++) {
+                if (statements[c] < statements[smallest])
+                    smallest = c;
+            }
+            statements[smallest] += unique[d];
+            if (get(components.get(smallest).nodes, d))
+                memberships[smallest] += unique[d];
+        }
+
+        return new SplitCostModel.Shape(n, maxAllowed, deletedNodes.length, copies, entities, statements,
+                memberships);
+    }
+
+    /*
+     * Lower bound on the cost of deleting any superset of the given nodes with at
+     * most maxDeleted nodes in total, from the cost model. Let r be the number of
+     * nodes that can still be deleted. Then:
+     * - a deleted node with more than r neighbours left keeps one, so it gets a
+     *   copy;
+     * - a core (see core()) of size c keeps at least c - r nodes in one piece,
+     *   which ends up in one component (merge never adds to a component that is
+     *   already above the size bound). The piece has all statements of the core
+     *   except at most those of r nodes. Some other component holds at most the
+     *   remaining nodes plus one copy of every deleted node (repeat copies when an
+     *   entity lists a statement twice).
+     */
+    public double lowerBound(long[] deleted, int maxDeleted, double alpha) {
+        int[] deletedNodes = nodes(deleted);
+        int remaining = maxDeleted - deletedNodes.length;
+
+        int copies = 0;
+        for (int d : deletedNodes) {
+            int neighbours = 0;
+            for (int w = 0; w < words; w++) {
+                neighbours += Long.bitCount(adj[d][w] & ~deleted[w]);
+            }
+            if (neighbours > remaining)
+                copies++;
+        }
+
+        Core core = core(deleted, remaining);
+        int piece = core.nodes - remaining;
+        int maxAllowed = (int) Math.floor((1 - alpha) * n);
+        int other = n - deletedNodes.length - piece + repeat * maxDeleted;
+
+        return costModel.lowerBound(new SplitCostModel.Partial(n, maxAllowed, deletedNodes.length, copies, piece, other,
+                core.statements));
+    }
+
+    // Nodes of the largest core, and the most statements some core keeps in one
+    // piece (0 if the cost model does not count statements)
+    private record Core(int nodes, int statements) {
+    }
+
+    /*
+     * Size of the largest set of surviving nodes that stays connected when any r
+     * more nodes are deleted: the nodes of a statement form a clique, which stays
+     * connected if it has more than r nodes, and a node with more than r
+     * neighbours in such a set keeps one of them, so it can be added.
+     */
+    private Core core(long[] deleted, int r) {
+        int largest = 0, statements = 0;
+        ArrayList<long[]> cores = new ArrayList<>();
+        int[] inCore = new int[n]; // neighbours in the core
+        int[] queue = new int[n];
+        for (long[] clique : cliques) {
+            long[] core = new long[words];
+            for (int w = 0; w < words; w++) {
+                core[w] = clique[w] & ~deleted[w];
+            }
+            int size = cardinality(core);
+            if (size <= r || contained(core, cores))
+                continue;
+
+            // Add nodes as soon as they have more than r neighbours in the core
+            Arrays.fill(inCore, 0);
+            int head = 0, tail = 0;
+            for (int v : nodes(core)) {
+                queue[tail++] = v;
+            }
+            while (head < tail) {
+                long[] neighbours = adj[queue[head++]];
+                for (int w = 0; w < words; w++) {
+                    long bits = neighbours[w] & ~deleted[w] & ~core[w];
+                    while (bits != 0) {
+                        int v = (w << 6) + Long.numberOfTrailingZeros(bits);
+                        bits &= bits - 1;
+                        if (++inCore[v] > r) {
+                            set(core, v);
+                            queue[tail++] = v;
+                        }
+                    }
+                }
+            }
+            cores.add(core);
+            largest = Math.max(largest, tail);
+
+            if (costModel.countsStatements()) {
+                // Deleting r of its nodes removes at most r times the most
+                // statements a node has
+                long[] covered = new long[statementMask[0].length];
+                int most = 0;
+                for (int i = 0; i < tail; i++) {
+                    or(covered, statementMask[queue[i]]);
+                    most = Math.max(most, cardinality(statementMask[queue[i]]));
+                }
+                statements = Math.max(statements, cardinality(covered) - r * most);
+            }
+        }
+        return new Core(largest, statements);
+    }
+
+    private static boolean contained(long[] mask, List<long[]> masks) {
+        for (long[] other : masks) {
+            boolean subset = true;
+            for (int w = 0; w < mask.length && subset; w++) {
+                subset = (mask[w] & ~other[w]) == 0;
+            }
+            if (subset)
+                return true;
+        }
+        return false;
+    }
+
+    // Nodes by decreasing degree (ties by index)
+    public int[] byDegree() {
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (o1, o2) -> Integer.compare(cardinality(adj[o2]), cardinality(adj[o1])));
+        return Arrays.stream(order).mapToInt(Integer::intValue).toArray();
+    }
+
+    /*
+     * GraphHelper.createGroups for the deleted nodes. The statements are put into
+     * a HashMap in the order GraphHelper puts them, so the groups come out in the
+     * same order.
+     */
+    private ArrayList<Group> groups(int[] deletedNodes) {
+        Integer[] byKey = new Integer[deletedNodes.length];
+        for (int i = 0; i < deletedNodes.length; i++) {
+            byKey[i] = deletedNodes[i];
+        }
+        Arrays.sort(byKey, Comparator.comparingInt(node -> keyRank[node]));
+
+        HashMap<Integer, ArrayList<Integer>> invertedDeleted = new HashMap<>();
+        for (int node : byKey) {
+            for (int statement : statementsOf[node]) {
+                invertedDeleted.computeIfAbsent(statement, k -> new ArrayList<>()).add(node);
+            }
+        }
+
+        ArrayList<Group> groups = new ArrayList<>();
+        for (Integer statement : invertedDeleted.keySet()) {
+            ArrayList<Integer> entities = invertedDeleted.get(statement);
+            if (entities.size() > 1) {
+                Group group = null;
+                for (Group g : groups) {
+                    if (g.entities.equals(entities)) {
+                        group = g;
+                        break;
+                    }
+                }
+                if (group == null) {
+                    group = new Group(entities);
+                    groups.add(group);
+                }
+                group.statements.add(statement);
+            }
+        }
+
+        Collections.sort(groups, (o1, o2) -> (Integer.compare(o2.entities.size(), o1.entities.size())));
+        return groups;
+    }
+
+    // First node with the statement that is not deleted, in keySet order
+    private int firstNotDeleted(int statement, long[] deleted) {
+        for (int node : nodesOf.get(statement)) {
+            if (!get(deleted, node))
+                return node;
+        }
+        return -1;
+    }
+
+    private static Component componentOf(List<Component> components, int node) {
+        for (Component component : components) {
+            if (get(component.nodes, node))
+                return component;
+        }
+        return null;
+    }
+
+    // IntersectionGraph.findBestComponent, including its tie-breaking
+    private static Component bestComponent(List<Component> components, Group group) {
+        int max = 0;
+        Component best = null;
+        for (Component component : components) {
+            int contains = 0;
+            for (int node : group.entities) {
+                if (get(component.nodes, node))
+                    contains++;
+            }
+
+            if (max <= contains) {
+                if (best == null || component.size < best.size) {
+                    max = contains;
+                    best = component;
+                }
+            }
+        }
+        return best;
+    }
+
+    // Add copies of the group's nodes that the component misses, return how many
+    private static int addMissing(Component component, Group group) {
+        int missing = 0;
+        for (int node : group.entities) {
+            if (!get(component.nodes, node))
+                missing++;
+        }
+        for (int node : group.entities) {
+            set(component.nodes, node);
+        }
+        component.size += missing;
+        return missing;
+    }
+
+    // Nodes reachable from start within the allowed nodes (bitset BFS)
+    private long[] reach(int start, long[] allowed) {
+        long[] reached = new long[words];
+        long[] frontier = new long[words];
+        set(reached, start);
+        set(frontier, start);
+        while (!isEmpty(frontier)) {
+            long[] next = new long[words];
+            for (int node : nodes(frontier)) {
+                or(next, adj[node]);
+            }
+            for (int w = 0; w < words; w++) {
+                next[w] &= allowed[w] & ~reached[w];
+                reached[w] |= next[w];
+            }
+            frontier = next;
+        }
+        return reached;
+    }
+
+    // Nodes of a mask in increasing order
+    private static int[] nodes(long[] mask) {
+        int[] nodes = new int[cardinality(mask)];
+        int k = 0;
+        for (int w = 0; w < mask.length; w++) {
+            long bits = mask[w];
+            while (bits != 0) {
+                nodes[k++] = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        return nodes;
+    }
+
+    private static int first(long[] mask) {
+        for (int w = 0; w < mask.length; w++) {
+            if (mask[w] != 0)
+                return (w << 6) + Long.numberOfTrailingZeros(mask[w]);
+        }
+        return -1;
+    }
+
+    private static int cardinality(long[] mask) {
+        int count = 0;
+        for (long bits : mask) {
+            count += Long.bitCount(bits);
+        }
+        return count;
+    }
+
+    private static boolean isEmpty(long[] mask) {
+        for (long bits : mask) {
+            if (bits != 0)
+                return false;
+        }
+        return true;
+    }
+
+    private static int cardinalityAnd(long[] a, long[] b) {
+        int count = 0;
+        for (int w = 0; w < a.length; w++) {
+            count += Long.bitCount(a[w] & b[w]);
+        }
+        return count;
+    }
+
+    private static boolean containsAll(long[] mask, List<Integer> nodes) {
+        for (int node : nodes) {
+            if (!get(mask, node))
+                return false;
+        }
+        return true;
+    }
+
+    // Whether a and b have a common node that is not in c
+    private static boolean intersectsAndNot(long[] a, long[] b, long[] c) {
+        for (int w = 0; w < a.length; w++) {
+            if ((a[w] & b[w] & ~(w < c.length ? c[w] : 0L)) != 0)
+                return true;
+        }
+        return false;
+    }
+
+    private static void or(long[] a, long[] b) {
+        for (int w = 0; w < a.length; w++) {
+            a[w] |= b[w];
+        }
+    }
+
+    private static void andNot(long[] a, long[] b) {
+        for (int w = 0; w < a.length; w++) {
+            a[w] &= ~b[w];
+        }
+    }
+
+    private static boolean get(long[] mask, int i) {
+        return (i >>> 6) < mask.length && (mask[i >>> 6] & (1L << i)) != 0;
+    }
+
+    private static void set(long[] mask, int i) {
+        mask[i >>> 6] |= 1L << i;
+    }
+
+    private static void clear(long[] mask, int i) {
+        mask[i >>> 6] &= ~(1L << i);
+    }
+}
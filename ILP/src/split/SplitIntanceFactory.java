@@ -11,18 +11,18 @@ import model.StatementEntityInstance;
 public class SplitIntanceFactory {
     StatementEntityInstance parentInstance;
     IntersectionGraph graph;
-    ArrayList<Integer> addedStatements;
+    HashSet<Integer> addedStatements;
 
     SplitIntanceFactory(StatementEntityInstance instance, IntersectionGraph graph) {
         this.parentInstance = instance;
         this.graph = graph;
-        this.addedStatements = new ArrayList<>();
+        this.addedStatements = new HashSet<>();
     }
 
     public ArrayList<StatementEntityInstance> createInstances() {
         ArrayList<StatementEntityInstance> result = new ArrayList<>();
 
-        for (ArrayList<Node> component : graph.components) {
+        for (GraphComponent component : graph.components) {
             // Store all entities in this component
             int[] entities = new int[component.size()];
 
@@ -34,7 +34,8 @@ public class SplitIntanceFactory {
 
             for (int i = 0; i < component.size(); i++) {
                 // Add each entity
-                Node ent = component.get(i);
+                int index = component.get(i);
+                Node ent = graph.intersectionGraph[index];
                 entities[i] = ent.id;
 
                 // For non deleted nodes get their statements from the instance
@@ -55,7 +56,7 @@ public class SplitIntanceFactory {
                 }
                 // For deleted nodes add only their shared statements to the instance
                 else {
-                    ArrayList<Integer> shared = findSharedStatements(ent, component, false);
+                    ArrayList<Integer> shared = findSharedStatements(index, component, false);
                     int[] arr = shared.stream().mapToInt(k -> k).toArray();
                     int[] uniqueArr = removeDuplicates(arr);
 
@@ -90,9 +91,7 @@ public class SplitIntanceFactory {
     private void addSharedStatementsBetweenDeletedNodes(ArrayList<StatementEntityInstance> result) {
         for (DeletedNodeGroup group : graph.helper.groups) {
             for (Integer statementId : group.statements) {
-                if (!addedStatements.contains(statementId)) {
-                    
-                    addedStatements.add(statementId);
+                if (addedStatements.add(statementId)) {
 
                     StatementEntityInstance smallestInstance = findSmallestSharedInstance(result, group.entities);
 
@@ -180,21 +179,11 @@ public class SplitIntanceFactory {
         return uniqueArray;
     }
 
-    private ArrayList<Integer> findSharedStatements(Node node, ArrayList<Node> component, boolean includeDeleted) {
-        // Get only statements shared with another entity
+    private ArrayList<Integer> findSharedStatements(int node, GraphComponent component, boolean includeDeleted) {
+        // Get only statements shared with another entity (the copy in this
+        // component only has the edges to this component)
         ArrayList<Integer> sharedStatements = new ArrayList<>();
-
-        // Fill the shared statements list
-        for (Edge e : node.adj) {
-            // Check if the copy in this component should have this edge
-            if (includeDeleted && IntersectionGraph.containsId(e.target, component)) {
-                sharedStatements.addAll(e.statements);
-            }
-            else if (!includeDeleted && IntersectionGraph.containsId(e.target, component) 
-                                    && !graph.intersectionGraph[graph.getGraphIndexFromId(e.target)].deleted) {
-                sharedStatements.addAll(e.statements);
-            }
-        }
+        graph.addSharedStatements(node, component, includeDeleted, sharedStatements);
 
         return sharedStatements;
     }
@@ -203,9 +192,10 @@ public class SplitIntanceFactory {
         // Get all statements of this node
         int[] allStatements = parentInstance.entityIndToStatements.get(node.id);
         // Get only statements shared with another entity
-        ArrayList<Integer> sharedStatements = new ArrayList<>();
-        for (ArrayList<Node> component : graph.components) {
-            sharedStatements.addAll(findSharedStatements(node, component, true));
+        int index = graph.getGraphIndexFromId(node.id);
+        HashSet<Integer> sharedStatements = new HashSet<>();
+        for (GraphComponent component : graph.components) {
+            sharedStatements.addAll(findSharedStatements(index, component, true));
         }
 
         // Get all statement which are only in this entity
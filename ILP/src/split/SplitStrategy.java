@@ -0,0 +1,21 @@
+package split;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import model.StatementEntityInstance;
+
+/*
+ * A way to split an instance that is too large to solve into smaller instances
+ * by deleting entities. Every strategy ends with the IntersectionGraph
+ * split/merge/addDeletedNodes steps and SplitIntanceFactory, so the parts have
+ * the same form whichever strategy chose the deleted entities.
+ */
+public interface SplitStrategy {
+
+    // The parts of a split and the ids of the entities it deleted
+    record Result(ArrayList<StatementEntityInstance> parts, List<Integer> deletedEntities) {
+    }
+
+    Result split(StatementEntityInstance instance);
+}
@@ -0,0 +1,64 @@
+package split;
+
+/*
+ * Split cost from the solver's point of view. A part is solved on a grid with
+ * capacity cells, so a part with more statements cannot be solved and is split
+ * again; every such part pays a penalty that outweighs the other terms. The
+ * statements of a part include those SplitIntanceFactory adds for the deleted
+ * nodes. Like EntityCountCost, every component, deleted node and copy counts
+ * one, and the parts are balanced by their predicted solve effort: statements
+ * times non-member pairs (entity-statement pairs that are not memberships).
+ */
+public class StatementCost implements SplitCostModel {
+    private static final int OVER_CAPACITY = 100;
+    private final int capacity;
+
+    public StatementCost(int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public double cost(Shape split) {
+        int[] entities = split.entities();
+        int[] statements = split.statements();
+
+        double cost = entities.length + split.deleted() + split.copies();
+
+        double total = 0, largest = 0;
+        for (int c = 0; c < entities.length; c++) {
+            if (statements[c] > capacity)
+                cost += OVER_CAPACITY;
+
+            double effort = effort(entities[c], statements[c], split.memberships()[c]);
+            total += effort;
+            largest = Math.max(largest, effort);
+        }
+
+        // Largest effort relative to the mean, 1 if all parts take the same
+        cost += total > 0 ? largest * entities.length / total : 1.0;
+
+        return cost;
+    }
+
+    private static double effort(int entities, int statements, int memberships) {
+        long nonMembers = Math.max(0, (long) entities * statements - memberships);
+        return (double) statements * (1 + nonMembers);
+    }
+
+    // At least two components and a balance of 1; the piece stays in one part,
+    // so it is over capacity if its statements are
+    @Override
+    public double lowerBound(Partial partial) {
+        double bound = 2 + partial.deleted() + partial.copies();
+
+        if (partial.pieceStatements() > capacity)
+            bound += OVER_CAPACITY;
+
+        return bound + 1.0;
+    }
+
+    @Override
+    public boolean countsStatements() {
+        return true;
+    }
+}